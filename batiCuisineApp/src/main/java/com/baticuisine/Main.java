@@ -1,10 +1,35 @@
 package com.baticuisine;
 
-import java.sql.Connection;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.baticuisine.cache.CacheInvalidationListener;
+import com.baticuisine.cache.CacheManager;
+import com.baticuisine.database.ChangeNotifier;
 import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.QuotePartitionManager;
+import com.baticuisine.database.TransactionManager;
+import com.baticuisine.export.ExportFormat;
+import com.baticuisine.export.ExportService;
+import com.baticuisine.export.ExportType;
+import com.baticuisine.export.columnar.ColumnType;
+import com.baticuisine.export.columnar.ColumnarDataset;
+import com.baticuisine.export.columnar.ColumnarReader;
+import com.baticuisine.repository.ArchiveRepositoryImpl;
+import com.baticuisine.repository.AsyncExecutor;
+import com.baticuisine.repository.AsyncProjectRepositoryImpl;
+import com.baticuisine.repository.AsyncQuoteRepository;
+import com.baticuisine.repository.AsyncQuoteRepositoryImpl;
+import com.baticuisine.repository.CachingClientRepository;
+import com.baticuisine.repository.CachingComponentRepository;
+import com.baticuisine.repository.CachingProjectRepository;
+import com.baticuisine.repository.CachingQuoteRepository;
 import com.baticuisine.repository.ClientRepository;
 import com.baticuisine.repository.ClientRepositoryImpl;
 import com.baticuisine.repository.ComponentRepository;
@@ -13,6 +38,9 @@ import com.baticuisine.repository.ProjectRepository;
 import com.baticuisine.repository.ProjectRepositoryImpl;
 import com.baticuisine.repository.QuoteRepository;
 import com.baticuisine.repository.QuoteRepositoryImpl;
+import com.baticuisine.repository.RollupRepository;
+import com.baticuisine.repository.RollupRepositoryImpl;
+import com.baticuisine.service.ArchivalService;
 import com.baticuisine.service.ClientService;
 import com.baticuisine.service.CostCalculator;
 import com.baticuisine.service.MaterialService;
@@ -24,27 +52,70 @@ import com.baticuisine.ui.MaterialUI;
 import com.baticuisine.ui.ProjectUI;
 import com.baticuisine.utils.DateUtils;
 import com.baticuisine.utils.InputValidator;
+import com.baticuisine.utils.PropertyLoader;
 
 public class Main {
     private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
 
     public static void main(String[] args) {
+        if (args.length > 0 && ("export".equals(args[0]) || "export-columnar".equals(args[0]))) {
+            runExport(args);
+            return;
+        }
+        if (args.length > 0 && "scan".equals(args[0])) {
+            runScan(args);
+            return;
+        }
+        if (args.length > 0 && "detach-quotes".equals(args[0])) {
+            runDetachQuotes(args);
+            return;
+        }
+        if (args.length > 0 && "archive".equals(args[0])) {
+            runArchive(args);
+            return;
+        }
+        if (args.length > 0 && "listen-invalidations".equals(args[0])) {
+            runListenInvalidations();
+            return;
+        }
+
         LOGGER.info("Starting Bati-Cuisine application");
 
-        try (Connection connection = DatabaseConnection.getInstance().getConnection()) {
+        CacheInvalidationListener invalidationListener = null;
+        try {
+            DatabaseConnection database = DatabaseConnection.getInstance();
+            TransactionManager transactionManager = new TransactionManager(database);
+            maintainQuotePartitions(new QuotePartitionManager(database, transactionManager));
+
             // Initialize repositories
-            ProjectRepository projectRepository = ProjectRepositoryImpl.getInstance(connection);
-            ClientRepository clientRepository = ClientRepositoryImpl.getInstance(connection);
-            QuoteRepository quoteRepository = QuoteRepositoryImpl.getInstance(connection);
-            ComponentRepository componentRepository = ComponentRepositoryImpl.getInstance();
+            ProjectRepository projectRepository = ProjectRepositoryImpl.getInstance(database);
+            ClientRepository clientRepository = ClientRepositoryImpl.getInstance(database);
+            QuoteRepository quoteRepository = QuoteRepositoryImpl.getInstance(database);
+            ComponentRepository componentRepository = ComponentRepositoryImpl.getInstance(database);
+            RollupRepository rollupRepository = RollupRepositoryImpl.getInstance(database);
+            if (CacheManager.isEnabled()) {
+                CacheManager caches = CacheManager.getInstance();
+                projectRepository = new CachingProjectRepository(projectRepository, database, caches);
+                clientRepository = new CachingClientRepository(clientRepository, database, caches);
+                quoteRepository = new CachingQuoteRepository(quoteRepository, database, caches);
+                componentRepository = new CachingComponentRepository(componentRepository, database, caches);
+                ChangeNotifier changes = ChangeNotifier.getInstance(database);
+                if (changes.isEnabled()) {
+                    invalidationListener = new CacheInvalidationListener(database, caches, changes.getNodeId()).start();
+                }
+            }
+            AsyncExecutor asyncExecutor = AsyncExecutor.getInstance();
+            AsyncQuoteRepository asyncQuoteRepository = new AsyncQuoteRepositoryImpl(quoteRepository, asyncExecutor);
 
             // Initialize services
             DateUtils dateUtils = new DateUtils();
             MaterialService materialService = new MaterialService(componentRepository);
             CostCalculator costCalculator = new CostCalculator(materialService);
-            ProjectService projectService = ProjectService.getInstance(projectRepository, dateUtils, componentRepository, costCalculator);
-            ClientService clientService = ClientService.getInstance(clientRepository);
-            QuoteGenerator quoteGenerator = new QuoteGenerator(costCalculator, quoteRepository);
+            ProjectService projectService = ProjectService.getInstance(projectRepository, dateUtils, componentRepository, costCalculator, transactionManager,
+                    new AsyncProjectRepositoryImpl(projectRepository, asyncExecutor), asyncQuoteRepository, rollupRepository);
+            ClientService clientService = ClientService.getInstance(clientRepository, rollupRepository);
+            QuoteGenerator quoteGenerator = new QuoteGenerator(costCalculator, quoteRepository, asyncQuoteRepository,
+                    CacheManager.isEnabled() ? CacheManager.getInstance().renderedQuotes() : null);
 
             // Initialize UI components
             InputValidator inputValidator = new InputValidator();
@@ -58,9 +129,190 @@ public class Main {
 
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "An error occurred while running the application", e);
+        } finally {
+            if (invalidationListener != null) {
+                invalidationListener.close();
+                invalidationListener.logStats();
+            }
+            if (CacheManager.isEnabled()) {
+                CacheManager.getInstance().logStats();
+            }
+            AsyncExecutor.getInstance().shutdown();
+            DatabaseConnection.getInstance().closeConnection();
+        }
+    }
+
+    /**
+     * {@code export <projects|clients|quotes> <csv|ndjson> <file>} or
+     * {@code export-columnar <projects|project_components|materials|labor|quotes> <file>}
+     */
+    private static void runExport(String[] args) {
+        boolean columnar = "export-columnar".equals(args[0]);
+        if (args.length != (columnar ? 3 : 4)) {
+            System.err.println("Usage: export <projects|clients|quotes> <csv|ndjson> <file>");
+            System.err.println("       export-columnar <projects|project_components|materials|labor|quotes> <file>");
+            System.exit(2);
+        }
+        int status = 0;
+        try {
+            DatabaseConnection database = DatabaseConnection.getInstance();
+            ExportService exportService = new ExportService(database, new TransactionManager(database));
+            String file = args[args.length - 1];
+            long count = columnar
+                    ? exportService.exportColumnar(ColumnarDataset.fromString(args[1]), Paths.get(file))
+                    : exportService.export(ExportType.fromString(args[1]), ExportFormat.fromString(args[2]),
+                            Paths.get(file));
+            System.out.println(count + " records exported to " + file);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Export failed", e);
+            status = 1;
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+        }
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * {@code scan <file> <column>}: summarizes one column of a columnar export without a database.
+     */
+    private static void runScan(String[] args) {
+        if (args.length != 3) {
+            System.err.println("Usage: scan <file> <column>");
+            System.exit(2);
+        }
+        try (ColumnarReader reader = ColumnarReader.open(Paths.get(args[1]))) {
+            long[] counts = new long[2]; // values, nulls
+            double[] totals = { 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY }; // sum, min, max
+            Set<String> distinct = new HashSet<>();
+            reader.scan(args[2], chunk -> {
+                counts[1] += chunk.getStats().getNullCount();
+                for (int i = 0; i < chunk.getRowCount(); i++) {
+                    if (chunk.isNull(i)) {
+                        continue;
+                    }
+                    counts[0]++;
+                    if (chunk.getType() == ColumnType.STRING) {
+                        distinct.add(chunk.getString(i));
+                    } else {
+                        totals[0] += chunk.getDouble(i);
+                    }
+                }
+                if (chunk.getStats().hasMinMax()) {
+                    totals[1] = Math.min(totals[1], chunk.getStats().getMinDouble());
+                    totals[2] = Math.max(totals[2], chunk.getStats().getMaxDouble());
+                }
+            });
+            System.out.println(args[2] + ": " + counts[0] + " values, " + counts[1] + " nulls");
+            if (!distinct.isEmpty()) {
+                System.out.println("distinct=" + distinct.size());
+            } else if (counts[0] > 0) {
+                System.out.println("min=" + totals[1] + " max=" + totals[2] + " sum=" + totals[0]);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Scan failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Creates the coming months' quote partitions and, when {@code quotes.partitions.retainMonths}
+     * is positive, detaches the partitions older than that.
+     */
+    private static void maintainQuotePartitions(QuotePartitionManager partitions) {
+        YearMonth now = YearMonth.now();
+        partitions.ensurePartitions(now, PropertyLoader.getIntProperty("quotes.partitions.monthsAhead", 3));
+        int retainMonths = PropertyLoader.getIntProperty("quotes.partitions.retainMonths", 0);
+        if (retainMonths > 0) {
+            partitions.detachPartitionsBefore(now.minusMonths(retainMonths),
+                    PropertyLoader.getProperty("quotes.partitions.coldTablespace", ""));
+        }
+    }
+
+    /**
+     * {@code detach-quotes <yyyy-mm> [tablespace]}: detaches the quote partitions before that month.
+     */
+    private static void runDetachQuotes(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: detach-quotes <yyyy-mm> [tablespace]");
+            System.exit(2);
+        }
+        int status = 0;
+        try {
+            YearMonth cutoff = YearMonth.parse(args[1]);
+            DatabaseConnection database = DatabaseConnection.getInstance();
+            QuotePartitionManager partitions = new QuotePartitionManager(database, new TransactionManager(database));
+            System.out.println("Detached: " + partitions.detachPartitionsBefore(cutoff, args.length == 3 ? args[2] : ""));
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid month: " + args[1]);
+            status = 2;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Detaching quote partitions failed", e);
+            status = 1;
         } finally {
             DatabaseConnection.getInstance().closeConnection();
         }
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * {@code archive [days]}: archives the projects closed for more than {@code days} days
+     * ({@code archive.closedProjectAgeDays} by default), then purges orphaned components.
+     */
+    private static void runArchive(String[] args) {
+        if (args.length > 2) {
+            System.err.println("Usage: archive [days]");
+            System.exit(2);
+        }
+        int status = 0;
+        try {
+            int closedForDays = args.length == 2
+                    ? Integer.parseInt(args[1])
+                    : PropertyLoader.getIntProperty("archive.closedProjectAgeDays", 365);
+            DatabaseConnection database = DatabaseConnection.getInstance();
+            ArchivalService archival = new ArchivalService(ArchiveRepositoryImpl.getInstance(database), database,
+                    new TransactionManager(database),
+                    PropertyLoader.getIntProperty("archive.chunkSize", 500),
+                    PropertyLoader.getLongProperty("archive.pauseMs", 100));
+            System.out.println("Archived projects: " + archival.archiveClosedProjects(closedForDays));
+            System.out.println("Purged components: " + archival.purgeOrphanedComponents());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number of days: " + args[1]);
+            status = 2;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Archival failed", e);
+            status = 1;
+        } finally {
+            DatabaseConnection.getInstance().closeConnection();
+        }
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * {@code listen-invalidations}: prints every cache invalidation received from other nodes,
+     * with its latency, until Enter is pressed. Run it next to a second instance to check
+     * cross-node invalidation end to end.
+     */
+    private static void runListenInvalidations() {
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        ChangeNotifier changes = ChangeNotifier.getInstance(database);
+        try (CacheInvalidationListener listener = new CacheInvalidationListener(database, CacheManager.getInstance(),
+                changes.getNodeId())) {
+            listener.onEviction((change, latencyMs) -> System.out.println("Evicted " + change.getTable() + " "
+                    + change.getId() + " (node " + change.getNode() + ", " + latencyMs + " ms)")).start();
+            System.out.println("Listening as node " + changes.getNodeId() + "; press Enter to stop.");
+            System.in.read();
+            System.out.println(listener.getLatency());
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Listener failed", e);
+        } finally {
+            database.closeConnection();
+        }
     }
 
     private static void runApplication(MainMenu mainMenu, ProjectUI projectUI, ClientUI clientUI, MaterialUI materialUI) {
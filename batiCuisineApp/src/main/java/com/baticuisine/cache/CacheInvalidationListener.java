@@ -0,0 +1,163 @@
+package com.baticuisine.cache;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import com.baticuisine.database.ChangeNotification;
+import com.baticuisine.database.ChangeNotifier;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.utils.PropertyLoader;
+
+/**
+ * Evicts this JVM's cache entries when another node changes the rows behind them.
+ * <p>
+ * A daemon thread holds a dedicated connection that {@code LISTEN}s on
+ * {@link ChangeNotifier#CHANNEL} and drains the driver's notifications every
+ * {@code cache.notify.pollMs}. Notifications from this node are skipped, since its own writes
+ * evict locally. Invalidation latency, from the sender's write to the eviction here, is
+ * recorded in {@link #getLatency()}; it relies on the nodes' clocks being in sync.
+ * <p>
+ * Notifications sent while the connection is down are lost, so every cache is cleared after a
+ * reconnect.
+ */
+public class CacheInvalidationListener implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(CacheInvalidationListener.class.getName());
+
+    private final DatabaseConnection database;
+    private final CacheManager caches;
+    private final String nodeId;
+    private final int pollMs;
+    private final long retryMs;
+    private final LatencyStats latency = new LatencyStats();
+    private final AtomicLong ownSkipped = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Connection connection;
+    private volatile BiConsumer<ChangeNotification, Long> observer;
+
+    public CacheInvalidationListener(DatabaseConnection database, CacheManager caches, String nodeId) {
+        this.database = database;
+        this.caches = caches;
+        this.nodeId = nodeId;
+        this.pollMs = PropertyLoader.getIntProperty("cache.notify.pollMs", 500);
+        this.retryMs = PropertyLoader.getLongProperty("cache.notify.retryMs", 5_000);
+        this.thread = new Thread(this::run, "cache-invalidation-listener");
+        this.thread.setDaemon(true);
+    }
+
+    public CacheInvalidationListener start() {
+        thread.start();
+        LOGGER.info("Listening for cache invalidations on '" + ChangeNotifier.CHANNEL + "' as node " + nodeId);
+        return this;
+    }
+
+    /**
+     * Called on the listener thread after each eviction, with the change and its latency in ms.
+     */
+    public CacheInvalidationListener onEviction(BiConsumer<ChangeNotification, Long> observer) {
+        this.observer = observer;
+        return this;
+    }
+
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    public void logStats() {
+        LOGGER.info("Cache invalidations: " + latency + ", own skipped=" + ownSkipped.get()
+                + ", malformed=" + malformed.get() + ", reconnects=" + reconnects.get());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing listener connection", e);
+            }
+        }
+        try {
+            thread.join(pollMs + 1_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection listening = database.openDedicatedConnection()) {
+                connection = listening;
+                try (Statement stmt = listening.createStatement()) {
+                    stmt.execute("LISTEN " + ChangeNotifier.CHANNEL);
+                }
+                if (connectedBefore) {
+                    reconnects.incrementAndGet();
+                    caches.invalidateAll();
+                    LOGGER.info("Cache invalidation listener reconnected; caches cleared");
+                }
+                connectedBefore = true;
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                LOGGER.log(Level.WARNING, "Cache invalidation listener lost its connection; retrying in "
+                        + retryMs + " ms", e);
+                try {
+                    Thread.sleep(retryMs);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        ChangeNotification change;
+        try {
+            change = ChangeNotification.parse(payload);
+        } catch (IllegalArgumentException e) {
+            malformed.incrementAndGet();
+            LOGGER.warning(e.getMessage());
+            return;
+        }
+        if (nodeId.equals(change.getNode())) {
+            ownSkipped.incrementAndGet();
+            return;
+        }
+        caches.evictChanged(change.getTable(), change.getId());
+        long latencyMs = System.currentTimeMillis() - change.getSentAtMillis();
+        latency.record(latencyMs);
+        BiConsumer<ChangeNotification, Long> current = observer;
+        if (current != null) {
+            current.accept(change, latencyMs);
+        }
+        LOGGER.fine("Evicted " + change.getTable() + " " + change.getId() + " changed by node "
+                + change.getNode() + " after " + latencyMs + " ms");
+    }
+}
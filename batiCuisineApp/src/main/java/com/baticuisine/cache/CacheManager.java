@@ -0,0 +1,151 @@
+package com.baticuisine.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.model.Client;
+import com.baticuisine.model.Component;
+import com.baticuisine.model.Project;
+import com.baticuisine.utils.PropertyLoader;
+
+/**
+ * The application's entity caches, each sized by {@code cache.<name>.maxWeight} (approximate
+ * bytes) and {@code cache.<name>.ttlMs}. The caching repositories read and invalidate them.
+ */
+public class CacheManager {
+    private static final Logger LOGGER = Logger.getLogger(CacheManager.class.getName());
+    private static CacheManager instance;
+
+    private final EntityCache<Long, Client> clients;
+    private final EntityCache<Long, Component> components;
+    private final EntityCache<String, List<Component>> componentLists;
+    private final EntityCache<Long, Project> projects;
+    private final EntityCache<Long, RenderedQuote> renderedQuotes;
+
+    private CacheManager() {
+        this.clients = create("clients", 4L << 20, 600_000, EntityWeighers.CLIENT);
+        this.components = create("components", 4L << 20, 600_000, EntityWeighers.COMPONENT);
+        this.componentLists = create("componentLists", 2L << 20, 600_000, EntityWeighers.COMPONENT_LIST);
+        this.projects = create("projects", 8L << 20, 300_000, EntityWeighers.PROJECT);
+        this.renderedQuotes = create("renderedQuotes", 16L << 20, 3_600_000, EntityWeighers.RENDERED_QUOTE);
+    }
+
+    public static synchronized CacheManager getInstance() {
+        if (instance == null) {
+            instance = new CacheManager();
+        }
+        return instance;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(PropertyLoader.getProperty("cache.enabled", "true"));
+    }
+
+    public EntityCache<Long, Client> clients() {
+        return clients;
+    }
+
+    public EntityCache<Long, Component> components() {
+        return components;
+    }
+
+    /**
+     * Component lists by query, e.g. {@code findByType} results keyed by type.
+     */
+    public EntityCache<String, List<Component>> componentLists() {
+        return componentLists;
+    }
+
+    public EntityCache<Long, Project> projects() {
+        return projects;
+    }
+
+    /**
+     * The last quote generated for each project, by project id. Evicted with the project, and
+     * wholesale on client and component changes, which may change any project's prices.
+     */
+    public EntityCache<Long, RenderedQuote> renderedQuotes() {
+        return renderedQuotes;
+    }
+
+    /**
+     * Runs {@code eviction} now and, inside a unit of work, again once it ends: another thread
+     * may have cached the old row in between, since this thread's uncommitted write was invisible to it.
+     */
+    public void evict(DatabaseConnection database, Runnable eviction) {
+        eviction.run();
+        if (database.isInTransaction()) {
+            database.afterTransaction(eviction);
+        }
+    }
+
+    /**
+     * Evicts what a change to row {@code id} of {@code table}, made by another node, may have
+     * made stale. Unknown tables clear every cache.
+     */
+    public void evictChanged(String table, long id) {
+        switch (table) {
+            case "clients":
+                clients.invalidate(id);
+                projects.invalidateAll();
+                renderedQuotes.invalidateAll();
+                break;
+            case "components":
+            case "materials":
+            case "labor":
+                components.invalidate(id);
+                componentLists.invalidateAll();
+                projects.invalidateAll();
+                renderedQuotes.invalidateAll();
+                break;
+            case "projects":
+                projects.invalidate(id);
+                renderedQuotes.invalidate(id);
+                components.invalidateAll();
+                componentLists.invalidateAll();
+                break;
+            case "quotes":
+                // Cached projects may hold the quote, and the notification carries only its id
+                projects.invalidateAll();
+                break;
+            default:
+                invalidateAll();
+                break;
+        }
+    }
+
+    public List<CacheStats> stats() {
+        List<CacheStats> stats = new ArrayList<>();
+        for (EntityCache<?, ?> cache : all()) {
+            stats.add(cache.stats());
+        }
+        return stats;
+    }
+
+    public void logStats() {
+        for (CacheStats stats : stats()) {
+            LOGGER.info("Cache " + stats);
+        }
+    }
+
+    public void invalidateAll() {
+        for (EntityCache<?, ?> cache : all()) {
+            cache.invalidateAll();
+        }
+    }
+
+    private List<EntityCache<?, ?>> all() {
+        return Arrays.asList(clients, components, componentLists, projects, renderedQuotes);
+    }
+
+    private static <K, V> EntityCache<K, V> create(String name, long defaultMaxWeight, long defaultTtlMs,
+            Weigher<? super V> weigher) {
+        return new EntityCache<>(name,
+                PropertyLoader.getLongProperty("cache." + name + ".maxWeight", defaultMaxWeight),
+                PropertyLoader.getLongProperty("cache." + name + ".ttlMs", defaultTtlMs),
+                weigher);
+    }
+}
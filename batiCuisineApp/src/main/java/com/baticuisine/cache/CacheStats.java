@@ -0,0 +1,51 @@
+package com.baticuisine.cache;
+
+/**
+ * Counters of one {@link EntityCache} at a point in time.
+ */
+public class CacheStats {
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int size;
+    private final long weight;
+    private final long maxWeight;
+
+    public CacheStats(String name, long hits, long misses, long evictions, long expirations, long invalidations,
+            int size, long weight, long maxWeight) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+    }
+
+    public String getName() { return name; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getExpirations() { return expirations; }
+    public long getInvalidations() { return invalidations; }
+    public int getSize() { return size; }
+    public long getWeight() { return weight; }
+    public long getMaxWeight() { return maxWeight; }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d entries, weight %d/%d, hits %d, misses %d (hit rate %.1f%%), evictions %d, "
+                + "expirations %d, invalidations %d", name, size, weight, maxWeight, hits, misses,
+                getHitRate() * 100, evictions, expirations, invalidations);
+    }
+}
@@ -0,0 +1,269 @@
+package com.baticuisine.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A concurrent cache bounded by total weight, with sampled LFU eviction and a time to live.
+ * <p>
+ * Reads are lock-free. Writes, invalidations and evictions are serialized on one lock, which
+ * suits the read-mostly catalogs cached here. Each entry keeps an approximate access count.
+ * When the cache is over its maximum weight, it samples a few entries and evicts the least
+ * frequently used one, or an expired one if the sample holds any. Counts are halved each time
+ * about as many entries have been written as the cache holds, so old popularity fades.
+ * <p>
+ * {@link #get(Object, Function)} does not cache a loaded value if an invalidation happened while
+ * it was loading, so a slow read cannot put back data that a concurrent write just replaced.
+ */
+public class EntityCache<K, V> {
+    private static final int SAMPLE_SIZE = 8;
+    private static final int MAX_FREQUENCY = 255;
+    private static final int MIN_AGING_PERIOD = 64;
+
+    private final String name;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final Weigher<? super V> weigher;
+
+    private final ConcurrentHashMap<K, Node<K, V>> entries = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // Guarded by lock: every node of entries, in no particular order, for O(1) random sampling
+    private final List<Node<K, V>> slots = new ArrayList<>();
+    private long weight;
+    private int writesSinceAging;
+    private volatile long invalidationEpoch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param ttlMs time to live of each entry from when it is written; 0 or less disables expiry
+     */
+    public EntityCache(String name, long maxWeight, long ttlMs, Weigher<? super V> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttlMs > 0 ? ttlMs * 1_000_000L : 0;
+        this.weigher = weigher;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the cached value, or {@code null} on a miss or if the entry has expired.
+     */
+    public V get(K key) {
+        Node<K, V> node = entries.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (node.isExpired(System.nanoTime())) {
+            remove(node, expirations);
+            misses.increment();
+            return null;
+        }
+        node.touch();
+        hits.increment();
+        return node.value;
+    }
+
+    /**
+     * Returns the cached value, loading and caching it on a miss. A {@code null} from
+     * {@code loader} is returned but not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long epoch = invalidationEpoch;
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            synchronized (lock) {
+                if (epoch == invalidationEpoch) {
+                    write(key, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(value, "value");
+        synchronized (lock) {
+            write(key, value);
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (lock) {
+            invalidationEpoch++;
+            Node<K, V> node = entries.remove(key);
+            if (node != null) {
+                detach(node);
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (lock) {
+            invalidationEpoch++;
+            invalidations.add(slots.size());
+            entries.clear();
+            slots.clear();
+            weight = 0;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        synchronized (lock) {
+            return new CacheStats(name, hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                    invalidations.sum(), slots.size(), weight, maxWeight);
+        }
+    }
+
+    private void write(K key, V value) {
+        int valueWeight = weigher.weigh(value);
+        Node<K, V> previous;
+        if (valueWeight > maxWeight) {
+            // Too large to ever fit: do not cache it, and drop the old value
+            previous = entries.remove(key);
+            if (previous != null) {
+                detach(previous);
+            }
+            return;
+        }
+        long now = System.nanoTime();
+        Node<K, V> node = new Node<>(key, value, valueWeight, ttlNanos > 0, now + ttlNanos, now);
+        previous = entries.put(key, node);
+        if (previous != null) {
+            detach(previous);
+            node.frequency = previous.frequency;
+        }
+        attach(node);
+        if (++writesSinceAging >= Math.max(MIN_AGING_PERIOD, slots.size())) {
+            age();
+        }
+        while (weight > maxWeight && slots.size() > 1) {
+            evictOne(node, now);
+        }
+    }
+
+    private void evictOne(Node<K, V> justWritten, long now) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Node<K, V> victim = null;
+        boolean victimExpired = false;
+        int samples = Math.min(SAMPLE_SIZE, slots.size() - 1);
+        for (int i = 0; i < samples; i++) {
+            Node<K, V> candidate = slots.get(random.nextInt(slots.size()));
+            if (candidate == justWritten) {
+                continue;
+            }
+            boolean expired = candidate.isExpired(now);
+            if (victim == null || isBetterVictim(candidate, expired, victim, victimExpired)) {
+                victim = candidate;
+                victimExpired = expired;
+            }
+        }
+        if (victim == null) {
+            // Every sample hit the new entry; fall back to any other one
+            victim = slots.get(0) != justWritten ? slots.get(0) : slots.get(1);
+            victimExpired = victim.isExpired(now);
+        }
+        entries.remove(victim.key, victim);
+        detach(victim);
+        (victimExpired ? expirations : evictions).increment();
+    }
+
+    private static boolean isBetterVictim(Node<?, ?> candidate, boolean candidateExpired,
+            Node<?, ?> victim, boolean victimExpired) {
+        if (candidateExpired != victimExpired) {
+            return candidateExpired;
+        }
+        if (candidate.frequency != victim.frequency) {
+            return candidate.frequency < victim.frequency;
+        }
+        return candidate.writtenAt < victim.writtenAt;
+    }
+
+    private void age() {
+        for (Node<K, V> node : slots) {
+            node.frequency >>>= 1;
+        }
+        writesSinceAging = 0;
+    }
+
+    private void remove(Node<K, V> node, LongAdder counter) {
+        synchronized (lock) {
+            if (entries.remove(node.key, node)) {
+                detach(node);
+                counter.increment();
+            }
+        }
+    }
+
+    private void attach(Node<K, V> node) {
+        node.slot = slots.size();
+        slots.add(node);
+        weight += node.weight;
+    }
+
+    private void detach(Node<K, V> node) {
+        Node<K, V> last = slots.remove(slots.size() - 1);
+        if (last != node) {
+            slots.set(node.slot, last);
+            last.slot = node.slot;
+        }
+        weight -= node.weight;
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int weight;
+        final boolean expires;
+        final long expiresAt;
+        final long writtenAt;
+        // Approximate: concurrent readers may lose increments, which is fine for eviction
+        volatile int frequency;
+        int slot;
+
+        Node(K key, V value, int weight, boolean expires, long expiresAt, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expires = expires;
+            this.expiresAt = expiresAt;
+            this.writtenAt = writtenAt;
+        }
+
+        boolean isExpired(long now) {
+            return expires && now - expiresAt >= 0;
+        }
+
+        void touch() {
+            int current = frequency;
+            if (current < MAX_FREQUENCY) {
+                frequency = current + 1;
+            }
+        }
+    }
+}
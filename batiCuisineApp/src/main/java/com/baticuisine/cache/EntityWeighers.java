@@ -0,0 +1,85 @@
+package com.baticuisine.cache;
+
+import java.util.List;
+
+import com.baticuisine.model.Client;
+import com.baticuisine.model.Component;
+import com.baticuisine.model.Labor;
+import com.baticuisine.model.Material;
+import com.baticuisine.model.Project;
+import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteLine;
+
+/**
+ * Approximate heap footprint, in bytes, of the cached entities. Only used to bound the caches,
+ * so object headers and field sizes are rough constants.
+ */
+public final class EntityWeighers {
+    private static final int OBJECT = 48;
+    private static final int LIST_ENTRY = 8;
+
+    public static final Weigher<Client> CLIENT = EntityWeighers::weighClient;
+    public static final Weigher<Component> COMPONENT = EntityWeighers::weighComponent;
+    public static final Weigher<List<? extends Component>> COMPONENT_LIST = EntityWeighers::weighComponents;
+    public static final Weigher<Project> PROJECT = EntityWeighers::weighProject;
+    // Counts the off-heap document too: the cache's bound is what caps direct memory use
+    public static final Weigher<RenderedQuote> RENDERED_QUOTE = quote ->
+            OBJECT * 2 + quote.getDocumentSize() + quote.getLines().size() * (LIST_ENTRY + OBJECT * 2);
+
+    private EntityWeighers() {
+    }
+
+    static int weighClient(Client client) {
+        return OBJECT + string(client.getName()) + string(client.getEmail()) + string(client.getAddress())
+                + string(client.getPhoneNumber());
+    }
+
+    static int weighComponent(Component component) {
+        return OBJECT + string(component.getName()) + string(component.getComponentType())
+                + (component instanceof Material || component instanceof Labor ? 32 : 0);
+    }
+
+    static int weighComponents(List<? extends Component> components) {
+        int weight = OBJECT;
+        for (Component component : components) {
+            weight += LIST_ENTRY + weighComponent(component);
+        }
+        return weight;
+    }
+
+    /**
+     * Counts only the associations already loaded, so weighing never triggers a lazy load.
+     */
+    static int weighProject(Project project) {
+        int weight = OBJECT * 4 + string(project.getProjectName());
+        if (project.isClientLoaded() && project.getClient() != null) {
+            weight += weighClient(project.getClient());
+        }
+        if (project.isMaterialsLoaded()) {
+            weight += weighComponents(project.getMaterials());
+        }
+        if (project.isLaborItemsLoaded()) {
+            weight += weighComponents(project.getLaborItems());
+        }
+        if (project.isQuotesLoaded()) {
+            for (int i = 0; i < project.getQuotes().size(); i++) {
+                Quote quote = project.getQuotes().get(i);
+                weight += LIST_ENTRY + OBJECT * 2;
+                if (quote.isContentLoaded()) {
+                    weight += string(quote.getContent());
+                }
+                List<QuoteLine> lines = quote.getLines();
+                if (lines != null) {
+                    for (QuoteLine line : lines) {
+                        weight += LIST_ENTRY + OBJECT * 2 + string(line.getDescription());
+                    }
+                }
+            }
+        }
+        return weight;
+    }
+
+    private static int string(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+}
@@ -0,0 +1,59 @@
+package com.baticuisine.cache;
+
+/**
+ * Count, mean, maximum and approximate percentiles of latencies in milliseconds, kept in
+ * power-of-two buckets so recording never allocates.
+ */
+public class LatencyStats {
+    private static final int BUCKETS = 32;
+
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    public synchronized void record(long latencyMs) {
+        long latency = Math.max(0, latencyMs);
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(latency))]++;
+        count++;
+        total += latency;
+        max = Math.max(max, latency);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized double getMeanMs() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    public synchronized long getMaxMs() {
+        return max;
+    }
+
+    /**
+     * Upper bound of the bucket holding the {@code percentile} (0-100) latency, capped at the
+     * maximum seen.
+     */
+    public synchronized long getPercentileMs(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(max, i == 0 ? 0 : (1L << i) - 1);
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("count=%d, mean=%.1f ms, p50=%d ms, p99=%d ms, max=%d ms",
+                count, getMeanMs(), getPercentileMs(50), getPercentileMs(99), max);
+    }
+}
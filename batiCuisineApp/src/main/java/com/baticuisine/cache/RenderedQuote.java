@@ -0,0 +1,68 @@
+package com.baticuisine.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.baticuisine.model.QuoteLine;
+
+/**
+ * A generated quote cached by project: its priced lines and total, and its rendered document
+ * held as UTF-8 in a direct buffer, outside the heap. The entry is valid only while the
+ * project's pricing inputs still hash to {@link #getFingerprint()}.
+ */
+public class RenderedQuote {
+    private final byte[] fingerprint;
+    private final double totalCost;
+    private final List<QuoteLine> lines;
+    private final ByteBuffer document;
+    // Set once the document has been stored, so saving the same render again skips the store
+    private volatile String documentHash;
+
+    public RenderedQuote(byte[] fingerprint, double totalCost, List<QuoteLine> lines, String content) {
+        this.fingerprint = fingerprint.clone();
+        this.totalCost = totalCost;
+        this.lines = Collections.unmodifiableList(lines);
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        this.document = buffer.asReadOnlyBuffer();
+    }
+
+    public boolean matches(byte[] fingerprint) {
+        return Arrays.equals(this.fingerprint, fingerprint);
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint.clone();
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * The priced lines, shared by every quote served from this entry.
+     */
+    public List<QuoteLine> getLines() {
+        return lines;
+    }
+
+    public String getContent() {
+        return StandardCharsets.UTF_8.decode(document.duplicate()).toString();
+    }
+
+    public int getDocumentSize() {
+        return document.capacity();
+    }
+
+    public String getDocumentHash() {
+        return documentHash;
+    }
+
+    public void setDocumentHash(String documentHash) {
+        this.documentHash = documentHash;
+    }
+}
@@ -0,0 +1,10 @@
+package com.baticuisine.cache;
+
+/**
+ * Estimates how much of a cache's capacity a value uses, in arbitrary units (the caches of
+ * this application use approximate bytes). Must return a non-negative value.
+ */
+@FunctionalInterface
+public interface Weigher<V> {
+    int weigh(V value);
+}
@@ -0,0 +1,48 @@
+package com.baticuisine.database;
+
+/**
+ * A row change published on {@link ChangeNotifier#CHANNEL}. The payload is
+ * {@code table:id:node:sentAtMillis}, where {@code node} identifies the sending JVM.
+ */
+public class ChangeNotification {
+    private final String table;
+    private final long id;
+    private final String node;
+    private final long sentAtMillis;
+
+    public ChangeNotification(String table, long id, String node, long sentAtMillis) {
+        this.table = table;
+        this.id = id;
+        this.node = node;
+        this.sentAtMillis = sentAtMillis;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code payload} is not a change notification
+     */
+    public static ChangeNotification parse(String payload) {
+        String[] parts = payload != null ? payload.split(":") : new String[0];
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed change notification: " + payload);
+        }
+        try {
+            return new ChangeNotification(parts[0], Long.parseLong(parts[1]), parts[2], Long.parseLong(parts[3]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed change notification: " + payload, e);
+        }
+    }
+
+    public String toPayload() {
+        return table + ":" + id + ":" + node + ":" + sentAtMillis;
+    }
+
+    public String getTable() { return table; }
+    public long getId() { return id; }
+    public String getNode() { return node; }
+    public long getSentAtMillis() { return sentAtMillis; }
+
+    @Override
+    public String toString() {
+        return toPayload();
+    }
+}
@@ -0,0 +1,71 @@
+package com.baticuisine.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.baticuisine.utils.PropertyLoader;
+
+/**
+ * Publishes row changes with {@code pg_notify} so other JVMs can evict their caches.
+ * <p>
+ * The notification goes out on the connection of the unit of work bound to this thread, so
+ * PostgreSQL delivers it only if and when that unit of work commits. Outside a unit of work the
+ * write has already committed and the notification follows it. A failed notification is logged
+ * and never fails the write; the other nodes' cache TTLs bound how long they stay stale.
+ */
+public class ChangeNotifier {
+    private static final Logger LOGGER = Logger.getLogger(ChangeNotifier.class.getName());
+    public static final String CHANNEL = "baticuisine_changes";
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private static ChangeNotifier instance;
+    private final DatabaseConnection database;
+    private final String nodeId;
+    private final boolean enabled;
+
+    private ChangeNotifier(DatabaseConnection database, String nodeId, boolean enabled) {
+        this.database = database;
+        this.nodeId = nodeId;
+        this.enabled = enabled;
+    }
+
+    public static synchronized ChangeNotifier getInstance(DatabaseConnection database) {
+        if (instance == null) {
+            String nodeId = PropertyLoader.getProperty("cache.notify.nodeId", "");
+            instance = new ChangeNotifier(database,
+                    nodeId.trim().isEmpty() ? UUID.randomUUID().toString().substring(0, 8) : nodeId.trim(),
+                    Boolean.parseBoolean(PropertyLoader.getProperty("cache.notify.enabled", "true")));
+        }
+        return instance;
+    }
+
+    /**
+     * Identifies this JVM in the notifications it sends, so its listener can skip them.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void publish(String table, Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        String payload = new ChangeNotification(table, id, nodeId, System.currentTimeMillis()).toPayload();
+        try (Connection connection = database.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(NOTIFY_SQL)) {
+            pstmt.setString(1, CHANNEL);
+            pstmt.setString(2, payload);
+            pstmt.execute();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Could not publish change " + payload, e);
+        }
+    }
+}
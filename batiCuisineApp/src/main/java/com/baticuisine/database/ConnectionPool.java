@@ -0,0 +1,390 @@
+package com.baticuisine.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ * <p>
+ * Connections are handed out as proxies whose {@code close()} returns the physical
+ * connection to the pool. Idle connections are validated on borrow, evicted once they
+ * exceed the idle timeout (never below the minimum size), and borrowed connections held
+ * longer than the leak detection threshold are reported with the stack trace of the borrower.
+ * Each physical connection keeps its own {@link StatementCache}.
+ */
+public class ConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String name;
+    private final String url;
+    private final Properties connectionProperties;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMs;
+    private final long idleTimeoutMs;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMs;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(String name, String url, Properties connectionProperties, PoolSettings settings) {
+        if (settings.minSize < 0 || settings.maxSize < 1 || settings.minSize > settings.maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + settings.minSize + ", max=" + settings.maxSize);
+        }
+        this.name = name;
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.minSize = settings.minSize;
+        this.maxSize = settings.maxSize;
+        this.acquireTimeoutMs = settings.acquireTimeoutMs;
+        this.idleTimeoutMs = settings.idleTimeoutMs;
+        this.validationTimeoutSeconds = settings.validationTimeoutSeconds;
+        this.leakDetectionThresholdMs = settings.leakDetectionThresholdMs;
+        this.statementCacheSize = settings.statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillToMinimum();
+        housekeeper.scheduleWithFixedDelay(this::houseKeep,
+                settings.housekeepingIntervalMs, settings.housekeepingIntervalMs, TimeUnit.MILLISECONDS);
+        LOGGER.info(String.format("Connection pool '%s' started (min=%d, max=%d)", name, minSize, maxSize));
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+        long deadline = System.currentTimeMillis() + acquireTimeoutMs;
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(String.format(
+                        "Connection pool '%s' exhausted: no connection available after %d ms (active=%d, max=%d)",
+                        name, acquireTimeoutMs, borrowed.size(), maxSize));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection(deadline);
+            if (pooled == null) {
+                pooled = createPhysicalConnection();
+            }
+            pooled.markBorrowed(leakDetectionThresholdMs > 0);
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return totalConnections.get();
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        for (PooledConnection active : borrowed) {
+            LOGGER.warning("Closing pool '" + name + "' while a connection is still borrowed");
+            destroy(active);
+        }
+        borrowed.clear();
+        LOGGER.info("Connection pool '" + name + "' closed.");
+    }
+
+    private PooledConnection takeValidIdleConnection(long deadline) {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isValid(pooled)) {
+                return pooled;
+            }
+            LOGGER.fine("Discarding broken connection from pool '" + name + "'");
+            destroy(pooled);
+            if (System.currentTimeMillis() > deadline) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return !pooled.physical.isClosed() && pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createPhysicalConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        totalConnections.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        try {
+            pooled.statementCache.reclaimAll();
+            if (closed || !resetState(pooled)) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean resetState(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (pooled.physical.isReadOnly()) {
+                pooled.physical.setReadOnly(false);
+            }
+            if (pooled.physical.getTransactionIsolation() != pooled.defaultIsolation) {
+                pooled.physical.setTransactionIsolation(pooled.defaultIsolation);
+            }
+            pooled.physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to reset pooled connection, discarding it", e);
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        try {
+            pooled.statementCache.closeAll();
+            pooled.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Error closing physical connection", e);
+        } finally {
+            totalConnections.decrementAndGet();
+        }
+    }
+
+    private void houseKeep() {
+        try {
+            evictIdleConnections();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdleConnections() {
+        if (idleTimeoutMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<PooledConnection> expired = new ArrayList<>();
+        for (PooledConnection pooled : idle) {
+            if (totalConnections.get() - expired.size() <= minSize) {
+                break;
+            }
+            if (now - pooled.lastUsed > idleTimeoutMs && idle.remove(pooled)) {
+                expired.add(pooled);
+            }
+        }
+        expired.forEach(this::destroy);
+        if (!expired.isEmpty()) {
+            LOGGER.fine(String.format("Evicted %d idle connection(s) from pool '%s'", expired.size(), name));
+        }
+    }
+
+    /**
+     * Tops the pool up to {@code minSize}. Each connection is opened under a permit, like a
+     * borrower's, so filling never races a borrower into exceeding {@code maxSize}; it stops
+     * when no permit is free, i.e. when the pool is busy anyway.
+     */
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            try {
+                PooledConnection pooled = createPhysicalConnection();
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Unable to open connection for pool '" + name + "'", e);
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionThresholdMs <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMs) {
+                pooled.leakReported = true;
+                LOGGER.log(Level.WARNING, String.format(
+                        "Possible connection leak in pool '%s': connection borrowed %d ms ago and not returned",
+                        name, now - pooled.borrowedAt), pooled.borrowSite);
+            }
+        }
+    }
+
+    /**
+     * Sizing and timing settings for a {@link ConnectionPool}.
+     */
+    public static class PoolSettings {
+        int minSize = 2;
+        int maxSize = 10;
+        long acquireTimeoutMs = 30_000;
+        long idleTimeoutMs = 600_000;
+        int validationTimeoutSeconds = 5;
+        long leakDetectionThresholdMs = 60_000;
+        long housekeepingIntervalMs = 30_000;
+        int statementCacheSize = 64;
+
+        public PoolSettings minSize(int minSize) { this.minSize = minSize; return this; }
+        public PoolSettings maxSize(int maxSize) { this.maxSize = maxSize; return this; }
+        public PoolSettings acquireTimeoutMs(long acquireTimeoutMs) { this.acquireTimeoutMs = acquireTimeoutMs; return this; }
+        public PoolSettings idleTimeoutMs(long idleTimeoutMs) { this.idleTimeoutMs = idleTimeoutMs; return this; }
+        public PoolSettings validationTimeoutSeconds(int seconds) { this.validationTimeoutSeconds = seconds; return this; }
+        public PoolSettings leakDetectionThresholdMs(long thresholdMs) { this.leakDetectionThresholdMs = thresholdMs; return this; }
+        public PoolSettings housekeepingIntervalMs(long intervalMs) { this.housekeepingIntervalMs = intervalMs; return this; }
+        public PoolSettings statementCacheSize(int size) { this.statementCacheSize = size; return this; }
+    }
+
+    private final class PooledConnection {
+        final Connection physical;
+        final int defaultIsolation;
+        final StatementCache statementCache = new StatementCache(statementCacheSize);
+        volatile long lastUsed;
+        volatile long borrowedAt;
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            this.defaultIsolation = physical.getTransactionIsolation();
+        }
+
+        void markBorrowed(boolean captureSite) {
+            borrowedAt = System.currentTimeMillis();
+            leakReported = false;
+            borrowSite = captureSite ? new Exception("Connection borrowed here") : null;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new ConnectionHandle(this));
+        }
+    }
+
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private volatile boolean handleClosed;
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]@" + Integer.toHexString(System.identityHashCode(proxy));
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            if (handleClosed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object cached = pooled.statementCache.lookup(pooled.physical, (Connection) proxy, method, args);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
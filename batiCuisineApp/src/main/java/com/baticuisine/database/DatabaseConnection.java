@@ -1,9 +1,14 @@
 package com.baticuisine.database;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -16,19 +21,22 @@ public class DatabaseConnection {
     private static final String PASSWORD = PropertyLoader.getProperty("db.password");
 
     private static volatile DatabaseConnection instance;
-    private Connection connection;
+    private final ConnectionPool pool;
+    private final ReplicaRouter replicas;
+    private final long readYourWritesMs;
+    private final ThreadLocal<WriteMarker> writeMarker = ThreadLocal.withInitial(WriteMarker::new);
+    private final ThreadLocal<BoundTransaction> boundTransaction = new ThreadLocal<>();
 
     private DatabaseConnection() {
         try {
-            Properties props = new Properties();
-            props.setProperty("user", USER);
-            props.setProperty("password", PASSWORD);
-            props.setProperty("ssl", "false");
-
-            this.connection = DriverManager.getConnection(DB_URL, props);
-            LOGGER.info("Database connection established successfully.");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to establish database connection", e);
+            this.pool = new ConnectionPool("primary", DB_URL, connectionProperties(), poolSettings());
+            this.replicas = new ReplicaRouter(replicaUrls(), connectionProperties(),
+                    poolSettings().acquireTimeoutMs(PropertyLoader.getLongProperty("db.replica.acquireTimeoutMs", 5_000)),
+                    PropertyLoader.getLongProperty("db.replica.retryAfterMs", 30_000));
+            this.readYourWritesMs = PropertyLoader.getLongProperty("db.replica.readYourWritesMs", 5_000);
+            LOGGER.info("Database connection pool established successfully.");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to establish database connection pool", e);
             throw new RuntimeException("Failed to connect to the database", e);
         }
     }
@@ -46,17 +54,228 @@ public class DatabaseConnection {
         return instance;
     }
 
-    public Connection getConnection() {
-        return this.connection;
+    /**
+     * Borrows a connection from the pool. Callers must close it (try-with-resources)
+     * to hand it back. Inside a {@link TransactionManager} unit of work this returns the
+     * transaction's connection instead, and closing it leaves the transaction open.
+     */
+    public Connection getConnection() throws SQLException {
+        BoundTransaction transaction = boundTransaction.get();
+        if (transaction != null) {
+            return transaction.newHandle();
+        }
+        return pool.getConnection();
+    }
+
+    /**
+     * Borrows a connection for a read-only query. It comes from a replica when one is configured
+     * and available, and from the primary otherwise. Reads stay on the primary inside a
+     * transaction and for {@code db.replica.readYourWritesMs} after the last write recorded on
+     * this thread's {@link WriteMarker}, so a caller always sees its own changes despite
+     * replication lag.
+     */
+    public Connection getReadConnection() throws SQLException {
+        BoundTransaction transaction = boundTransaction.get();
+        if (transaction != null) {
+            return transaction.newHandle();
+        }
+        if (replicas.isEmpty() || System.currentTimeMillis() - writeMarker.get().lastWriteAt < readYourWritesMs) {
+            return pool.getConnection();
+        }
+        Connection connection = replicas.getConnection();
+        return connection != null ? connection : pool.getConnection();
+    }
+
+    /**
+     * Records a write to the primary on this thread's {@link WriteMarker}, which pins the reads
+     * sharing that marker to the primary for the read-your-writes window. Reads of other threads
+     * keep going to the replicas.
+     */
+    public void recordWrite() {
+        writeMarker.get().lastWriteAt = System.currentTimeMillis();
+    }
+
+    /**
+     * The write marker of this thread. Hand it to {@link #bindWriteMarker} on a thread that works
+     * on this thread's behalf, so that both see each other's writes.
+     */
+    public WriteMarker currentWriteMarker() {
+        return writeMarker.get();
+    }
+
+    /**
+     * Makes {@code marker} this thread's write marker.
+     *
+     * @return the previous marker, to bind back once done
+     */
+    public WriteMarker bindWriteMarker(WriteMarker marker) {
+        WriteMarker previous = writeMarker.get();
+        writeMarker.set(marker);
+        return previous;
+    }
+
+    /**
+     * Runs {@code work} without recording its writes on this thread's marker, for maintenance
+     * jobs whose writes no reader waits for.
+     */
+    public <T> T untracked(Supplier<T> work) {
+        WriteMarker previous = bindWriteMarker(new WriteMarker());
+        try {
+            return work.get();
+        } finally {
+            bindWriteMarker(previous);
+        }
+    }
+
+    /**
+     * Opens a physical connection to the primary outside the pool, for session state that must
+     * not leak to other borrowers, such as {@code LISTEN}. The caller owns and closes it.
+     */
+    public Connection openDedicatedConnection() throws SQLException {
+        return DriverManager.getConnection(DB_URL, connectionProperties());
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
+    }
+
+    public List<ConnectionPool> getReplicaPools() {
+        return replicas.getPools();
+    }
+
+    /**
+     * The identity map of the unit of work bound to this thread, or {@code null} outside
+     * {@link TransactionManager#inTransaction}. Nested units of work share the outer one's map.
+     */
+    public IdentityMap currentIdentityMap() {
+        BoundTransaction transaction = boundTransaction.get();
+        return transaction != null ? transaction.identityMap : null;
+    }
+
+    public boolean isInTransaction() {
+        return boundTransaction.get() != null;
+    }
+
+    /**
+     * Runs {@code action} once the unit of work bound to this thread ends, whether it commits or
+     * rolls back, or right away outside a unit of work.
+     */
+    public void afterTransaction(Runnable action) {
+        BoundTransaction transaction = boundTransaction.get();
+        if (transaction != null) {
+            transaction.completionActions.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    TransactionOptions currentTransactionOptions() {
+        BoundTransaction transaction = boundTransaction.get();
+        return transaction != null ? transaction.options : null;
+    }
+
+    void bindTransaction(Connection connection, TransactionOptions options) {
+        boundTransaction.set(new BoundTransaction(connection, options));
+    }
+
+    void unbindTransaction() {
+        BoundTransaction transaction = boundTransaction.get();
+        boundTransaction.remove();
+        if (transaction == null) {
+            return;
+        }
+        for (Runnable action : transaction.completionActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Transaction completion action failed", e);
+            }
+        }
     }
 
     public void closeConnection() {
-        try (Connection conn = this.connection) {
-            if (conn != null && !conn.isClosed()) {
-                LOGGER.info("Database connection closed successfully.");
+        replicas.close();
+        pool.close();
+    }
+
+    private static List<String> replicaUrls() {
+        List<String> urls = new ArrayList<>();
+        String value = PropertyLoader.getProperty("db.replica.urls", "");
+        for (String url : value.split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Failed to close database connection", e);
+        }
+        return urls;
+    }
+
+    private static Properties connectionProperties() {
+        Properties props = new Properties();
+        props.setProperty("user", USER);
+        props.setProperty("password", PASSWORD);
+        props.setProperty("ssl", "false");
+        // Lets the driver collapse batched INSERTs into multi-row statements
+        props.setProperty("reWriteBatchedInserts", "true");
+        return props;
+    }
+
+    private static ConnectionPool.PoolSettings poolSettings() {
+        return new ConnectionPool.PoolSettings()
+                .minSize(PropertyLoader.getIntProperty("db.pool.minSize", 2))
+                .maxSize(PropertyLoader.getIntProperty("db.pool.maxSize", 10))
+                .acquireTimeoutMs(PropertyLoader.getLongProperty("db.pool.acquireTimeoutMs", 30_000))
+                .idleTimeoutMs(PropertyLoader.getLongProperty("db.pool.idleTimeoutMs", 600_000))
+                .validationTimeoutSeconds(PropertyLoader.getIntProperty("db.pool.validationTimeoutSeconds", 5))
+                .leakDetectionThresholdMs(PropertyLoader.getLongProperty("db.pool.leakDetectionThresholdMs", 60_000))
+                .housekeepingIntervalMs(PropertyLoader.getLongProperty("db.pool.housekeepingIntervalMs", 30_000))
+                .statementCacheSize(PropertyLoader.getIntProperty("db.pool.statementCacheSize", 64));
+    }
+
+    /**
+     * When a caller last wrote to the primary. Each thread has its own; async tasks share their
+     * submitter's.
+     */
+    public static final class WriteMarker {
+        private volatile long lastWriteAt;
+    }
+
+    private static final class BoundTransaction {
+        final Connection connection;
+        final TransactionOptions options;
+        final IdentityMap identityMap = new IdentityMap();
+        final List<Runnable> completionActions = new ArrayList<>();
+
+        BoundTransaction(Connection connection, TransactionOptions options) {
+            this.connection = connection;
+            this.options = options;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                return null;
+                            case "commit":
+                            case "setAutoCommit":
+                                throw new SQLException(method.getName() + " is managed by the enclosing transaction");
+                            case "rollback":
+                                // Rolling back to a savepoint stays allowed
+                                if (args == null) {
+                                    throw new SQLException("rollback is managed by the enclosing transaction");
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.baticuisine.database;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.baticuisine.utils.LongObjectMap;
+
+/**
+ * The entities loaded or saved during one unit of work, keyed by entity type and id. A lookup
+ * that hits the map returns the instance already in memory, with any edits made to it, instead
+ * of reading the row again. Obtained from {@link DatabaseConnection#currentIdentityMap()} and
+ * discarded when the transaction ends.
+ */
+public class IdentityMap {
+    private final Map<Class<?>, LongObjectMap<Object>> entitiesByType = new HashMap<>();
+
+    public <T> T get(Class<T> type, long id) {
+        LongObjectMap<Object> entities = entitiesByType.get(type);
+        return entities != null ? type.cast(entities.get(id)) : null;
+    }
+
+    /**
+     * Registers {@code entity} unless an instance with the same id is already registered, and
+     * returns the registered instance. Callers should continue with the returned instance.
+     */
+    public <T> T register(Class<T> type, long id, T entity) {
+        return type.cast(entities(type).putIfAbsent(id, entity));
+    }
+
+    /**
+     * Registers {@code entity}, replacing any instance with the same id.
+     */
+    public <T> void replace(Class<T> type, long id, T entity) {
+        entities(type).put(id, entity);
+    }
+
+    public void remove(Class<?> type, long id) {
+        LongObjectMap<Object> entities = entitiesByType.get(type);
+        if (entities != null) {
+            entities.remove(id);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (LongObjectMap<Object> entities : entitiesByType.values()) {
+            size += entities.size();
+        }
+        return size;
+    }
+
+    private LongObjectMap<Object> entities(Class<?> type) {
+        return entitiesByType.computeIfAbsent(type, key -> new LongObjectMap<>());
+    }
+}
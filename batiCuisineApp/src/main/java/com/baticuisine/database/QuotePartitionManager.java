@@ -0,0 +1,223 @@
+package com.baticuisine.database;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of {@code quotes} ({@code quotes_pYYYY_MM}).
+ * <p>
+ * {@link #ensurePartitions} runs at startup: it creates the partitions for the current month and
+ * the next {@code quotes.partitions.monthsAhead}, plus one for every month that has rows in
+ * {@code quotes_default}, moving those rows into it. {@link #detachPartitionsBefore} detaches old
+ * partitions into standalone tables for cold storage, with the quotes' lines in
+ * {@code quotes_pYYYY_MM_lines}. Both take an advisory lock, so instances starting together do
+ * not race, and run in one transaction each.
+ */
+public class QuotePartitionManager {
+    private static final Logger LOGGER = Logger.getLogger(QuotePartitionManager.class.getName());
+    private static final Pattern PARTITION_NAME = Pattern.compile("quotes_p(\\d{4})_(\\d{2})");
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext('quotes_partitions'))";
+    private static final String PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'quotes'::regclass";
+
+    private final TransactionManager transactionManager;
+    private final DatabaseConnection database;
+
+    public QuotePartitionManager(DatabaseConnection database, TransactionManager transactionManager) {
+        this.database = database;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * @return the partitions created
+     */
+    public List<String> ensurePartitions(YearMonth current, int monthsAhead) {
+        return database.untracked(() -> transactionManager.inTransaction(() -> {
+            try (Connection connection = database.getConnection()) {
+                lock(connection);
+                TreeSet<YearMonth> months = new TreeSet<>(monthsInDefault(connection));
+                for (int i = 0; i <= monthsAhead; i++) {
+                    months.add(current.plusMonths(i));
+                }
+                months.removeAll(listPartitions(connection));
+
+                List<String> created = new ArrayList<>();
+                for (YearMonth month : months) {
+                    createPartition(connection, month);
+                    created.add(partitionName(month));
+                }
+                if (!created.isEmpty()) {
+                    LOGGER.info("Created quote partitions " + created);
+                }
+                return created;
+            }
+        }));
+    }
+
+    /**
+     * Detaches every monthly partition before {@code cutoff} into a standalone table of the same
+     * name, which can then be dumped or dropped. Detached quotes no longer count in the client
+     * rollups. With a non-empty {@code tablespace}, the tables also move there.
+     *
+     * @return the partitions detached
+     */
+    public List<String> detachPartitionsBefore(YearMonth cutoff, String tablespace) {
+        return database.untracked(() -> transactionManager.inTransaction(() -> {
+            try (Connection connection = database.getConnection()) {
+                lock(connection);
+                List<String> detached = new ArrayList<>();
+                for (YearMonth month : listPartitions(connection)) {
+                    if (month.isBefore(cutoff)) {
+                        detachPartition(connection, month, tablespace);
+                        detached.add(partitionName(month));
+                    }
+                }
+                if (!detached.isEmpty()) {
+                    LOGGER.info("Detached quote partitions " + detached);
+                }
+                return detached;
+            }
+        }));
+    }
+
+    public List<YearMonth> listPartitions() {
+        return transactionManager.inReadOnlyTransaction(() -> {
+            try (Connection connection = database.getConnection()) {
+                return listPartitions(connection);
+            }
+        });
+    }
+
+    static String partitionName(YearMonth month) {
+        return String.format("quotes_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private void createPartition(Connection connection, YearMonth month) throws SQLException {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String bounds = "FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        try (Statement stmt = connection.createStatement()) {
+            if (!defaultHasRows(connection, from, to)) {
+                stmt.execute("CREATE TABLE " + name + " PARTITION OF quotes " + bounds);
+                return;
+            }
+            // Attaching fails while the default partition holds rows in range, so move them first.
+            // Deleting them would cascade to their lines, which are set aside until the attach.
+            String heldLines = name + "_lines_held";
+            stmt.execute("CREATE TEMP TABLE " + heldLines + " (LIKE quote_lines) ON COMMIT DROP");
+            moveRows(connection, "quote_lines", heldLines, from, to);
+            stmt.execute("CREATE TABLE " + name + " (LIKE quotes INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int rows = moveRows(connection, "quotes_default", name, from, to);
+            LOGGER.info("Moved " + rows + " quotes from quotes_default to " + name);
+            stmt.execute("ALTER TABLE quotes ATTACH PARTITION " + name + " " + bounds);
+            stmt.execute("INSERT INTO quote_lines SELECT * FROM " + heldLines);
+            stmt.execute("DROP TABLE " + heldLines);
+            // The delete above ran the rollup trigger without the moved quotes
+            stmt.execute("SELECT refresh_client_rollups(ARRAY(SELECT DISTINCT p.client_id FROM " + name + " q " +
+                    "JOIN projects p ON p.id = q.project_id WHERE p.client_id IS NOT NULL))");
+        }
+    }
+
+    private void detachPartition(Connection connection, YearMonth month, String tablespace) throws SQLException {
+        String name = partitionName(month);
+        String lines = name + "_lines";
+        try (Statement stmt = connection.createStatement()) {
+            // The foreign key from quote_lines blocks the detach while the partition's quotes have lines
+            stmt.execute("CREATE TABLE " + lines + " (LIKE quote_lines INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            moveRows(connection, "quote_lines", lines, month.atDay(1), month.plusMonths(1).atDay(1));
+            stmt.execute("ALTER TABLE quotes DETACH PARTITION " + name);
+            // Archived quotes must not block deleting their projects
+            List<String> foreignKeys = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT conname FROM pg_constraint " +
+                    "WHERE conrelid = '" + name + "'::regclass AND contype = 'f'")) {
+                while (rs.next()) {
+                    foreignKeys.add(rs.getString(1));
+                }
+            }
+            for (String foreignKey : foreignKeys) {
+                stmt.execute("ALTER TABLE " + name + " DROP CONSTRAINT \"" + foreignKey.replace("\"", "\"\"") + "\"");
+            }
+            stmt.execute("SELECT refresh_client_rollups(ARRAY(SELECT DISTINCT p.client_id FROM " + name + " q " +
+                    "JOIN projects p ON p.id = q.project_id WHERE p.client_id IS NOT NULL))");
+            if (tablespace != null && !tablespace.trim().isEmpty()) {
+                String quoted = "\"" + tablespace.trim().replace("\"", "\"\"") + "\"";
+                stmt.execute("ALTER TABLE " + name + " SET TABLESPACE " + quoted);
+                stmt.execute("ALTER TABLE " + lines + " SET TABLESPACE " + quoted);
+            }
+        }
+    }
+
+    /**
+     * Moves the rows of {@code source} issued in [{@code from}, {@code to}) into {@code target}.
+     *
+     * @return the number of rows moved
+     */
+    private int moveRows(Connection connection, String source, String target, LocalDate from, LocalDate to)
+            throws SQLException {
+        try (PreparedStatement move = connection.prepareStatement(
+                "WITH moved AS (DELETE FROM " + source + " WHERE issue_date >= ? AND issue_date < ? RETURNING *) " +
+                "INSERT INTO " + target + " SELECT * FROM moved")) {
+            move.setDate(1, Date.valueOf(from));
+            move.setDate(2, Date.valueOf(to));
+            return move.executeUpdate();
+        }
+    }
+
+    private List<YearMonth> listPartitions(Connection connection) throws SQLException {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(PARTITIONS_SQL)) {
+            while (rs.next()) {
+                Matcher matcher = PARTITION_NAME.matcher(rs.getString(1));
+                if (matcher.matches()) {
+                    months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            }
+        }
+        return new ArrayList<>(months);
+    }
+
+    private List<YearMonth> monthsInDefault(Connection connection) throws SQLException {
+        List<YearMonth> months = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT DISTINCT date_trunc('month', issue_date)::date FROM quotes_default")) {
+            while (rs.next()) {
+                months.add(YearMonth.from(rs.getDate(1).toLocalDate()));
+            }
+        }
+        return months;
+    }
+
+    private boolean defaultHasRows(Connection connection, LocalDate from, LocalDate to) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT EXISTS (SELECT 1 FROM quotes_default WHERE issue_date >= ? AND issue_date < ?)")) {
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void lock(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(LOCK_SQL)) {
+            rs.next();
+        }
+    }
+}
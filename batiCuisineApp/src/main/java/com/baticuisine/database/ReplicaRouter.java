@@ -0,0 +1,86 @@
+package com.baticuisine.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Spreads read connections over the replica pools round-robin. A replica that fails to hand
+ * out a connection is skipped for {@code retryAfterMs} before it is tried again.
+ */
+class ReplicaRouter {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaRouter.class.getName());
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long retryAfterMs;
+
+    ReplicaRouter(List<String> urls, Properties connectionProperties, ConnectionPool.PoolSettings settings,
+            long retryAfterMs) {
+        this.retryAfterMs = retryAfterMs;
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.add(new Replica(urls.get(i),
+                    new ConnectionPool("replica-" + (i + 1), urls.get(i), connectionProperties, settings)));
+        }
+    }
+
+    boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    List<ConnectionPool> getPools() {
+        List<ConnectionPool> pools = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            pools.add(replica.pool);
+        }
+        return pools;
+    }
+
+    /**
+     * Returns a connection from the next available replica, or {@code null} when none can
+     * serve one right now.
+     */
+    Connection getConnection() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.downUntil > now) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.downUntil = 0;
+                return connection;
+            } catch (SQLException e) {
+                replica.downUntil = System.currentTimeMillis() + retryAfterMs;
+                LOGGER.log(Level.WARNING, "Replica " + replica.url + " unavailable, skipping it for "
+                        + retryAfterMs + " ms", e);
+            }
+        }
+        return null;
+    }
+
+    void close() {
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private static final class Replica {
+        final String url;
+        final ConnectionPool pool;
+        volatile long downUntil;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+}
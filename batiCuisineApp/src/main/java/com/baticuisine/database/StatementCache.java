@@ -0,0 +1,217 @@
+package com.baticuisine.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-connection LRU cache of prepared statements.
+ * <p>
+ * A cached statement is handed out as a proxy; closing it clears its parameters and makes it
+ * available for the next {@code prepareStatement} call with the same SQL, so the driver can keep
+ * using its server-side prepared statement. A statement already in use is never shared: a second
+ * concurrent request for the same SQL gets a plain, uncached statement.
+ */
+class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    private final int maxSize;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a cached statement for {@code prepareStatement(String...)} calls, or {@code null}
+     * when the call cannot be served from the cache and must go to the physical connection.
+     */
+    synchronized PreparedStatement lookup(Connection physical, Connection handle, Method method, Object[] args)
+            throws Throwable {
+        if (maxSize <= 0 || !"prepareStatement".equals(method.getName())) {
+            return null;
+        }
+        String key = cacheKey(args);
+        if (key == null) {
+            return null;
+        }
+        CachedStatement cached = statements.get(key);
+        if (cached != null) {
+            if (cached.inUse) {
+                return null;
+            }
+            cached.inUse = true;
+            cached.handle = handle;
+            return cached.proxy;
+        }
+        PreparedStatement statement;
+        try {
+            statement = (PreparedStatement) method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        cached = new CachedStatement(key, statement, handle);
+        cached.inUse = true;
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.proxy;
+    }
+
+    /**
+     * Called when the owning connection goes back to the pool: statements the borrower
+     * forgot to close are reset and made available again.
+     */
+    synchronized void reclaimAll() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (iterator.hasNext()) {
+            CachedStatement cached = iterator.next();
+            if (cached.inUse && !cached.reset()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            cached.closePhysical();
+        }
+        statements.clear();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            iterator.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    private synchronized void release(CachedStatement cached) {
+        if (cached.evicted) {
+            cached.inUse = false;
+            cached.closePhysical();
+        } else if (!cached.reset()) {
+            statements.remove(cached.key);
+        }
+    }
+
+    private static String cacheKey(Object[] args) {
+        if (args == null || args.length == 0 || !(args[0] instanceof String)) {
+            return null;
+        }
+        String sql = (String) args[0];
+        if (args.length == 1) {
+            return sql;
+        }
+        if (args.length == 2 && args[1] instanceof Integer) {
+            return sql + "\u0000keys=" + args[1];
+        }
+        if (args.length == 2 && args[1] instanceof String[]) {
+            return sql + "\u0000columns=" + Arrays.toString((String[]) args[1]);
+        }
+        // Result set type/concurrency/holdability variants are rare enough to skip caching
+        return null;
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+        final String key;
+        final PreparedStatement physical;
+        final PreparedStatement proxy;
+        final List<ResultSet> openResults = new ArrayList<>();
+        Connection handle;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(String key, PreparedStatement physical, Connection handle) {
+            this.key = key;
+            this.physical = physical;
+            this.handle = handle;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || physical.isClosed();
+                case "getConnection":
+                    return handle;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + key + "]";
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Statement is closed");
+            }
+            try {
+                Object result = method.invoke(physical, args);
+                if (result instanceof ResultSet) {
+                    openResults.add((ResultSet) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        boolean reset() {
+            try {
+                for (ResultSet resultSet : openResults) {
+                    resultSet.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.clearWarnings();
+                physical.setFetchSize(0);
+                physical.setMaxRows(0);
+                physical.setQueryTimeout(0);
+                return true;
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Failed to reset cached statement, dropping it", e);
+                closePhysical();
+                return false;
+            } finally {
+                openResults.clear();
+                inUse = false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error closing cached statement", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.baticuisine.database;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface TransactionCallback<T> {
+    T execute() throws SQLException;
+}
@@ -0,0 +1,88 @@
+package com.baticuisine.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs a unit of work in a single database transaction.
+ * <p>
+ * The transaction's connection is bound to the calling thread, so every repository call
+ * made inside the callback goes through {@link DatabaseConnection#getConnection()} and
+ * joins the same transaction. Nested calls join the outer transaction. The work is
+ * committed once when the outermost callback returns and rolled back if it throws.
+ * <p>
+ * Each unit of work also has an {@link IdentityMap}: within it, loading the same entity twice
+ * returns the same instance.
+ */
+public class TransactionManager {
+    private static final Logger LOGGER = Logger.getLogger(TransactionManager.class.getName());
+    private final DatabaseConnection database;
+
+    public TransactionManager(DatabaseConnection database) {
+        this.database = database;
+    }
+
+    public <T> T inTransaction(TransactionCallback<T> work) {
+        return inTransaction(TransactionOptions.DEFAULT, work);
+    }
+
+    public <T> T inReadOnlyTransaction(TransactionCallback<T> work) {
+        return inTransaction(TransactionOptions.READ_ONLY, work);
+    }
+
+    public <T> T inTransaction(TransactionOptions options, TransactionCallback<T> work) {
+        TransactionOptions current = database.currentTransactionOptions();
+        if (current != null) {
+            if (current.isReadOnly() && !options.isReadOnly()) {
+                throw new IllegalStateException("Cannot join a read-only transaction with a read-write unit of work");
+            }
+            return execute(work);
+        }
+
+        try (Connection connection = database.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(options.getIsolation().getJdbcLevel());
+            connection.setReadOnly(options.isReadOnly());
+            database.bindTransaction(connection, options);
+            try {
+                T result = execute(work);
+                connection.commit();
+                if (!options.isReadOnly()) {
+                    database.recordWrite();
+                }
+                return result;
+            } catch (RuntimeException | Error e) {
+                rollback(connection);
+                throw e;
+            } finally {
+                database.unbindTransaction();
+                // Auto-commit, read-only and isolation are reset by the pool on release
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Transaction failed (" + options + ")", e);
+            throw new RuntimeException("Transaction failed", e);
+        }
+    }
+
+    public boolean isInTransaction() {
+        return database.currentTransactionOptions() != null;
+    }
+
+    private <T> T execute(TransactionCallback<T> work) {
+        try {
+            return work.execute();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error executing unit of work", e);
+        }
+    }
+
+    private void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Rollback failed", e);
+        }
+    }
+}
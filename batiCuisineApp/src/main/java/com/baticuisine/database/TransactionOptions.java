@@ -0,0 +1,43 @@
+package com.baticuisine.database;
+
+import java.sql.Connection;
+
+/**
+ * Isolation level and read-only hint applied when a transaction begins.
+ */
+public class TransactionOptions {
+    public static final TransactionOptions DEFAULT = new TransactionOptions(Isolation.READ_COMMITTED, false);
+    public static final TransactionOptions READ_ONLY = new TransactionOptions(Isolation.READ_COMMITTED, true);
+
+    public enum Isolation {
+        READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+        REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+        SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+        private final int jdbcLevel;
+
+        Isolation(int jdbcLevel) {
+            this.jdbcLevel = jdbcLevel;
+        }
+
+        public int getJdbcLevel() {
+            return jdbcLevel;
+        }
+    }
+
+    private final Isolation isolation;
+    private final boolean readOnly;
+
+    public TransactionOptions(Isolation isolation, boolean readOnly) {
+        this.isolation = isolation;
+        this.readOnly = readOnly;
+    }
+
+    public Isolation getIsolation() { return isolation; }
+    public boolean isReadOnly() { return readOnly; }
+
+    @Override
+    public String toString() {
+        return isolation + (readOnly ? " READ ONLY" : " READ WRITE");
+    }
+}
@@ -0,0 +1,73 @@
+package com.baticuisine.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * RFC 4180 CSV: comma separated, CRLF line endings, fields quoted only when they contain
+ * a comma, a quote or a line break. {@code null} is written as an empty field.
+ */
+class CsvRecordWriter implements RecordWriter {
+    private final Writer writer;
+
+    CsvRecordWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void writeHeader(String[] columns) throws IOException {
+        writeRecord(columns);
+    }
+
+    @Override
+    public void writeRecord(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        if (!needsQuoting(text)) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.baticuisine.export;
+
+import java.io.Writer;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("csv") {
+        @Override
+        public RecordWriter open(Writer writer) {
+            return new CsvRecordWriter(writer);
+        }
+    },
+    NDJSON("ndjson") {
+        @Override
+        public RecordWriter open(Writer writer) {
+            return new NdjsonRecordWriter(writer);
+        }
+    };
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract RecordWriter open(Writer writer);
+
+    public static ExportFormat fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export format: " + value);
+        }
+    }
+}
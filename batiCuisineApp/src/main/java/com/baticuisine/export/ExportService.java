@@ -0,0 +1,163 @@
+package com.baticuisine.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.TransactionManager;
+import com.baticuisine.export.columnar.ColumnarDataset;
+import com.baticuisine.export.columnar.ColumnarWriter;
+import com.baticuisine.export.columnar.ResultSetColumnarAppender;
+import com.baticuisine.repository.JdbcTemplate;
+import com.baticuisine.repository.RowCallbackHandler;
+import com.baticuisine.repository.StatementBinder;
+import com.baticuisine.utils.PropertyLoader;
+
+/**
+ * Streams a dataset from the database to CSV or NDJSON.
+ * <p>
+ * The query runs in a read-only transaction so the driver reads it through a server-side
+ * cursor, {@code export.fetchSize} rows at a time. Each row is written as soon as it is read
+ * and nothing is accumulated, so memory use is bounded by the fetch size and the write buffer
+ * regardless of the number of rows.
+ */
+public class ExportService {
+    private static final Logger LOGGER = Logger.getLogger(ExportService.class.getName());
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionManager transactionManager;
+    private final int fetchSize;
+
+    public ExportService(DatabaseConnection database, TransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(database);
+        this.transactionManager = transactionManager;
+        this.fetchSize = PropertyLoader.getIntProperty("export.fetchSize", 1000);
+    }
+
+    /**
+     * Exports {@code type} to {@code file}, replacing it if it exists.
+     *
+     * @return the number of records written
+     */
+    public long export(ExportType type, ExportFormat format, Path file) {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return export(type, format, out);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing export file " + file, e);
+        }
+    }
+
+    /**
+     * Exports {@code type} to {@code out}. The stream is flushed but not closed.
+     *
+     * @return the number of records written
+     */
+    public long export(ExportType type, ExportFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RecordWriter records = format.open(writer);
+        long start = System.nanoTime();
+        long count;
+        try {
+            count = transactionManager.inReadOnlyTransaction(() -> jdbcTemplate.execute(connection ->
+                    jdbcTemplate.queryForEach(connection, type.getSql(), StatementBinder.NONE, fetchSize,
+                            new RowExporter(records))));
+            records.flush();
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Error writing " + type + " export", e.getCause());
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing " + type + " export", e);
+        }
+        LOGGER.info("Exported " + count + " " + type + " records as " + format + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return count;
+    }
+
+    /**
+     * Exports {@code dataset} to {@code file} in the columnar format, replacing it if it exists.
+     * The rows go to {@code <file>.partial}, which is renamed to {@code file} only once complete,
+     * and deleted if the export fails, so {@code file} is never left truncated.
+     *
+     * @return the number of rows written
+     */
+    public long exportColumnar(ColumnarDataset dataset, Path file) {
+        long start = System.nanoTime();
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        long count;
+        boolean complete = false;
+        try {
+            try (ColumnarWriter writer = new ColumnarWriter(partial, dataset.getColumns())) {
+                ResultSetColumnarAppender appender = new ResultSetColumnarAppender(writer, dataset.getColumns());
+                count = transactionManager.inReadOnlyTransaction(() -> jdbcTemplate.execute(connection ->
+                        jdbcTemplate.queryForEach(connection, dataset.getSql(), StatementBinder.NONE, fetchSize, appender)));
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            complete = true;
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Error writing " + dataset + " columnar export", e.getCause());
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing " + dataset + " columnar export", e);
+        } finally {
+            if (!complete) {
+                deletePartial(partial);
+            }
+        }
+        LOGGER.info("Exported " + count + " " + dataset + " rows as columnar in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return count;
+    }
+
+    private static void deletePartial(Path partial) {
+        try {
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete incomplete export " + partial, e);
+        }
+    }
+
+    /**
+     * Writes the header on the first row, then every row through a single reused value array.
+     */
+    private static final class RowExporter implements RowCallbackHandler {
+        private final RecordWriter records;
+        private Object[] values;
+
+        RowExporter(RecordWriter records) {
+            this.records = records;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (values == null) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    String[] columns = new String[metaData.getColumnCount()];
+                    for (int i = 0; i < columns.length; i++) {
+                        columns[i] = metaData.getColumnLabel(i + 1);
+                    }
+                    records.writeHeader(columns);
+                    values = new Object[columns.length];
+                }
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                records.writeRecord(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.baticuisine.export;
+
+import java.util.Locale;
+
+/**
+ * The datasets that can be exported, each defined by the query that produces it.
+ * Project costs are computed in SQL with the same rules as {@code CostCalculator}.
+ */
+public enum ExportType {
+    PROJECTS(
+            "SELECT p.id, p.name, p.status, p.surface, p.start_date, p.profit_margin, " +
+            "p.client_id, cl.name AS client_name, " +
+            "COALESCE(mc.cost, 0) AS material_cost, " +
+            "COALESCE(lc.cost, 0) AS labor_cost, " +
+            "ROUND((COALESCE(mc.cost, 0) + COALESCE(lc.cost, 0)) * (1 - COALESCE(cl.discount_rate, 0)) * 1.2, 2) AS total_cost " +
+            "FROM projects p " +
+            "LEFT JOIN clients cl ON cl.id = p.client_id " +
+            "LEFT JOIN (SELECT pc.project_id, " +
+            "SUM(m.unit_cost * m.quantite * m.coefficient_qualite + m.transport_cost) AS cost " +
+            "FROM project_components pc JOIN materials m ON m.id = pc.component_id " +
+            "GROUP BY pc.project_id) mc ON mc.project_id = p.id " +
+            "LEFT JOIN (SELECT pc.project_id, SUM(l.hourly_rate * l.work_hours) AS cost " +
+            "FROM project_components pc JOIN labor l ON l.id = pc.component_id " +
+            "GROUP BY pc.project_id) lc ON lc.project_id = p.id " +
+            "ORDER BY p.id"),
+    CLIENTS(
+            "SELECT id, name, email, phone_number, address, is_professional, discount_rate " +
+            "FROM clients ORDER BY id"),
+    QUOTES(
+            "SELECT q.id, q.project_id, p.name AS project_name, q.total_cost, q.issue_date, " +
+            "q.validity_date, q.is_accepted " +
+            "FROM quotes q LEFT JOIN projects p ON p.id = q.project_id " +
+            "ORDER BY q.id");
+
+    private final String sql;
+
+    ExportType(String sql) {
+        this.sql = sql;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    public static ExportType fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown export type: " + value);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.baticuisine.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+/**
+ * Newline-delimited JSON: one object per line, keyed by the header's column names.
+ * Numbers and booleans are written as JSON literals, everything else as strings.
+ */
+class NdjsonRecordWriter implements RecordWriter {
+    private final Writer writer;
+    private String[] keys;
+
+    NdjsonRecordWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void writeHeader(String[] columns) {
+        keys = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            keys[i] = quote(columns[i]);
+        }
+    }
+
+    @Override
+    public void writeRecord(Object[] values) throws IOException {
+        if (keys == null || keys.length != values.length) {
+            throw new IllegalStateException("Header must be written before records");
+        }
+        writer.write('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(keys[i]);
+            writer.write(':');
+            writeValue(values[i]);
+        }
+        writer.write("}\n");
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof BigDecimal) {
+            writer.write(((BigDecimal) value).toPlainString());
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            writer.write(Double.isNaN(number) || Double.isInfinite(number) ? "null" : value.toString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+        } else {
+            writer.write('"');
+            escape(value.toString(), writer);
+            writer.write('"');
+        }
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        try {
+            escape(text, sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static void escape(String text, Appendable out) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
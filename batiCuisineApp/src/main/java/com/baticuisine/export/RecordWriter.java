@@ -0,0 +1,19 @@
+package com.baticuisine.export;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Writes one record per call to an underlying character stream. Implementations keep no
+ * per-record state, so memory use does not grow with the number of records written.
+ */
+public interface RecordWriter extends Closeable, Flushable {
+    void writeHeader(String[] columns) throws IOException;
+
+    /**
+     * Writes one record. Values are {@code null}, {@link Number}, {@link Boolean} or anything
+     * whose {@code toString()} is the value to export (strings, SQL dates).
+     */
+    void writeRecord(Object[] values) throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.baticuisine.export.columnar;
+
+/**
+ * Location and statistics of one column chunk. Min/max are kept for numeric, date and boolean
+ * columns when the chunk holds at least one non-null value; they are not kept for strings.
+ */
+public final class ChunkStats {
+    private final ColumnType type;
+    private final long offset;
+    private final int length;
+    private final int rowCount;
+    private final int nullCount;
+    private final boolean hasMinMax;
+    private final long minBits;
+    private final long maxBits;
+
+    ChunkStats(ColumnType type, long offset, int length, int rowCount, int nullCount,
+            boolean hasMinMax, long minBits, long maxBits) {
+        this.type = type;
+        this.offset = offset;
+        this.length = length;
+        this.rowCount = rowCount;
+        this.nullCount = nullCount;
+        this.hasMinMax = hasMinMax;
+        this.minBits = minBits;
+        this.maxBits = maxBits;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    public boolean hasMinMax() {
+        return hasMinMax;
+    }
+
+    public long getMinLong() {
+        return type == ColumnType.FLOAT64 ? (long) getMinDouble() : minBits;
+    }
+
+    public long getMaxLong() {
+        return type == ColumnType.FLOAT64 ? (long) getMaxDouble() : maxBits;
+    }
+
+    public double getMinDouble() {
+        return type == ColumnType.FLOAT64 ? Double.longBitsToDouble(minBits) : minBits;
+    }
+
+    public double getMaxDouble() {
+        return type == ColumnType.FLOAT64 ? Double.longBitsToDouble(maxBits) : maxBits;
+    }
+
+    ColumnType getType() {
+        return type;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    long getMinBits() {
+        return minBits;
+    }
+
+    long getMaxBits() {
+        return maxBits;
+    }
+}
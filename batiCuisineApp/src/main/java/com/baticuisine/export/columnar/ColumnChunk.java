@@ -0,0 +1,75 @@
+package com.baticuisine.export.columnar;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The decoded view of one column chunk handed to a scan. The underlying buffer is reused for
+ * the next chunk, so values must be read during the callback.
+ */
+public final class ColumnChunk {
+    private final ColumnType type;
+    private final ChunkStats stats;
+    private final ByteBuffer values;
+    private final byte[] nulls;
+    private final List<String> dictionary;
+
+    ColumnChunk(ColumnType type, ChunkStats stats, ByteBuffer values, byte[] nulls, List<String> dictionary) {
+        this.type = type;
+        this.stats = stats;
+        this.values = values;
+        this.nulls = nulls;
+        this.dictionary = dictionary;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public ChunkStats getStats() {
+        return stats;
+    }
+
+    public int getRowCount() {
+        return stats.getRowCount();
+    }
+
+    public boolean isNull(int row) {
+        return nulls != null && (nulls[row >>> 3] & (1 << (row & 7))) != 0;
+    }
+
+    public long getLong(int row) {
+        switch (type) {
+            case INT64:
+                return values.getLong(row * 8);
+            case DATE:
+                return values.getInt(row * 4);
+            case BOOLEAN:
+                return values.get(row);
+            case FLOAT64:
+                return (long) values.getDouble(row * 8);
+            default:
+                throw new IllegalStateException("Column of type " + type + " has no numeric value");
+        }
+    }
+
+    public double getDouble(int row) {
+        return type == ColumnType.FLOAT64 ? values.getDouble(row * 8) : getLong(row);
+    }
+
+    public LocalDate getDate(int row) {
+        return isNull(row) ? null : LocalDate.ofEpochDay(getLong(row));
+    }
+
+    public boolean getBoolean(int row) {
+        return getLong(row) != 0;
+    }
+
+    public String getString(int row) {
+        if (type != ColumnType.STRING) {
+            throw new IllegalStateException("Column of type " + type + " is not a string column");
+        }
+        return isNull(row) ? null : dictionary.get(values.getInt(row * 4));
+    }
+}
@@ -0,0 +1,24 @@
+package com.baticuisine.export.columnar;
+
+public final class ColumnDescriptor {
+    private final String name;
+    private final ColumnType type;
+
+    public ColumnDescriptor(String name, ColumnType type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + type;
+    }
+}
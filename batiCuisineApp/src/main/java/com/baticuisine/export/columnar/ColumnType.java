@@ -0,0 +1,40 @@
+package com.baticuisine.export.columnar;
+
+/**
+ * Physical column types of the columnar format. Every type is fixed width; strings are stored
+ * as 4-byte codes into a per-column dictionary held in the file footer.
+ */
+public enum ColumnType {
+    INT64(1, 8),
+    FLOAT64(2, 8),
+    /** Days since 1970-01-01. */
+    DATE(3, 4),
+    BOOLEAN(4, 1),
+    /** Dictionary code. */
+    STRING(5, 4);
+
+    private final byte code;
+    private final int width;
+
+    ColumnType(int code, int width) {
+        this.code = (byte) code;
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    byte getCode() {
+        return code;
+    }
+
+    static ColumnType fromCode(byte code) {
+        for (ColumnType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column type code: " + code);
+    }
+}
@@ -0,0 +1,74 @@
+package com.baticuisine.export.columnar;
+
+import static com.baticuisine.export.columnar.ColumnType.BOOLEAN;
+import static com.baticuisine.export.columnar.ColumnType.DATE;
+import static com.baticuisine.export.columnar.ColumnType.FLOAT64;
+import static com.baticuisine.export.columnar.ColumnType.INT64;
+import static com.baticuisine.export.columnar.ColumnType.STRING;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The tables available as columnar exports. The query selects the columns in descriptor order.
+ */
+public enum ColumnarDataset {
+    PROJECTS(
+            "SELECT id, name, status, surface, start_date, profit_margin, total_cost, client_id " +
+            "FROM projects ORDER BY id",
+            column("id", INT64), column("name", STRING), column("status", STRING),
+            column("surface", FLOAT64), column("start_date", DATE), column("profit_margin", FLOAT64),
+            column("total_cost", FLOAT64), column("client_id", INT64)),
+    PROJECT_COMPONENTS(
+            "SELECT pc.project_id, pc.component_id, c.name, c.type, pc.quantity " +
+            "FROM project_components pc JOIN components c ON c.id = pc.component_id " +
+            "ORDER BY pc.project_id, pc.component_id",
+            column("project_id", INT64), column("component_id", INT64), column("component_name", STRING),
+            column("component_type", STRING), column("quantity", FLOAT64)),
+    MATERIALS(
+            "SELECT c.id, c.name, c.tva_cost, m.unit_cost, m.quantite, m.transport_cost, m.coefficient_qualite " +
+            "FROM materials m JOIN components c ON c.id = m.id ORDER BY c.id",
+            column("id", INT64), column("name", STRING), column("tva_cost", FLOAT64),
+            column("unit_cost", FLOAT64), column("quantity", FLOAT64), column("transport_cost", FLOAT64),
+            column("quality_coefficient", FLOAT64)),
+    LABOR(
+            "SELECT c.id, c.name, c.tva_cost, l.hourly_rate, l.work_hours, l.worker_productivity " +
+            "FROM labor l JOIN components c ON c.id = l.id ORDER BY c.id",
+            column("id", INT64), column("name", STRING), column("tva_cost", FLOAT64),
+            column("hourly_rate", FLOAT64), column("work_hours", FLOAT64), column("worker_productivity", FLOAT64)),
+    QUOTES(
+            "SELECT id, project_id, total_cost, issue_date, validity_date, is_accepted " +
+            "FROM quotes ORDER BY id",
+            column("id", INT64), column("project_id", INT64), column("total_cost", FLOAT64),
+            column("issue_date", DATE), column("validity_date", DATE), column("is_accepted", BOOLEAN));
+
+    private final String sql;
+    private final List<ColumnDescriptor> columns;
+
+    ColumnarDataset(String sql, ColumnDescriptor... columns) {
+        this.sql = sql;
+        this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<ColumnDescriptor> getColumns() {
+        return columns;
+    }
+
+    public static ColumnarDataset fromString(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown columnar dataset: " + value);
+        }
+    }
+
+    private static ColumnDescriptor column(String name, ColumnType type) {
+        return new ColumnDescriptor(name, type);
+    }
+}
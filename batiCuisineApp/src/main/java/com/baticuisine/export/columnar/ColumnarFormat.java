@@ -0,0 +1,26 @@
+package com.baticuisine.export.columnar;
+
+/**
+ * File layout constants.
+ * <pre>
+ * header   magic:int32 version:int32
+ * chunks   for each chunk, for each column: [null bitmap if nullCount &gt; 0] values
+ * footer   columnCount:int32 (nameLength:int32 name:utf8 type:int8)*
+ *          rowCount:int64 chunkCount:int32
+ *          (for each chunk, for each column: offset:int64 length:int32 rowCount:int32 nullCount:int32
+ *           hasMinMax:int8 min:int64 max:int64)*
+ *          (for each STRING column: size:int32 (length:int32 value:utf8)*)*
+ * trailer  footerOffset:int64 footerLength:int32 magic:int32
+ * </pre>
+ * All integers are little-endian. FLOAT64 min/max are stored as raw IEEE 754 bits.
+ */
+final class ColumnarFormat {
+    static final int MAGIC = 0x4C4F4342; // "BCOL" read little-endian
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    static final int TRAILER_LENGTH = 16;
+    static final int DEFAULT_CHUNK_ROWS = 64 * 1024;
+
+    private ColumnarFormat() {
+    }
+}
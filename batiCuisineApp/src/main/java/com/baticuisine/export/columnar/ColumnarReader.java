@@ -0,0 +1,187 @@
+package com.baticuisine.export.columnar;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads files written by {@link ColumnarWriter}.
+ * <p>
+ * Opening a file reads only its footer. A scan reads the chunks of a single column with
+ * positional channel reads and never touches the bytes of the other columns; chunks whose
+ * statistics do not match the scan's filter are skipped without being read.
+ */
+public class ColumnarReader implements Closeable {
+    private final FileChannel channel;
+    private final List<ColumnDescriptor> columns;
+    private final long rowCount;
+    private final ChunkStats[][] chunks;
+    private final List<List<String>> dictionaries;
+
+    private ColumnarReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < ColumnarFormat.HEADER_LENGTH + ColumnarFormat.TRAILER_LENGTH) {
+            throw new IOException("Not a columnar export file: too short");
+        }
+        ByteBuffer header = readAt(0, ColumnarFormat.HEADER_LENGTH);
+        if (header.getInt() != ColumnarFormat.MAGIC) {
+            throw new IOException("Not a columnar export file: bad magic");
+        }
+        int version = header.getInt();
+        if (version != ColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar format version: " + version);
+        }
+        ByteBuffer trailer = readAt(size - ColumnarFormat.TRAILER_LENGTH, ColumnarFormat.TRAILER_LENGTH);
+        long footerOffset = trailer.getLong();
+        int footerLength = trailer.getInt();
+        if (trailer.getInt() != ColumnarFormat.MAGIC) {
+            throw new IOException("Columnar export file is truncated");
+        }
+
+        ByteBuffer footer = readAt(footerOffset, footerLength);
+        int columnCount = footer.getInt();
+        List<ColumnDescriptor> descriptors = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            String name = readString(footer);
+            descriptors.add(new ColumnDescriptor(name, ColumnType.fromCode(footer.get())));
+        }
+        this.columns = Collections.unmodifiableList(descriptors);
+        this.rowCount = footer.getLong();
+        int chunkCount = footer.getInt();
+        this.chunks = new ChunkStats[chunkCount][];
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c] = new ChunkStats[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                chunks[c][i] = new ChunkStats(descriptors.get(i).getType(), footer.getLong(), footer.getInt(),
+                        footer.getInt(), footer.getInt(), footer.get() != 0, footer.getLong(), footer.getLong());
+            }
+        }
+        this.dictionaries = new ArrayList<>(columnCount);
+        for (ColumnDescriptor column : descriptors) {
+            if (column.getType() != ColumnType.STRING) {
+                dictionaries.add(null);
+                continue;
+            }
+            int entries = footer.getInt();
+            List<String> dictionary = new ArrayList<>(entries);
+            for (int i = 0; i < entries; i++) {
+                dictionary.add(readString(footer));
+            }
+            dictionaries.add(Collections.unmodifiableList(dictionary));
+        }
+    }
+
+    public static ColumnarReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ColumnarReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<ColumnDescriptor> getColumns() {
+        return columns;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    public List<ChunkStats> getChunkStats(String column) {
+        int index = indexOf(column);
+        List<ChunkStats> stats = new ArrayList<>(chunks.length);
+        for (ChunkStats[] chunk : chunks) {
+            stats.add(chunk[index]);
+        }
+        return stats;
+    }
+
+    public void scan(String column, Consumer<ColumnChunk> visitor) throws IOException {
+        scan(column, stats -> true, visitor);
+    }
+
+    /**
+     * Visits the chunks of {@code column} accepted by {@code chunkFilter}, in file order.
+     */
+    public void scan(String column, Predicate<ChunkStats> chunkFilter, Consumer<ColumnChunk> visitor)
+            throws IOException {
+        int index = indexOf(column);
+        ColumnType type = columns.get(index).getType();
+        ByteBuffer buffer = null;
+        for (ChunkStats[] chunk : chunks) {
+            ChunkStats stats = chunk[index];
+            if (!chunkFilter.test(stats)) {
+                continue;
+            }
+            if (buffer == null || buffer.capacity() < stats.getLength()) {
+                buffer = ByteBuffer.allocate(stats.getLength()).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            buffer.clear().limit(stats.getLength());
+            readFully(buffer, stats.getOffset());
+            buffer.flip();
+
+            byte[] nulls = null;
+            if (stats.getNullCount() > 0) {
+                nulls = new byte[(stats.getRowCount() + 7) >>> 3];
+                buffer.get(nulls);
+            }
+            ByteBuffer values = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            visitor.accept(new ColumnChunk(type, stats, values, nulls, dictionaries.get(index)));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int indexOf(String column) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getName().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + column);
+    }
+
+    private ByteBuffer readAt(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(buffer, position);
+        buffer.flip();
+        return buffer;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of columnar export file");
+            }
+            position += read;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
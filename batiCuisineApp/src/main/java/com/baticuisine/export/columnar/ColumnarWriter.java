@@ -0,0 +1,347 @@
+package com.baticuisine.export.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes rows into the columnar format described in {@link ColumnarFormat}.
+ * <p>
+ * Rows are buffered per column until {@code chunkRows} rows have been written, then each column
+ * chunk is written to the file channel in turn. Memory use is bounded by one chunk per column
+ * plus the string dictionaries. Each row sets every column once, then calls {@link #endRow()}.
+ */
+public class ColumnarWriter implements Closeable {
+    private final FileChannel channel;
+    private final ColumnDescriptor[] columns;
+    private final ColumnBuffer[] buffers;
+    private final int chunkRows;
+    private final List<ChunkStats[]> chunks = new ArrayList<>();
+    private int rowsInChunk;
+    private long rowCount;
+    private boolean closed;
+
+    public ColumnarWriter(Path file, List<ColumnDescriptor> columns) throws IOException {
+        this(file, columns, ColumnarFormat.DEFAULT_CHUNK_ROWS);
+    }
+
+    public ColumnarWriter(Path file, List<ColumnDescriptor> columns, int chunkRows) throws IOException {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column is required");
+        }
+        if (chunkRows <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.columns = columns.toArray(new ColumnDescriptor[0]);
+        this.chunkRows = chunkRows;
+        this.buffers = new ColumnBuffer[this.columns.length];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ColumnBuffer(this.columns[i].getType(), chunkRows);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteBuffer header = ByteBuffer.allocate(ColumnarFormat.HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(ColumnarFormat.MAGIC).putInt(ColumnarFormat.VERSION).flip();
+        writeFully(header);
+    }
+
+    public void writeNull(int column) {
+        buffer(column, null).appendNull();
+    }
+
+    public void writeLong(int column, long value) {
+        buffer(column, ColumnType.INT64).appendLong(value);
+    }
+
+    public void writeDouble(int column, double value) {
+        buffer(column, ColumnType.FLOAT64).appendDouble(value);
+    }
+
+    public void writeDate(int column, LocalDate value) {
+        if (value == null) {
+            writeNull(column);
+        } else {
+            buffer(column, ColumnType.DATE).appendDate((int) value.toEpochDay());
+        }
+    }
+
+    public void writeBoolean(int column, boolean value) {
+        buffer(column, ColumnType.BOOLEAN).appendBoolean(value);
+    }
+
+    public void writeString(int column, String value) {
+        if (value == null) {
+            writeNull(column);
+        } else {
+            buffer(column, ColumnType.STRING).appendString(value);
+        }
+    }
+
+    public void endRow() throws IOException {
+        rowsInChunk++;
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i].count != rowsInChunk) {
+                throw new IllegalStateException("Column " + columns[i].getName() + " was not written exactly once");
+            }
+        }
+        rowCount++;
+        if (rowsInChunk == chunkRows) {
+            flushChunk();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (rowsInChunk > 0) {
+                flushChunk();
+            }
+            writeFooter();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private ColumnBuffer buffer(int column, ColumnType expected) {
+        ColumnBuffer buffer = buffers[column];
+        if (expected != null && buffer.type != expected) {
+            throw new IllegalArgumentException("Column " + columns[column].getName() + " is " + buffer.type
+                    + ", not " + expected);
+        }
+        if (buffer.count > rowsInChunk) {
+            throw new IllegalStateException("Column " + columns[column].getName() + " already written for this row");
+        }
+        return buffer;
+    }
+
+    private void flushChunk() throws IOException {
+        ChunkStats[] stats = new ChunkStats[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            ColumnBuffer buffer = buffers[i];
+            long offset = channel.position();
+            int length = 0;
+            if (buffer.nullCount > 0) {
+                ByteBuffer nulls = ByteBuffer.wrap(buffer.nulls, 0, (rowsInChunk + 7) >>> 3);
+                length += nulls.remaining();
+                writeFully(nulls);
+            }
+            buffer.values.flip();
+            length += buffer.values.remaining();
+            writeFully(buffer.values);
+            stats[i] = new ChunkStats(buffer.type, offset, length, rowsInChunk, buffer.nullCount,
+                    buffer.hasMinMax, buffer.minBits(), buffer.maxBits());
+            buffer.reset();
+        }
+        chunks.add(stats);
+        rowsInChunk = 0;
+    }
+
+    private void writeFooter() throws IOException {
+        FooterBuffer footer = new FooterBuffer();
+        footer.putInt(columns.length);
+        for (ColumnDescriptor column : columns) {
+            footer.putString(column.getName());
+            footer.put(column.getType().getCode());
+        }
+        footer.putLong(rowCount);
+        footer.putInt(chunks.size());
+        for (ChunkStats[] chunk : chunks) {
+            for (ChunkStats stats : chunk) {
+                footer.putLong(stats.getOffset());
+                footer.putInt(stats.getLength());
+                footer.putInt(stats.getRowCount());
+                footer.putInt(stats.getNullCount());
+                footer.put((byte) (stats.hasMinMax() ? 1 : 0));
+                footer.putLong(stats.getMinBits());
+                footer.putLong(stats.getMaxBits());
+            }
+        }
+        for (ColumnBuffer buffer : buffers) {
+            if (buffer.type == ColumnType.STRING) {
+                footer.putInt(buffer.dictionary.size());
+                for (String value : buffer.dictionary) {
+                    footer.putString(value);
+                }
+            }
+        }
+
+        long footerOffset = channel.position();
+        ByteBuffer body = footer.flip();
+        int footerLength = body.remaining();
+        writeFully(body);
+        ByteBuffer trailer = ByteBuffer.allocate(ColumnarFormat.TRAILER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        trailer.putLong(footerOffset).putInt(footerLength).putInt(ColumnarFormat.MAGIC).flip();
+        writeFully(trailer);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Values of one column for the current chunk, with its running min/max. String columns also
+     * own the dictionary, which spans the whole file.
+     */
+    private static final class ColumnBuffer {
+        final ColumnType type;
+        final ByteBuffer values;
+        final byte[] nulls;
+        final Map<String, Integer> codes;
+        final List<String> dictionary;
+        int count;
+        int nullCount;
+        boolean hasMinMax;
+        long minLong;
+        long maxLong;
+        double minDouble;
+        double maxDouble;
+
+        ColumnBuffer(ColumnType type, int chunkRows) {
+            this.type = type;
+            this.values = ByteBuffer.allocate(chunkRows * type.getWidth()).order(ByteOrder.LITTLE_ENDIAN);
+            this.nulls = new byte[(chunkRows + 7) >>> 3];
+            this.codes = type == ColumnType.STRING ? new HashMap<>() : null;
+            this.dictionary = type == ColumnType.STRING ? new ArrayList<>() : null;
+        }
+
+        void appendNull() {
+            nulls[count >>> 3] |= (byte) (1 << (count & 7));
+            nullCount++;
+            for (int i = 0; i < type.getWidth(); i++) {
+                values.put((byte) 0);
+            }
+            count++;
+        }
+
+        void appendLong(long value) {
+            values.putLong(value);
+            trackLong(value);
+            count++;
+        }
+
+        void appendDouble(double value) {
+            values.putDouble(value);
+            if (!Double.isNaN(value)) {
+                if (!hasMinMax) {
+                    minDouble = value;
+                    maxDouble = value;
+                    hasMinMax = true;
+                } else {
+                    minDouble = Math.min(minDouble, value);
+                    maxDouble = Math.max(maxDouble, value);
+                }
+            }
+            count++;
+        }
+
+        void appendDate(int epochDay) {
+            values.putInt(epochDay);
+            trackLong(epochDay);
+            count++;
+        }
+
+        void appendBoolean(boolean value) {
+            values.put((byte) (value ? 1 : 0));
+            trackLong(value ? 1 : 0);
+            count++;
+        }
+
+        void appendString(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(value, code);
+                dictionary.add(value);
+            }
+            values.putInt(code);
+            count++;
+        }
+
+        private void trackLong(long value) {
+            if (!hasMinMax) {
+                minLong = value;
+                maxLong = value;
+                hasMinMax = true;
+            } else {
+                minLong = Math.min(minLong, value);
+                maxLong = Math.max(maxLong, value);
+            }
+        }
+
+        long minBits() {
+            return type == ColumnType.FLOAT64 ? Double.doubleToRawLongBits(minDouble) : minLong;
+        }
+
+        long maxBits() {
+            return type == ColumnType.FLOAT64 ? Double.doubleToRawLongBits(maxDouble) : maxLong;
+        }
+
+        void reset() {
+            values.clear();
+            Arrays.fill(nulls, (byte) 0);
+            count = 0;
+            nullCount = 0;
+            hasMinMax = false;
+        }
+    }
+
+    private static final class FooterBuffer {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+        void put(byte value) {
+            ensure(1).put(value);
+        }
+
+        void putInt(int value) {
+            ensure(4).putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(8).putLong(value);
+        }
+
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+        }
+
+        ByteBuffer flip() {
+            buffer.flip();
+            return buffer;
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.baticuisine.export.columnar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.baticuisine.repository.RowCallbackHandler;
+
+/**
+ * Copies each result set row into a {@link ColumnarWriter}, reading column {@code i} of the
+ * result set as descriptor {@code i}.
+ */
+public class ResultSetColumnarAppender implements RowCallbackHandler {
+    private final ColumnarWriter writer;
+    private final ColumnType[] types;
+
+    public ResultSetColumnarAppender(ColumnarWriter writer, List<ColumnDescriptor> columns) {
+        this.writer = writer;
+        this.types = new ColumnType[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = columns.get(i).getType();
+        }
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        for (int i = 0; i < types.length; i++) {
+            int position = i + 1;
+            switch (types[i]) {
+                case INT64: {
+                    long value = rs.getLong(position);
+                    if (rs.wasNull()) {
+                        writer.writeNull(i);
+                    } else {
+                        writer.writeLong(i, value);
+                    }
+                    break;
+                }
+                case FLOAT64: {
+                    double value = rs.getDouble(position);
+                    if (rs.wasNull()) {
+                        writer.writeNull(i);
+                    } else {
+                        writer.writeDouble(i, value);
+                    }
+                    break;
+                }
+                case DATE: {
+                    Date value = rs.getDate(position);
+                    writer.writeDate(i, value != null ? value.toLocalDate() : null);
+                    break;
+                }
+                case BOOLEAN: {
+                    boolean value = rs.getBoolean(position);
+                    if (rs.wasNull()) {
+                        writer.writeNull(i);
+                    } else {
+                        writer.writeBoolean(i, value);
+                    }
+                    break;
+                }
+                case STRING:
+                    writer.writeString(i, rs.getString(position));
+                    break;
+            }
+        }
+        try {
+            writer.endRow();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -8,6 +8,7 @@ public class Client {
     private String phoneNumber;
     private boolean isProfessional;
     private double discountRate;
+    private long version;
 
     public Client(String name, String email, String address, String phoneNumber, boolean isProfessional, double discountRate) {
         this.name = name;
@@ -33,6 +34,8 @@ public class Client {
     public void setProfessional(boolean professional) { isProfessional = professional; }
     public double getDiscountRate() { return discountRate; }
     public void setDiscountRate(double discountRate) { this.discountRate = discountRate; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     @Override
     public String toString() {
@@ -0,0 +1,23 @@
+package com.baticuisine.model;
+
+/**
+ * A client returned by a search, with how closely it matched the query: 1.0 for an exact
+ * phone or email match, otherwise the trigram similarity of the name (0 to 1).
+ */
+public class ClientMatch {
+    private final Client client;
+    private final double score;
+
+    public ClientMatch(Client client, double score) {
+        this.client = client;
+        this.score = score;
+    }
+
+    public Client getClient() { return client; }
+    public double getScore() { return score; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (match %.0f%%)", client, score * 100);
+    }
+}
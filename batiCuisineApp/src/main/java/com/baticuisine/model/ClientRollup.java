@@ -0,0 +1,34 @@
+package com.baticuisine.model;
+
+/**
+ * Per-client totals maintained by the database: the pipeline is the cost of the client's
+ * pending and in-progress projects, the accepted value the sum of their accepted quotes.
+ */
+public class ClientRollup {
+    private final Long clientId;
+    private final String clientName;
+    private final int projectCount;
+    private final double pipelineValue;
+    private final double acceptedQuoteValue;
+
+    public ClientRollup(Long clientId, String clientName, int projectCount, double pipelineValue,
+                        double acceptedQuoteValue) {
+        this.clientId = clientId;
+        this.clientName = clientName;
+        this.projectCount = projectCount;
+        this.pipelineValue = pipelineValue;
+        this.acceptedQuoteValue = acceptedQuoteValue;
+    }
+
+    public Long getClientId() { return clientId; }
+    public String getClientName() { return clientName; }
+    public int getProjectCount() { return projectCount; }
+    public double getPipelineValue() { return pipelineValue; }
+    public double getAcceptedQuoteValue() { return acceptedQuoteValue; }
+
+    @Override
+    public String toString() {
+        return String.format("%s - Projects: %d, Pipeline: %.2f €, Accepted quotes: %.2f €",
+                clientName, projectCount, pipelineValue, acceptedQuoteValue);
+    }
+}
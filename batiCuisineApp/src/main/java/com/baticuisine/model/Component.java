@@ -5,6 +5,7 @@ public abstract class Component {
     private String name;
     private String componentType;
     private double vatRate;
+    private long version;
 
     public Component(String name, String componentType, double vatRate) {
         this.name = name;
@@ -21,6 +22,8 @@ public abstract class Component {
     public void setComponentType(String componentType) { this.componentType = componentType; }
     public double getVatRate() { return vatRate; }
     public void setVatRate(double vatRate) { this.vatRate = vatRate; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     // Abstract method to calculate cost
     public abstract double calculateCost();
@@ -16,9 +16,18 @@ public class Project {
     private List<Component> components;
     private double surface;
     private LocalDate startDate;
+    private long version;
 
     private List<Material> materials;
     private List<Labor> laborItems;
+    private List<Quote> quotes;
+
+    // Associations not fetched with the project are loaded through the loader on first access
+    private ProjectLoader loader;
+    private boolean clientLoaded = true;
+    private boolean materialsLoaded = true;
+    private boolean laborItemsLoaded = true;
+    private boolean quotesLoaded = true;
 
     public Project(String projectName, double surface, LocalDate startDate, ProjectStatus projectStatus, Client client) {
         this.projectName = projectName;
@@ -31,6 +40,7 @@ public class Project {
         this.totalCost = 0;
         this.materials = new ArrayList<>();
         this.laborItems = new ArrayList<>();
+        this.quotes = new ArrayList<>();
     }
 
     // Getters and setters
@@ -44,13 +54,25 @@ public class Project {
     public void setTotalCost(double totalCost) { this.totalCost = totalCost; }
     public ProjectStatus getProjectStatus() { return projectStatus; }
     public void setProjectStatus(ProjectStatus projectStatus) { this.projectStatus = projectStatus; }
-    public Client getClient() { return client; }
-    public void setClient(Client client) { this.client = client; }
+    public Client getClient() {
+        if (!clientLoaded) {
+            loader.loadClient(this);
+        }
+        return client;
+    }
+
+    public void setClient(Client client) {
+        this.client = client;
+        this.clientLoaded = true;
+    }
+
     public List<Component> getComponents() { return components; }
     public double getSurface() { return surface; }
     public void setSurface(double surface) { this.surface = surface; }
     public LocalDate getStartDate() { return startDate; }
     public void setStartDate(LocalDate startDate) { this.startDate = startDate; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     public void addComponent(Component component) {
         this.components.add(component);
@@ -64,34 +86,81 @@ public class Project {
     }
 
     public List<Material> getMaterials() {
+        if (!materialsLoaded) {
+            loader.loadMaterials(this);
+        }
         return materials;
     }
 
     public List<Labor> getLaborItems() {
+        if (!laborItemsLoaded) {
+            loader.loadLaborItems(this);
+        }
         return laborItems;
     }
 
+    public List<Quote> getQuotes() {
+        if (!quotesLoaded) {
+            loader.loadQuotes(this);
+        }
+        return quotes;
+    }
+
     public void addMaterial(Material material) {
-        this.materials.add(material);
+        getMaterials().add(material);
         this.components.add(material);
     }
 
     public void addLabor(Labor labor) {
-        this.laborItems.add(labor);
+        getLaborItems().add(labor);
         this.components.add(labor);
     }
 
+    public void removeComponent(Component component) {
+        if (component instanceof Material) {
+            getMaterials().remove(component);
+        } else {
+            getLaborItems().remove(component);
+        }
+        this.components.remove(component);
+    }
+
     public void setMaterials(List<Material> materials) {
         this.materials = materials;
+        this.materialsLoaded = true;
     }
 
     public void setLaborItems(List<Labor> laborItems) {
         this.laborItems = laborItems;
+        this.laborItemsLoaded = true;
+    }
+
+    public void setQuotes(List<Quote> quotes) {
+        this.quotes = quotes;
+        this.quotesLoaded = true;
     }
 
+    /**
+     * Marks every association as not loaded; each is then loaded through {@code loader} on
+     * first access unless it is set first.
+     */
+    public void setLoader(ProjectLoader loader) {
+        this.loader = loader;
+        this.clientLoaded = false;
+        this.materialsLoaded = false;
+        this.laborItemsLoaded = false;
+        this.quotesLoaded = false;
+    }
+
+    public boolean isClientLoaded() { return clientLoaded; }
+    public boolean isMaterialsLoaded() { return materialsLoaded; }
+    public boolean isLaborItemsLoaded() { return laborItemsLoaded; }
+    public boolean isQuotesLoaded() { return quotesLoaded; }
+
     @Override
     public String toString() {
-        String clientName = (client != null) ? client.getName() : "No client assigned";
+        // Does not trigger a lazy load
+        String clientName = !clientLoaded ? "Not loaded" : (client != null) ? client.getName() : "No client assigned";
         return String.format("Project: %s, Client: %s, Surface: %.2f m², Total Cost: %.2f €, Status: %s",
                 projectName, clientName, surface, totalCost, projectStatus);
     }
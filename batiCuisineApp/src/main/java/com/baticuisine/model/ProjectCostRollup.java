@@ -0,0 +1,37 @@
+package com.baticuisine.model;
+
+/**
+ * A project's cost breakdown as maintained by the database triggers on its line items,
+ * computed the same way as {@code CostCalculator}.
+ */
+public class ProjectCostRollup {
+    private final Long projectId;
+    private final double materialCost;
+    private final double laborCost;
+    private final double discount;
+    private final double vat;
+    private final double totalCost;
+
+    public ProjectCostRollup(Long projectId, double materialCost, double laborCost, double discount, double vat,
+                             double totalCost) {
+        this.projectId = projectId;
+        this.materialCost = materialCost;
+        this.laborCost = laborCost;
+        this.discount = discount;
+        this.vat = vat;
+        this.totalCost = totalCost;
+    }
+
+    public Long getProjectId() { return projectId; }
+    public double getMaterialCost() { return materialCost; }
+    public double getLaborCost() { return laborCost; }
+    public double getDiscount() { return discount; }
+    public double getVat() { return vat; }
+    public double getTotalCost() { return totalCost; }
+
+    @Override
+    public String toString() {
+        return String.format("Materials: %.2f €, Labor: %.2f €, Discount: -%.2f €, VAT: %.2f €, Total: %.2f €",
+                materialCost, laborCost, discount, vat, totalCost);
+    }
+}
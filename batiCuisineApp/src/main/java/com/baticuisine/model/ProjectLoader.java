@@ -0,0 +1,13 @@
+package com.baticuisine.model;
+
+/**
+ * Fills in the parts of a {@link Project} that were not fetched with it. The repository sets
+ * one on the projects it loads; each method must set the association through the project's
+ * setter, and may fill it in for other projects loaded alongside this one as well.
+ */
+public interface ProjectLoader {
+    void loadClient(Project project);
+    void loadMaterials(Project project);
+    void loadLaborItems(Project project);
+    void loadQuotes(Project project);
+}
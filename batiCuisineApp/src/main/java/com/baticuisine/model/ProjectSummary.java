@@ -0,0 +1,35 @@
+package com.baticuisine.model;
+
+import com.baticuisine.model.enums.ProjectStatus;
+
+/**
+ * The columns a project list shows, without the client, materials or labor. Load the full
+ * {@link Project} by id once the user picks one.
+ */
+public class ProjectSummary {
+    private final Long id;
+    private final String projectName;
+    private final ProjectStatus projectStatus;
+    private final double totalCost;
+    private final String clientName;
+
+    public ProjectSummary(Long id, String projectName, ProjectStatus projectStatus, double totalCost, String clientName) {
+        this.id = id;
+        this.projectName = projectName;
+        this.projectStatus = projectStatus;
+        this.totalCost = totalCost;
+        this.clientName = clientName;
+    }
+
+    public Long getId() { return id; }
+    public String getProjectName() { return projectName; }
+    public ProjectStatus getProjectStatus() { return projectStatus; }
+    public double getTotalCost() { return totalCost; }
+    public String getClientName() { return clientName; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s) - Client: %s, Total: %.2f €",
+                projectName, projectStatus, clientName != null ? clientName : "-", totalCost);
+    }
+}
@@ -1,6 +1,8 @@
 package com.baticuisine.model;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
 
 public class Quote {
     private Long id;
@@ -9,7 +11,13 @@ public class Quote {
     private LocalDate validityDate;
     private boolean accepted;
     private Project project;
+    // Priced lines, null until loaded; quotes read from the database come without them
+    private List<QuoteLine> lines;
+    // Rendered document as issued; a saved quote holds its hash and loads the text on first access
     private String content;
+    private String documentHash;
+    private Supplier<String> contentLoader;
+    private long version;
 
     public Quote(double estimatedAmount, LocalDate issueDate, LocalDate validityDate, Project project) {
         this.estimatedAmount = estimatedAmount;
@@ -32,14 +40,46 @@ public class Quote {
     public void setAccepted(boolean accepted) { this.accepted = accepted; }
     public Project getProject() { return project; }
     public void setProject(Project project) { this.project = project; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
+    public List<QuoteLine> getLines() { return lines; }
+    public void setLines(List<QuoteLine> lines) { this.lines = lines; }
+    public String getDocumentHash() { return documentHash; }
+    public void setDocumentHash(String documentHash) { this.documentHash = documentHash; }
+
+    /**
+     * Replaces the document; its stored hash, if any, no longer applies.
+     */
     public void setContent(String content) {
         this.content = content;
+        this.contentLoader = null;
+        this.documentHash = null;
     }
-    
+
+    /**
+     * The rendered document, or {@code null} if none was stored with the quote.
+     */
     public String getContent() {
+        if (contentLoader != null) {
+            content = contentLoader.get();
+            contentLoader = null;
+        }
         return content;
     }
+
+    /**
+     * Defers loading the content to the first {@link #getContent()} call.
+     */
+    public void setContentLoader(Supplier<String> contentLoader) {
+        this.content = null;
+        this.contentLoader = contentLoader;
+    }
+
+    public boolean isContentLoaded() {
+        return contentLoader == null;
+    }
+
     public boolean isValid() {
         return LocalDate.now().isBefore(validityDate) || LocalDate.now().isEqual(validityDate);
     }
@@ -0,0 +1,54 @@
+package com.baticuisine.model;
+
+import com.baticuisine.model.enums.QuoteLineKind;
+
+/**
+ * One priced line of a quote, as quoted. Item lines carry the component's quantity, unit price,
+ * coefficient (quality or productivity) and extra cost (transport); summary lines carry only a
+ * rate (discount or VAT) where one applies. Unused fields are {@code null}.
+ */
+public class QuoteLine {
+    private int lineNo;
+    private QuoteLineKind kind;
+    private Long componentId;
+    private String description;
+    private Double quantity;
+    private Double unitPrice;
+    private Double coefficient;
+    private Double extraCost;
+    private Double rate;
+    private double amount;
+
+    public QuoteLine(QuoteLineKind kind, String description, double amount) {
+        this.kind = kind;
+        this.description = description;
+        this.amount = amount;
+    }
+
+    // Getters and setters
+    public int getLineNo() { return lineNo; }
+    public void setLineNo(int lineNo) { this.lineNo = lineNo; }
+    public QuoteLineKind getKind() { return kind; }
+    public void setKind(QuoteLineKind kind) { this.kind = kind; }
+    public Long getComponentId() { return componentId; }
+    public void setComponentId(Long componentId) { this.componentId = componentId; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Double getQuantity() { return quantity; }
+    public void setQuantity(Double quantity) { this.quantity = quantity; }
+    public Double getUnitPrice() { return unitPrice; }
+    public void setUnitPrice(Double unitPrice) { this.unitPrice = unitPrice; }
+    public Double getCoefficient() { return coefficient; }
+    public void setCoefficient(Double coefficient) { this.coefficient = coefficient; }
+    public Double getExtraCost() { return extraCost; }
+    public void setExtraCost(Double extraCost) { this.extraCost = extraCost; }
+    public Double getRate() { return rate; }
+    public void setRate(Double rate) { this.rate = rate; }
+    public double getAmount() { return amount; }
+    public void setAmount(double amount) { this.amount = amount; }
+
+    @Override
+    public String toString() {
+        return String.format("%d. %s %s: %.2f €", lineNo, kind, description, amount);
+    }
+}
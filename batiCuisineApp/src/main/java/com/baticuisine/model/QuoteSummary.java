@@ -0,0 +1,44 @@
+package com.baticuisine.model;
+
+import java.time.LocalDate;
+
+/**
+ * A quote as shown in a quote list: amount, dates and status, without the quote content.
+ * Load the full {@link Quote} by id once the user picks one.
+ */
+public class QuoteSummary {
+    private final Long id;
+    private final Long projectId;
+    private final double estimatedAmount;
+    private final LocalDate issueDate;
+    private final LocalDate validityDate;
+    private final boolean accepted;
+
+    public QuoteSummary(Long id, Long projectId, double estimatedAmount, LocalDate issueDate,
+                        LocalDate validityDate, boolean accepted) {
+        this.id = id;
+        this.projectId = projectId;
+        this.estimatedAmount = estimatedAmount;
+        this.issueDate = issueDate;
+        this.validityDate = validityDate;
+        this.accepted = accepted;
+    }
+
+    public Long getId() { return id; }
+    public Long getProjectId() { return projectId; }
+    public double getEstimatedAmount() { return estimatedAmount; }
+    public LocalDate getIssueDate() { return issueDate; }
+    public LocalDate getValidityDate() { return validityDate; }
+    public boolean isAccepted() { return accepted; }
+
+    public boolean isValid() {
+        return !LocalDate.now().isAfter(validityDate);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Quote #%d: %.2f €, Issued: %s, Valid until: %s, Status: %s",
+                id, estimatedAmount, issueDate, validityDate,
+                accepted ? "Accepted" : (isValid() ? "Pending" : "Expired"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.baticuisine.model.enums;
+
+/**
+ * Kind of a quote line, stored as the constant name in {@code quote_lines.kind}. Item lines come
+ * first, in project order, followed by the summary lines in the order declared here.
+ */
+public enum QuoteLineKind {
+    MATERIAL,
+    LABOR,
+    SUBTOTAL,
+    DISCOUNT,
+    VAT,
+    TOTAL;
+
+    public boolean isItem() {
+        return this == MATERIAL || this == LABOR;
+    }
+}
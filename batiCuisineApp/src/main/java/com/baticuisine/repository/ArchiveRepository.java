@@ -0,0 +1,26 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+
+/**
+ * Moves closed projects to the archive tables and purges unused components, one bounded chunk
+ * per call so that no call holds its locks for long.
+ */
+public interface ArchiveRepository {
+    /**
+     * Archives up to {@code limit} projects that have been TERMINE or ANNULE for more than
+     * {@code closedForDays} days, with their line items and quotes, then deletes them. Projects
+     * locked by another transaction are skipped. Must run inside a transaction.
+     *
+     * @return the ids of the archived projects
+     */
+    List<Long> archiveClosedProjects(int closedForDays, int limit);
+
+    /**
+     * Deletes up to {@code limit} components with an id above {@code afterId} that are neither
+     * in the catalog nor used by any project.
+     *
+     * @return the ids of the deleted components
+     */
+    List<Long> purgeOrphanedComponents(long afterId, int limit);
+}
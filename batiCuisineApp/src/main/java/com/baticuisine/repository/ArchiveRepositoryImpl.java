@@ -0,0 +1,134 @@
+package com.baticuisine.repository;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.baticuisine.database.ChangeNotifier;
+import com.baticuisine.database.DatabaseConnection;
+
+public class ArchiveRepositoryImpl implements ArchiveRepository {
+    private static ArchiveRepositoryImpl instance;
+    private final DatabaseConnection database;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeNotifier changes;
+
+    private static final RowMapperFactory<Long> ID_MAPPER = columns -> rs -> rs.getLong(1);
+
+    // Served by idx_projects_closed
+    private static final String SELECT_CLOSED_PROJECTS =
+            "SELECT id FROM projects WHERE status IN ('TERMINE', 'ANNULE') " +
+            "AND status_changed_at < now() - make_interval(days => ?) " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String ARCHIVE_PROJECTS =
+            "INSERT INTO projects_archive (id, name, surface, start_date, status, profit_margin, total_cost, " +
+            "client_id, status_changed_at) " +
+            "SELECT id, name, surface, start_date, status, profit_margin, total_cost, client_id, status_changed_at " +
+            "FROM projects WHERE id = ANY(?)";
+
+    // A catalog component used by several archived projects is archived once, as first seen
+    private static final String ARCHIVE_COMPONENTS =
+            "INSERT INTO components_archive (id, name, type, tva_cost, unit_cost, quantite, transport_cost, " +
+            "coefficient_qualite, hourly_rate, work_hours, worker_productivity) " +
+            "SELECT c.id, c.name, c.type, c.tva_cost, m.unit_cost, m.quantite, m.transport_cost, " +
+            "m.coefficient_qualite, l.hourly_rate, l.work_hours, l.worker_productivity " +
+            "FROM components c " +
+            "LEFT JOIN materials m ON m.id = c.id " +
+            "LEFT JOIN labor l ON l.id = c.id " +
+            "WHERE c.id IN (SELECT component_id FROM project_components WHERE project_id = ANY(?)) " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private static final String ARCHIVE_PROJECT_COMPONENTS =
+            "INSERT INTO project_components_archive (project_id, component_id, quantity) " +
+            "SELECT project_id, component_id, quantity FROM project_components WHERE project_id = ANY(?)";
+
+    private static final String ARCHIVE_QUOTES =
+            "INSERT INTO quotes_archive (id, project_id, total_cost, issue_date, validity_date, is_accepted, " +
+            "document_hash) " +
+            "SELECT id, project_id, total_cost, issue_date, validity_date, is_accepted, document_hash " +
+            "FROM quotes WHERE project_id = ANY(?)";
+
+    private static final String ARCHIVE_QUOTE_LINES =
+            "INSERT INTO quote_lines_archive (quote_id, issue_date, line_no, kind, component_id, description, " +
+            "quantity, unit_price, coefficient, extra_cost, rate, amount) " +
+            "SELECT l.quote_id, l.issue_date, l.line_no, l.kind, l.component_id, l.description, " +
+            "l.quantity, l.unit_price, l.coefficient, l.extra_cost, l.rate, l.amount " +
+            "FROM quote_lines l JOIN quotes q ON q.id = l.quote_id AND q.issue_date = l.issue_date " +
+            "WHERE q.project_id = ANY(?)";
+
+    private static final String DELETE_ARCHIVED =
+            ProjectRepositoryImpl.deleteProjectsSql("SELECT id FROM projects WHERE id = ANY(?)") +
+            "SELECT id FROM removed";
+
+    // Keyset paging on id, so each chunk resumes where the previous one stopped
+    private static final String PURGE_ORPHANED_COMPONENTS =
+            "WITH doomed AS (SELECT c.id FROM components c WHERE c.id > ? AND NOT c.in_catalog " +
+            "AND NOT EXISTS (SELECT 1 FROM project_components pc WHERE pc.component_id = c.id) " +
+            "ORDER BY c.id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "DELETE FROM components WHERE id IN (SELECT id FROM doomed) RETURNING id";
+
+    private ArchiveRepositoryImpl(DatabaseConnection database) {
+        this.database = database;
+        this.jdbcTemplate = new JdbcTemplate(database);
+        this.changes = ChangeNotifier.getInstance(database);
+    }
+
+    public static synchronized ArchiveRepositoryImpl getInstance(DatabaseConnection database) {
+        if (instance == null) {
+            instance = new ArchiveRepositoryImpl(database);
+        }
+        return instance;
+    }
+
+    @Override
+    public List<Long> archiveClosedProjects(int closedForDays, int limit) {
+        if (!database.isInTransaction()) {
+            // The row locks taken when selecting the projects must last until they are deleted
+            throw new IllegalStateException("archiveClosedProjects must run inside a transaction");
+        }
+        List<Long> archived;
+        try {
+            archived = jdbcTemplate.execute(connection -> {
+                List<Long> ids = jdbcTemplate.query(connection, SELECT_CLOSED_PROJECTS, pstmt -> {
+                    pstmt.setInt(1, closedForDays);
+                    pstmt.setInt(2, limit);
+                }, ID_MAPPER);
+                if (ids.isEmpty()) {
+                    return ids;
+                }
+                Array array = ProjectGraphLoader.toArray(connection, ids);
+                StatementBinder byIds = pstmt -> pstmt.setArray(1, array);
+                jdbcTemplate.update(connection, ARCHIVE_PROJECTS, byIds);
+                jdbcTemplate.update(connection, ARCHIVE_COMPONENTS, byIds);
+                jdbcTemplate.update(connection, ARCHIVE_PROJECT_COMPONENTS, byIds);
+                jdbcTemplate.update(connection, ARCHIVE_QUOTES, byIds);
+                jdbcTemplate.update(connection, ARCHIVE_QUOTE_LINES, byIds);
+                return jdbcTemplate.query(connection, DELETE_ARCHIVED, byIds, ID_MAPPER);
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error archiving closed projects", e);
+        }
+        for (Long id : archived) {
+            changes.publish("projects", id);
+        }
+        return archived;
+    }
+
+    @Override
+    public List<Long> purgeOrphanedComponents(long afterId, int limit) {
+        List<Long> purged;
+        try {
+            purged = jdbcTemplate.query(PURGE_ORPHANED_COMPONENTS, pstmt -> {
+                pstmt.setLong(1, afterId);
+                pstmt.setInt(2, limit);
+            }, ID_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error purging orphaned components", e);
+        }
+        for (Long id : purged) {
+            changes.publish("components", id);
+        }
+        return purged;
+    }
+}
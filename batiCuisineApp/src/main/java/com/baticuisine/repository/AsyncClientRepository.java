@@ -0,0 +1,29 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
+
+/**
+ * Non-blocking view of {@link ClientRepository}. Each call runs on the {@link AsyncExecutor}
+ * and never joins a transaction bound to the caller's thread.
+ */
+public interface AsyncClientRepository {
+    CompletableFuture<Client> save(Client client);
+    CompletableFuture<Optional<Client>> findById(Long id);
+    CompletableFuture<List<Client>> findAll();
+    CompletableFuture<List<Client>> findByName(String name);
+    CompletableFuture<Void> delete(Long id);
+    CompletableFuture<Void> update(Client client);
+    CompletableFuture<List<Client>> findByNameAndPhone(String name, String phone);
+    CompletableFuture<List<Client>> findByExactNameAndPhone(String name, String phone);
+    CompletableFuture<Boolean> existsByNameAndPhone(String name, String phone);
+    CompletableFuture<List<Client>> findByProfessional(boolean professional);
+    CompletableFuture<Long> count();
+    CompletableFuture<Long> countByProfessional(boolean professional);
+    CompletableFuture<List<ClientMatch>> search(String query, int limit);
+    CompletableFuture<List<ClientMatch>> searchByNameAndPhone(String name, String phone, int limit);
+}
@@ -0,0 +1,94 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
+
+public class AsyncClientRepositoryImpl implements AsyncClientRepository {
+    private final ClientRepository clientRepository;
+    private final AsyncExecutor executor;
+
+    public AsyncClientRepositoryImpl(ClientRepository clientRepository, AsyncExecutor executor) {
+        this.clientRepository = clientRepository;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Client> save(Client client) {
+        return executor.submit(() -> clientRepository.save(client));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Client>> findById(Long id) {
+        return executor.submit(() -> clientRepository.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Client>> findAll() {
+        return executor.submit(() -> clientRepository.findAll());
+    }
+
+    @Override
+    public CompletableFuture<List<Client>> findByName(String name) {
+        return executor.submit(() -> clientRepository.findByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return executor.submit(() -> {
+            clientRepository.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Client client) {
+        return executor.submit(() -> {
+            clientRepository.update(client);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Client>> findByNameAndPhone(String name, String phone) {
+        return executor.submit(() -> clientRepository.findByNameAndPhone(name, phone));
+    }
+
+    @Override
+    public CompletableFuture<List<Client>> findByExactNameAndPhone(String name, String phone) {
+        return executor.submit(() -> clientRepository.findByExactNameAndPhone(name, phone));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsByNameAndPhone(String name, String phone) {
+        return executor.submit(() -> clientRepository.existsByNameAndPhone(name, phone));
+    }
+
+    @Override
+    public CompletableFuture<List<Client>> findByProfessional(boolean professional) {
+        return executor.submit(() -> clientRepository.findByProfessional(professional));
+    }
+
+    @Override
+    public CompletableFuture<Long> count() {
+        return executor.submit(() -> clientRepository.count());
+    }
+
+    @Override
+    public CompletableFuture<Long> countByProfessional(boolean professional) {
+        return executor.submit(() -> clientRepository.countByProfessional(professional));
+    }
+
+    @Override
+    public CompletableFuture<List<ClientMatch>> search(String query, int limit) {
+        return executor.submit(() -> clientRepository.search(query, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<ClientMatch>> searchByNameAndPhone(String name, String phone, int limit) {
+        return executor.submit(() -> clientRepository.searchByNameAndPhone(name, phone, limit));
+    }
+}
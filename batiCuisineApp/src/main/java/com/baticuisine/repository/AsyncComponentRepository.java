@@ -0,0 +1,25 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Component;
+import com.baticuisine.model.Material;
+
+/**
+ * Non-blocking view of {@link ComponentRepository}. Each call runs on the {@link AsyncExecutor}
+ * and never joins a transaction bound to the caller's thread.
+ */
+public interface AsyncComponentRepository {
+    CompletableFuture<Component> save(Component component);
+    CompletableFuture<Optional<Component>> findById(Long id);
+    CompletableFuture<List<Component>> findAll();
+    CompletableFuture<List<Component>> findByType(String type);
+    CompletableFuture<List<Component>> findByType(String type, int limit);
+    CompletableFuture<Long> countByType(String type);
+    CompletableFuture<List<Material>> findAllMaterials();
+    CompletableFuture<Optional<Material>> findMaterialByName(String name);
+    CompletableFuture<Void> delete(Long id);
+    CompletableFuture<Void> update(Component component);
+}
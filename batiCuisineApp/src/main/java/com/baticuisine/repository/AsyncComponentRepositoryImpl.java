@@ -0,0 +1,74 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Component;
+import com.baticuisine.model.Material;
+
+public class AsyncComponentRepositoryImpl implements AsyncComponentRepository {
+    private final ComponentRepository componentRepository;
+    private final AsyncExecutor executor;
+
+    public AsyncComponentRepositoryImpl(ComponentRepository componentRepository, AsyncExecutor executor) {
+        this.componentRepository = componentRepository;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Component> save(Component component) {
+        return executor.submit(() -> componentRepository.save(component));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Component>> findById(Long id) {
+        return executor.submit(() -> componentRepository.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Component>> findAll() {
+        return executor.submit(() -> componentRepository.findAll());
+    }
+
+    @Override
+    public CompletableFuture<List<Component>> findByType(String type) {
+        return executor.submit(() -> componentRepository.findByType(type));
+    }
+
+    @Override
+    public CompletableFuture<List<Component>> findByType(String type, int limit) {
+        return executor.submit(() -> componentRepository.findByType(type, limit));
+    }
+
+    @Override
+    public CompletableFuture<Long> countByType(String type) {
+        return executor.submit(() -> componentRepository.countByType(type));
+    }
+
+    @Override
+    public CompletableFuture<List<Material>> findAllMaterials() {
+        return executor.submit(() -> componentRepository.findAllMaterials());
+    }
+
+    @Override
+    public CompletableFuture<Optional<Material>> findMaterialByName(String name) {
+        return executor.submit(() -> componentRepository.findMaterialByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return executor.submit(() -> {
+            componentRepository.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Component component) {
+        return executor.submit(() -> {
+            componentRepository.update(component);
+            return null;
+        });
+    }
+}
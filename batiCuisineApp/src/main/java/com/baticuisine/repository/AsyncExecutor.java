@@ -0,0 +1,188 @@
+package com.baticuisine.repository;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.utils.PropertyLoader;
+
+/**
+ * Runs blocking repository calls off the caller's thread for the async repositories.
+ * <p>
+ * On a JDK with virtual threads each call gets its own virtual thread, with at most
+ * {@code db.async.threads} calls running at once. Otherwise calls run on a fixed pool of
+ * {@code db.async.threads} platform threads with a queue of {@code db.async.queueCapacity};
+ * calls beyond that fail fast with {@link RejectedExecutionException}.
+ * <p>
+ * Every returned future fails with {@link TimeoutException} after {@code db.async.timeoutMs}.
+ * When a future is cancelled or times out, the call is interrupted if it is still waiting to
+ * run or waiting for a pooled connection. Async calls never join the caller's transaction, but
+ * share the caller's {@link DatabaseConnection.WriteMarker}: reads after an async write stay on
+ * the primary, on either side, for the read-your-writes window.
+ */
+public class AsyncExecutor {
+    private static final Logger LOGGER = Logger.getLogger(AsyncExecutor.class.getName());
+    private static AsyncExecutor instance;
+
+    private final ExecutorService executor;
+    private final Semaphore concurrency;
+    private final ScheduledExecutorService timeouts;
+    private final long defaultTimeoutMs;
+    private final boolean virtualThreads;
+
+    private AsyncExecutor(int threads, int queueCapacity, long defaultTimeoutMs, boolean preferVirtualThreads) {
+        ExecutorService virtual = preferVirtualThreads ? newVirtualThreadExecutor() : null;
+        this.virtualThreads = virtual != null;
+        if (virtualThreads) {
+            this.executor = virtual;
+            this.concurrency = new Semaphore(threads);
+        } else {
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), daemonThreads("repository-async-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.concurrency = null;
+        }
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(daemonThreads("repository-async-timeout-"));
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        LOGGER.info("Async repository executor started (" + (virtualThreads ? "virtual threads" : "platform threads")
+                + ", concurrency " + threads + ", timeout " + defaultTimeoutMs + " ms)");
+    }
+
+    public static synchronized AsyncExecutor getInstance() {
+        if (instance == null) {
+            int threads = PropertyLoader.getIntProperty("db.async.threads",
+                    PropertyLoader.getIntProperty("db.pool.maxSize", 10));
+            instance = new AsyncExecutor(
+                    threads,
+                    PropertyLoader.getIntProperty("db.async.queueCapacity", 256),
+                    PropertyLoader.getLongProperty("db.async.timeoutMs", 30_000L),
+                    Boolean.parseBoolean(PropertyLoader.getProperty("db.async.virtualThreads", "true")));
+        }
+        return instance;
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, defaultTimeoutMs);
+    }
+
+    /**
+     * Runs {@code task} asynchronously. A checked exception thrown by the task completes the
+     * future exceptionally with that exception; a non-positive timeout disables the timeout.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, long timeoutMs) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        DatabaseConnection.WriteMarker marker = database.currentWriteMarker();
+        Future<?> running;
+        try {
+            running = executor.submit(() -> {
+                DatabaseConnection.WriteMarker previous = database.bindWriteMarker(marker);
+                try {
+                    run(task, result);
+                } finally {
+                    database.bindWriteMarker(previous);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        ScheduledFuture<?> timeout = timeoutMs > 0
+                ? timeouts.schedule(() -> result.completeExceptionally(
+                        new TimeoutException("Repository call timed out after " + timeoutMs + " ms")),
+                        timeoutMs, TimeUnit.MILLISECONDS)
+                : null;
+        result.whenComplete((value, error) -> {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause instanceof CancellationException || cause instanceof TimeoutException) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void shutdown() {
+        timeouts.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;
+        }
+        boolean acquired = false;
+        try {
+            if (concurrency != null) {
+                concurrency.acquire();
+                acquired = true;
+            }
+            if (!result.isDone()) {
+                result.complete(task.call());
+            }
+        } catch (InterruptedException e) {
+            result.completeExceptionally(new CancellationException("Repository call interrupted"));
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            result.completeExceptionally(t);
+        } finally {
+            if (acquired) {
+                concurrency.release();
+            }
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Virtual threads unavailable, using platform threads", e);
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Labor;
+import com.baticuisine.model.Material;
+import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectSummary;
+import com.baticuisine.model.enums.ProjectStatus;
+
+/**
+ * Non-blocking view of {@link ProjectRepository}. Each call runs on the {@link AsyncExecutor}
+ * and never joins a transaction bound to the caller's thread.
+ */
+public interface AsyncProjectRepository {
+    CompletableFuture<Project> save(Project project);
+    CompletableFuture<Optional<Project>> findById(Long id);
+    CompletableFuture<Optional<Project>> findById(Long id, FetchPlan plan);
+    CompletableFuture<List<Project>> findAll();
+    CompletableFuture<List<ProjectSummary>> findAllSummaries();
+    CompletableFuture<Optional<ProjectSummary>> findSummaryByName(String name);
+    CompletableFuture<Optional<Project>> findByName(String name);
+    CompletableFuture<Void> delete(Long id);
+    CompletableFuture<List<Project>> findByStatus(ProjectStatus status);
+    CompletableFuture<Project> update(Project project);
+    CompletableFuture<Void> saveComponents(Long projectId, List<Material> materials, List<Labor> laborItems);
+}
@@ -0,0 +1,82 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Labor;
+import com.baticuisine.model.Material;
+import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectSummary;
+import com.baticuisine.model.enums.ProjectStatus;
+
+public class AsyncProjectRepositoryImpl implements AsyncProjectRepository {
+    private final ProjectRepository projectRepository;
+    private final AsyncExecutor executor;
+
+    public AsyncProjectRepositoryImpl(ProjectRepository projectRepository, AsyncExecutor executor) {
+        this.projectRepository = projectRepository;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Project> save(Project project) {
+        return executor.submit(() -> projectRepository.save(project));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Project>> findById(Long id) {
+        return executor.submit(() -> projectRepository.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Project>> findById(Long id, FetchPlan plan) {
+        return executor.submit(() -> projectRepository.findById(id, plan));
+    }
+
+    @Override
+    public CompletableFuture<List<Project>> findAll() {
+        return executor.submit(() -> projectRepository.findAll());
+    }
+
+    @Override
+    public CompletableFuture<List<ProjectSummary>> findAllSummaries() {
+        return executor.submit(() -> projectRepository.findAllSummaries());
+    }
+
+    @Override
+    public CompletableFuture<Optional<ProjectSummary>> findSummaryByName(String name) {
+        return executor.submit(() -> projectRepository.findSummaryByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Project>> findByName(String name) {
+        return executor.submit(() -> projectRepository.findByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id) {
+        return executor.submit(() -> {
+            projectRepository.delete(id);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Project>> findByStatus(ProjectStatus status) {
+        return executor.submit(() -> projectRepository.findByStatus(status));
+    }
+
+    @Override
+    public CompletableFuture<Project> update(Project project) {
+        return executor.submit(() -> projectRepository.update(project));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveComponents(Long projectId, List<Material> materials, List<Labor> laborItems) {
+        return executor.submit(() -> {
+            projectRepository.saveComponents(projectId, materials, laborItems);
+            return null;
+        });
+    }
+}
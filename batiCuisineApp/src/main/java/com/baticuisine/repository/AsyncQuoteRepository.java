@@ -0,0 +1,24 @@
+package com.baticuisine.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteSummary;
+
+/**
+ * Non-blocking view of {@link QuoteRepository}. Each call runs on the {@link AsyncExecutor}
+ * and never joins a transaction bound to the caller's thread.
+ */
+public interface AsyncQuoteRepository {
+    CompletableFuture<Quote> save(Quote quote);
+    CompletableFuture<Optional<Quote>> findById(Long id);
+    CompletableFuture<Optional<Quote>> findById(Long id, LocalDate issueDate);
+    CompletableFuture<List<Quote>> findAll();
+    CompletableFuture<List<Quote>> findByProjectId(Long projectId);
+    CompletableFuture<List<QuoteSummary>> findSummariesByProjectId(Long projectId);
+    CompletableFuture<Void> delete(Long id, LocalDate issueDate);
+    CompletableFuture<Void> update(Quote quote);
+}
@@ -0,0 +1,65 @@
+package com.baticuisine.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteSummary;
+
+public class AsyncQuoteRepositoryImpl implements AsyncQuoteRepository {
+    private final QuoteRepository quoteRepository;
+    private final AsyncExecutor executor;
+
+    public AsyncQuoteRepositoryImpl(QuoteRepository quoteRepository, AsyncExecutor executor) {
+        this.quoteRepository = quoteRepository;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Quote> save(Quote quote) {
+        return executor.submit(() -> quoteRepository.save(quote));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Quote>> findById(Long id) {
+        return executor.submit(() -> quoteRepository.findById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Quote>> findById(Long id, LocalDate issueDate) {
+        return executor.submit(() -> quoteRepository.findById(id, issueDate));
+    }
+
+    @Override
+    public CompletableFuture<List<Quote>> findAll() {
+        return executor.submit(() -> quoteRepository.findAll());
+    }
+
+    @Override
+    public CompletableFuture<List<Quote>> findByProjectId(Long projectId) {
+        return executor.submit(() -> quoteRepository.findByProjectId(projectId));
+    }
+
+    @Override
+    public CompletableFuture<List<QuoteSummary>> findSummariesByProjectId(Long projectId) {
+        return executor.submit(() -> quoteRepository.findSummariesByProjectId(projectId));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Long id, LocalDate issueDate) {
+        return executor.submit(() -> {
+            quoteRepository.delete(id, issueDate);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> update(Quote quote) {
+        return executor.submit(() -> {
+            quoteRepository.update(quote);
+            return null;
+        });
+    }
+}
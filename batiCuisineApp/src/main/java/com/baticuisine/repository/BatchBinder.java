@@ -0,0 +1,9 @@
+package com.baticuisine.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface BatchBinder<T> {
+    void bind(PreparedStatement pstmt, T item) throws SQLException;
+}
@@ -0,0 +1,135 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.baticuisine.cache.CacheManager;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
+
+/**
+ * Serves {@link #findById} from the shared client cache. Lookups inside a unit of work go to the
+ * database so they see the transaction's own writes; every write evicts the client, and the
+ * cached projects, which may hold the old client. Each hit returns a copy of the cached client,
+ * so a caller's unsaved edits never reach other threads.
+ */
+public class CachingClientRepository implements ClientRepository {
+    private final ClientRepository delegate;
+    private final DatabaseConnection database;
+    private final CacheManager caches;
+
+    public CachingClientRepository(ClientRepository delegate, DatabaseConnection database, CacheManager caches) {
+        this.delegate = delegate;
+        this.database = database;
+        this.caches = caches;
+    }
+
+    @Override
+    public Client save(Client client) {
+        Client saved = delegate.save(client);
+        // New clients are not referenced by any cached project yet
+        caches.evict(database, () -> caches.clients().invalidate(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    public Optional<Client> findById(Long id) {
+        if (id == null || database.isInTransaction()) {
+            return delegate.findById(id);
+        }
+        return Optional.ofNullable(copyOf(caches.clients().get(id, key -> delegate.findById(key).orElse(null))));
+    }
+
+    @Override
+    public List<Client> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Client> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public void delete(Long id) {
+        try {
+            delegate.delete(id);
+        } finally {
+            evict(id, true);
+        }
+    }
+
+    @Override
+    public void update(Client client) {
+        try {
+            delegate.update(client);
+        } finally {
+            evict(client.getId(), false);
+        }
+    }
+
+    @Override
+    public List<Client> findByNameAndPhone(String name, String phone) {
+        return delegate.findByNameAndPhone(name, phone);
+    }
+
+    @Override
+    public List<Client> findByExactNameAndPhone(String name, String phone) {
+        return delegate.findByExactNameAndPhone(name, phone);
+    }
+
+    @Override
+    public boolean existsByNameAndPhone(String name, String phone) {
+        return delegate.existsByNameAndPhone(name, phone);
+    }
+
+    @Override
+    public List<Client> findByProfessional(boolean professional) {
+        return delegate.findByProfessional(professional);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public long countByProfessional(boolean professional) {
+        return delegate.countByProfessional(professional);
+    }
+
+    @Override
+    public List<ClientMatch> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public List<ClientMatch> searchByNameAndPhone(String name, String phone, int limit) {
+        return delegate.searchByNameAndPhone(name, phone, limit);
+    }
+
+    static Client copyOf(Client source) {
+        if (source == null) {
+            return null;
+        }
+        Client copy = new Client(source.getName(), source.getEmail(), source.getAddress(), source.getPhoneNumber(),
+                source.isProfessional(), source.getDiscountRate());
+        copy.setId(source.getId());
+        copy.setVersion(source.getVersion());
+        return copy;
+    }
+
+    private void evict(Long id, boolean deleted) {
+        caches.evict(database, () -> {
+            caches.clients().invalidate(id);
+            caches.projects().invalidateAll();
+            caches.renderedQuotes().invalidateAll();
+            if (deleted) {
+                // Deleting a client deletes its projects and their own components
+                caches.components().invalidateAll();
+                caches.componentLists().invalidateAll();
+            }
+        });
+    }
+}
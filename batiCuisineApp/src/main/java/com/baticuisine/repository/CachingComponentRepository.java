@@ -0,0 +1,114 @@
+package com.baticuisine.repository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import com.baticuisine.cache.CacheManager;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.model.Component;
+import com.baticuisine.model.Material;
+
+/**
+ * Serves {@link #findById}, {@link #findAll} and {@link #findByType(String)} from the shared
+ * caches; the lists are cached unmodifiable. Lookups inside a unit of work go to the database.
+ * Every write evicts the component, all cached lists and the cached projects.
+ */
+public class CachingComponentRepository implements ComponentRepository {
+    private static final String ALL = "*";
+
+    private final ComponentRepository delegate;
+    private final DatabaseConnection database;
+    private final CacheManager caches;
+
+    public CachingComponentRepository(ComponentRepository delegate, DatabaseConnection database,
+            CacheManager caches) {
+        this.delegate = delegate;
+        this.database = database;
+        this.caches = caches;
+    }
+
+    @Override
+    public Component save(Component component) {
+        try {
+            return delegate.save(component);
+        } finally {
+            evict(component.getId());
+        }
+    }
+
+    @Override
+    public Optional<Component> findById(Long id) {
+        if (id == null || database.isInTransaction()) {
+            return delegate.findById(id);
+        }
+        return Optional.ofNullable(caches.components().get(id, key -> delegate.findById(key).orElse(null)));
+    }
+
+    @Override
+    public List<Component> findAll() {
+        if (database.isInTransaction()) {
+            return delegate.findAll();
+        }
+        return caches.componentLists().get(ALL, key -> Collections.unmodifiableList(delegate.findAll()));
+    }
+
+    @Override
+    public List<Component> findByType(String type) {
+        if (database.isInTransaction()) {
+            return delegate.findByType(type);
+        }
+        return caches.componentLists().get(type.toUpperCase(Locale.ROOT),
+                key -> Collections.unmodifiableList(delegate.findByType(type)));
+    }
+
+    @Override
+    public List<Component> findByType(String type, int limit) {
+        return delegate.findByType(type, limit);
+    }
+
+    @Override
+    public long countByType(String type) {
+        return delegate.countByType(type);
+    }
+
+    @Override
+    public List<Material> findAllMaterials() {
+        return delegate.findAllMaterials();
+    }
+
+    @Override
+    public Optional<Material> findMaterialByName(String name) {
+        return delegate.findMaterialByName(name);
+    }
+
+    @Override
+    public void delete(Long id) {
+        try {
+            delegate.delete(id);
+        } finally {
+            evict(id);
+        }
+    }
+
+    @Override
+    public void update(Component component) {
+        try {
+            delegate.update(component);
+        } finally {
+            evict(component.getId());
+        }
+    }
+
+    private void evict(Long id) {
+        caches.evict(database, () -> {
+            if (id != null) {
+                caches.components().invalidate(id);
+            }
+            caches.componentLists().invalidateAll();
+            caches.projects().invalidateAll();
+            caches.renderedQuotes().invalidateAll();
+        });
+    }
+}
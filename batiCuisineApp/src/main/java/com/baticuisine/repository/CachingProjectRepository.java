@@ -0,0 +1,234 @@
+package com.baticuisine.repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.baticuisine.cache.CacheManager;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.model.Labor;
+import com.baticuisine.model.Material;
+import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectLoader;
+import com.baticuisine.model.ProjectSummary;
+import com.baticuisine.model.Quote;
+import com.baticuisine.model.enums.ProjectStatus;
+
+/**
+ * Serves {@link #findById} from the shared project cache. The cache holds a private snapshot of
+ * the project with the client, materials and labor it was first loaded with, never its quotes.
+ * Every hit returns a fresh copy the caller may modify; associations the snapshot lacks load
+ * into that copy on first access. Lookups inside a unit of work go to the database. Every write
+ * evicts the project, and writes that add or remove components also evict the cached component lists.
+ */
+public class CachingProjectRepository implements ProjectRepository {
+    private final ProjectRepository delegate;
+    private final DatabaseConnection database;
+    private final CacheManager caches;
+    private final ProjectLoader copyLoader = new CopyLoader();
+
+    public CachingProjectRepository(ProjectRepository delegate, DatabaseConnection database, CacheManager caches) {
+        this.delegate = delegate;
+        this.database = database;
+        this.caches = caches;
+    }
+
+    @Override
+    public Project save(Project project) {
+        try {
+            return delegate.save(project);
+        } finally {
+            evict(project.getId(), true);
+        }
+    }
+
+    @Override
+    public Optional<Project> findById(Long id) {
+        return findById(id, FetchPlan.PRICING);
+    }
+
+    @Override
+    public Optional<Project> findById(Long id, FetchPlan plan) {
+        if (id == null || database.isInTransaction()) {
+            return delegate.findById(id, plan);
+        }
+        Project snapshot = caches.projects().get(id, key -> delegate.findById(key, plan).map(this::copyOf).orElse(null));
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        Project project = copyOf(snapshot);
+        ProjectGraphLoader.ensureLoaded(project, plan);
+        return Optional.of(project);
+    }
+
+    /**
+     * Copies the project and its loaded client, materials and labor, leaving the quotes to be
+     * loaded. Only reads loaded associations, so copying never triggers a load.
+     */
+    private Project copyOf(Project source) {
+        Project copy = new Project(source.getProjectName(), source.getSurface(), source.getStartDate(),
+                source.getProjectStatus(), null);
+        copy.setId(source.getId());
+        copy.setProfitMargin(source.getProfitMargin());
+        copy.setTotalCost(source.getTotalCost());
+        copy.setVersion(source.getVersion());
+        copy.setLoader(copyLoader);
+        if (source.isClientLoaded()) {
+            copy.setClient(CachingClientRepository.copyOf(source.getClient()));
+        }
+        if (source.isMaterialsLoaded()) {
+            List<Material> materials = new ArrayList<>();
+            for (Material material : source.getMaterials()) {
+                Material materialCopy = new Material(material.getName(), material.getVatRate(), material.getUnitCost(),
+                        material.getQuantity(), material.getTransportCost(), material.getQualityCoefficient());
+                materialCopy.setId(material.getId());
+                materialCopy.setVersion(material.getVersion());
+                materials.add(materialCopy);
+            }
+            copy.setMaterials(materials);
+        }
+        if (source.isLaborItemsLoaded()) {
+            List<Labor> laborItems = new ArrayList<>();
+            for (Labor labor : source.getLaborItems()) {
+                Labor laborCopy = new Labor(labor.getName(), labor.getVatRate(), labor.getHourlyRate(),
+                        labor.getHoursWorked(), labor.getWorkerProductivity());
+                laborCopy.setId(labor.getId());
+                laborCopy.setVersion(labor.getVersion());
+                laborItems.add(laborCopy);
+            }
+            copy.setLaborItems(laborItems);
+        }
+        return copy;
+    }
+
+    @Override
+    public List<Project> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Project> findAll(FetchPlan plan) {
+        return delegate.findAll(plan);
+    }
+
+    @Override
+    public List<ProjectSummary> findAllSummaries() {
+        return delegate.findAllSummaries();
+    }
+
+    @Override
+    public Optional<ProjectSummary> findSummaryByName(String name) {
+        return delegate.findSummaryByName(name);
+    }
+
+    @Override
+    public Optional<Project> findByName(String name) {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public Optional<Project> findByName(String name, FetchPlan plan) {
+        return delegate.findByName(name, plan);
+    }
+
+    @Override
+    public void delete(Long id) {
+        try {
+            delegate.delete(id);
+        } finally {
+            evict(id, true);
+        }
+    }
+
+    @Override
+    public List<Project> findByStatus(ProjectStatus status) {
+        return delegate.findByStatus(status);
+    }
+
+    @Override
+    public Project update(Project project) {
+        try {
+            return delegate.update(project);
+        } finally {
+            evict(project.getId(), true);
+        }
+    }
+
+    @Override
+    public void saveMaterial(Material material, Long projectId) throws SQLException {
+        try {
+            delegate.saveMaterial(material, projectId);
+        } finally {
+            evict(projectId, true);
+        }
+    }
+
+    @Override
+    public void saveLabor(Labor labor, Long projectId) throws SQLException {
+        try {
+            delegate.saveLabor(labor, projectId);
+        } finally {
+            evict(projectId, true);
+        }
+    }
+
+    @Override
+    public void saveComponents(Long projectId, List<Material> materials, List<Labor> laborItems)
+            throws SQLException {
+        try {
+            delegate.saveComponents(projectId, materials, laborItems);
+        } finally {
+            evict(projectId, true);
+        }
+    }
+
+    /**
+     * Loads an association a copy lacks straight from the delegate, for that copy alone.
+     */
+    private final class CopyLoader implements ProjectLoader {
+        @Override
+        public void loadClient(Project project) {
+            project.setClient(load(project, FetchPlan.CLIENT).map(Project::getClient).orElse(null));
+        }
+
+        @Override
+        public void loadMaterials(Project project) {
+            project.setMaterials(load(project, FetchPlan.of(FetchPlan.Association.MATERIALS))
+                    .map(Project::getMaterials).orElseGet(ArrayList::new));
+        }
+
+        @Override
+        public void loadLaborItems(Project project) {
+            project.setLaborItems(load(project, FetchPlan.of(FetchPlan.Association.LABOR))
+                    .map(Project::getLaborItems).orElseGet(ArrayList::new));
+        }
+
+        @Override
+        public void loadQuotes(Project project) {
+            List<Quote> quotes = load(project, FetchPlan.of(FetchPlan.Association.QUOTES))
+                    .map(Project::getQuotes).orElseGet(ArrayList::new);
+            for (Quote quote : quotes) {
+                quote.setProject(project);
+            }
+            project.setQuotes(quotes);
+        }
+
+        private Optional<Project> load(Project project, FetchPlan plan) {
+            return delegate.findById(project.getId(), plan);
+        }
+    }
+
+    private void evict(Long id, boolean components) {
+        caches.evict(database, () -> {
+            if (id != null) {
+                caches.projects().invalidate(id);
+                caches.renderedQuotes().invalidate(id);
+            }
+            if (components) {
+                caches.components().invalidateAll();
+                caches.componentLists().invalidateAll();
+            }
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.baticuisine.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import com.baticuisine.cache.CacheManager;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteLine;
+import com.baticuisine.model.QuoteSummary;
+
+/**
+ * Quotes are not cached themselves, but a cached project may hold its quote list, so every
+ * quote write evicts the quote's project.
+ */
+public class CachingQuoteRepository implements QuoteRepository {
+    private final QuoteRepository delegate;
+    private final DatabaseConnection database;
+    private final CacheManager caches;
+
+    public CachingQuoteRepository(QuoteRepository delegate, DatabaseConnection database, CacheManager caches) {
+        this.delegate = delegate;
+        this.database = database;
+        this.caches = caches;
+    }
+
+    @Override
+    public Quote save(Quote quote) {
+        try {
+            return delegate.save(quote);
+        } finally {
+            evictProjectOf(quote);
+        }
+    }
+
+    @Override
+    public Optional<Quote> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public Optional<Quote> findById(Long id, LocalDate issueDate) {
+        return delegate.findById(id, issueDate);
+    }
+
+    @Override
+    public List<Quote> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Quote> findByProjectId(Long projectId) {
+        return delegate.findByProjectId(projectId);
+    }
+
+    @Override
+    public List<QuoteSummary> findSummariesByProjectId(Long projectId) {
+        return delegate.findSummariesByProjectId(projectId);
+    }
+
+    @Override
+    public List<QuoteLine> findLines(Long quoteId) {
+        return delegate.findLines(quoteId);
+    }
+
+    @Override
+    public List<QuoteSummary> findSummariesWithItem(String description) {
+        return delegate.findSummariesWithItem(description);
+    }
+
+    @Override
+    public List<QuoteSummary> findOpenSummaries(LocalDate today) {
+        return delegate.findOpenSummaries(today);
+    }
+
+    @Override
+    public void delete(Long id, LocalDate issueDate) {
+        try {
+            delegate.delete(id, issueDate);
+        } finally {
+            // The quote's project is unknown here
+            caches.evict(database, () -> caches.projects().invalidateAll());
+        }
+    }
+
+    @Override
+    public void update(Quote quote) {
+        try {
+            delegate.update(quote);
+        } finally {
+            evictProjectOf(quote);
+        }
+    }
+
+    private void evictProjectOf(Quote quote) {
+        Long projectId = quote.getProject() != null ? quote.getProject().getId() : null;
+        caches.evict(database, () -> {
+            if (projectId != null) {
+                caches.projects().invalidate(projectId);
+            } else {
+                caches.projects().invalidateAll();
+            }
+        });
+    }
+}
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
 
 public interface ClientRepository {
     Client save(Client client);
@@ -13,4 +14,22 @@ public interface ClientRepository {
     void delete(Long id);
     void update(Client client);
     List<Client> findByNameAndPhone(String name, String phone);
+    List<Client> findByExactNameAndPhone(String name, String phone);
+    boolean existsByNameAndPhone(String name, String phone);
+    List<Client> findByProfessional(boolean professional);
+    long count();
+    long countByProfessional(boolean professional);
+
+    /**
+     * Ranked search on a single free-text query. A query containing {@code @} is matched exactly
+     * against the normalized email, one made of phone characters against the normalized phone
+     * number, and anything else against the name by trigram similarity (substrings and typos).
+     */
+    List<ClientMatch> search(String query, int limit);
+
+    /**
+     * Clients whose normalized phone number equals {@code phone}, ranked by name similarity.
+     * Falls back to a trigram name search when no client has that phone number.
+     */
+    List<ClientMatch> searchByNameAndPhone(String name, String phone, int limit);
 }
@@ -1,56 +1,97 @@
 package com.baticuisine.repository;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.baticuisine.database.ChangeNotifier;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.IdentityMap;
 import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
+import com.baticuisine.model.Project;
 
 public class ClientRepositoryImpl implements ClientRepository {
     private static final Logger LOGGER = Logger.getLogger(ClientRepositoryImpl.class.getName());
     private static ClientRepositoryImpl instance;
-    private final Connection connection;
+    private final DatabaseConnection database;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeNotifier changes;
 
-    private ClientRepositoryImpl(Connection connection) {
-        this.connection = connection;
+    static final RowMapperFactory<Client> CLIENT_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int email = columns.indexOf("email");
+        int address = columns.indexOf("address");
+        int phoneNumber = columns.indexOf("phone_number");
+        int isProfessional = columns.indexOf("is_professional");
+        int discountRate = columns.indexOf("discount_rate");
+        int version = columns.indexOf("version");
+        return rs -> {
+            Client client = new Client(
+                rs.getString(name),
+                rs.getString(email),
+                rs.getString(address),
+                rs.getString(phoneNumber),
+                rs.getBoolean(isProfessional),
+                rs.getDouble(discountRate)
+            );
+            client.setId(rs.getLong(id));
+            client.setVersion(rs.getLong(version));
+            return client;
+        };
+    };
+
+    private static final Pattern PHONE_QUERY = Pattern.compile("[+\\d\\s().-]*\\d[+\\d\\s().-]*");
+
+    // The WHERE clauses below must use the exact expressions of the indexes in create_tables.sql
+    private static final String SEARCH_BY_PHONE =
+            "SELECT c.*, similarity(lower(c.name), ?) AS score FROM clients c " +
+            "WHERE c.phone_normalized = ? ORDER BY score DESC, c.id LIMIT ?";
+    private static final String SEARCH_BY_EMAIL =
+            "SELECT c.*, 1.0 AS score FROM clients c WHERE c.email_normalized = ? ORDER BY c.id LIMIT ?";
+    private static final String SEARCH_BY_NAME =
+            "SELECT c.*, similarity(lower(c.name), ?) AS score FROM clients c " +
+            "WHERE lower(c.name) % ? OR lower(c.name) LIKE ? ESCAPE '\\' " +
+            "ORDER BY score DESC, c.id LIMIT ?";
+
+    static final RowMapperFactory<ClientMatch> CLIENT_MATCH_MAPPER = columns -> {
+        RowMapper<Client> client = CLIENT_MAPPER.compile(columns);
+        int score = columns.indexOf("score");
+        return rs -> new ClientMatch(client.mapRow(rs), rs.getDouble(score));
+    };
+
+    private ClientRepositoryImpl(DatabaseConnection database) {
+        this.database = database;
+        this.jdbcTemplate = new JdbcTemplate(database);
+        this.changes = ChangeNotifier.getInstance(database);
     }
 
-    public static synchronized ClientRepositoryImpl getInstance(Connection connection) {
+    public static synchronized ClientRepositoryImpl getInstance(DatabaseConnection database) {
         if (instance == null) {
-            instance = new ClientRepositoryImpl(connection);
+            instance = new ClientRepositoryImpl(database);
         }
         return instance;
     }
     @Override
     public Client save(Client client) {
         String sql = "INSERT INTO clients (name, email, address, phone_number, is_professional, discount_rate) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, client.getName());
-            pstmt.setString(2, client.getEmail());
-            pstmt.setString(3, client.getAddress());
-            pstmt.setString(4, client.getPhoneNumber());
-            pstmt.setBoolean(5, client.isProfessional());
-            pstmt.setDouble(6, client.getDiscountRate());
-    
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating client failed, no rows affected.");
-            }
-    
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    client.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating client failed, no ID obtained.");
-                }
-            }
+        try {
+            long id = jdbcTemplate.insertAndReturnKey(sql, pstmt -> {
+                pstmt.setString(1, client.getName());
+                pstmt.setString(2, client.getEmail());
+                pstmt.setString(3, client.getAddress());
+                pstmt.setString(4, client.getPhoneNumber());
+                pstmt.setBoolean(5, client.isProfessional());
+                pstmt.setDouble(6, client.getDiscountRate());
+            });
+            client.setId(id);
+            changes.publish("clients", id);
             LOGGER.info("Client saved: " + client.getName());
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error saving client", e);
@@ -61,107 +102,241 @@ public class ClientRepositoryImpl implements ClientRepository {
 
     @Override
     public List<Client> findByNameAndPhone(String name, String phone) {
-        List<Client> clients = new ArrayList<>();
-        String sql = "SELECT * FROM clients WHERE name LIKE ? AND phone_number LIKE ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + name + "%");
-            pstmt.setString(2, "%" + phone + "%");
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                clients.add(mapResultSetToClient(rs));
-            }
+        String sql = "SELECT * FROM clients WHERE lower(name) LIKE ? ESCAPE '\\' AND phone_number LIKE ? ESCAPE '\\'";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> {
+                pstmt.setString(1, "%" + escapeLike(name.toLowerCase(Locale.ROOT)) + "%");
+                pstmt.setString(2, "%" + escapeLike(phone) + "%");
+            }, CLIENT_MAPPER);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding clients by name and phone", e);
         }
-        return clients;
     }
+    @Override
+    public List<Client> findByExactNameAndPhone(String name, String phone) {
+        String sql = "SELECT * FROM clients WHERE phone_number = ? AND name = ? ORDER BY id";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> {
+                pstmt.setString(1, phone);
+                pstmt.setString(2, name);
+            }, CLIENT_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding clients by exact name and phone", e);
+        }
+    }
+
+    @Override
+    public boolean existsByNameAndPhone(String name, String phone) {
+        String sql = "SELECT 1 FROM clients WHERE phone_number = ? AND name = ? LIMIT 1";
+        try {
+            return jdbcTemplate.forReads().queryForOptional(sql, pstmt -> {
+                pstmt.setString(1, phone);
+                pstmt.setString(2, name);
+            }, columns -> rs -> Boolean.TRUE).isPresent();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error checking client existence", e);
+        }
+    }
+
+    @Override
+    public List<Client> findByProfessional(boolean professional) {
+        String sql = "SELECT * FROM clients WHERE is_professional = ? ORDER BY id";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> pstmt.setBoolean(1, professional), CLIENT_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding clients by professional flag", e);
+        }
+    }
+
+    @Override
+    public long count() {
+        try {
+            return jdbcTemplate.forReads().queryForLong("SELECT COUNT(*) FROM clients", StatementBinder.NONE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting clients", e);
+        }
+    }
+
+    @Override
+    public long countByProfessional(boolean professional) {
+        String sql = "SELECT COUNT(*) FROM clients WHERE is_professional = ?";
+        try {
+            return jdbcTemplate.forReads().queryForLong(sql, pstmt -> pstmt.setBoolean(1, professional));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting clients by professional flag", e);
+        }
+    }
+
+    @Override
+    public List<ClientMatch> search(String query, int limit) {
+        String trimmed = query.trim();
+        if (trimmed.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            if (trimmed.indexOf('@') >= 0) {
+                return jdbcTemplate.forReads().query(SEARCH_BY_EMAIL, pstmt -> {
+                    pstmt.setString(1, normalizeEmail(trimmed));
+                    pstmt.setInt(2, limit);
+                }, CLIENT_MATCH_MAPPER);
+            }
+            if (PHONE_QUERY.matcher(trimmed).matches()) {
+                return searchByPhone("", normalizePhone(trimmed), limit);
+            }
+            return searchByName(trimmed, limit);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching clients", e);
+        }
+    }
+
+    @Override
+    public List<ClientMatch> searchByNameAndPhone(String name, String phone, int limit) {
+        try {
+            String normalizedPhone = normalizePhone(phone);
+            if (!normalizedPhone.isEmpty()) {
+                List<ClientMatch> matches = searchByPhone(name, normalizedPhone, limit);
+                if (!matches.isEmpty()) {
+                    return matches;
+                }
+            }
+            return name.trim().isEmpty() ? Collections.emptyList() : searchByName(name.trim(), limit);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching clients by name and phone", e);
+        }
+    }
+
+    private List<ClientMatch> searchByPhone(String name, String normalizedPhone, int limit) throws SQLException {
+        return jdbcTemplate.forReads().query(SEARCH_BY_PHONE, pstmt -> {
+            pstmt.setString(1, name.trim().toLowerCase(Locale.ROOT));
+            pstmt.setString(2, normalizedPhone);
+            pstmt.setInt(3, limit);
+        }, CLIENT_MATCH_MAPPER);
+    }
+
+    private List<ClientMatch> searchByName(String name, int limit) throws SQLException {
+        String lowered = name.toLowerCase(Locale.ROOT);
+        return jdbcTemplate.forReads().query(SEARCH_BY_NAME, pstmt -> {
+            pstmt.setString(1, lowered);
+            pstmt.setString(2, lowered);
+            pstmt.setString(3, "%" + escapeLike(lowered) + "%");
+            pstmt.setInt(4, limit);
+        }, CLIENT_MATCH_MAPPER);
+    }
+
+    /** Same normalization as the {@code clients.phone_normalized} generated column. */
+    static String normalizePhone(String phone) {
+        return phone.replaceAll("\\D", "");
+    }
+
+    /** Same normalization as the {@code clients.email_normalized} generated column. */
+    static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Override
     public Optional<Client> findById(Long id) {
+        IdentityMap identityMap = database.currentIdentityMap();
+        Client known = identityMap != null ? identityMap.get(Client.class, id) : null;
+        if (known != null) {
+            return Optional.of(known);
+        }
         String sql = "SELECT * FROM clients WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                LOGGER.info("Client found with id: " + id);
-                return Optional.of(mapResultSetToClient(rs));
-            }
+        Optional<Client> client;
+        try {
+            client = jdbcTemplate.queryForOptional(sql, pstmt -> pstmt.setLong(1, id), CLIENT_MAPPER);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error finding client by id", e);
             throw new RuntimeException("Error finding client by id", e);
         }
-        LOGGER.warning("Client not found with id: " + id);
-        return Optional.empty();
+        if (identityMap != null) {
+            client = client.map(loaded -> identityMap.register(Client.class, id, loaded));
+        }
+        if (client.isPresent()) {
+            LOGGER.info("Client found with id: " + id);
+        } else {
+            LOGGER.warning("Client not found with id: " + id);
+        }
+        return client;
     }
 
     @Override
     public List<Client> findAll() {
-        List<Client> clients = new ArrayList<>();
         String sql = "SELECT * FROM clients";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                clients.add(mapResultSetToClient(rs));
-            }
+        try {
+            return jdbcTemplate.forReads().query(sql, StatementBinder.NONE, CLIENT_MAPPER);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding all clients", e);
         }
-        return clients;
     }
 
     @Override
     public List<Client> findByName(String name) {
-        List<Client> clients = new ArrayList<>();
-        String sql = "SELECT * FROM clients WHERE name LIKE ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, "%" + name + "%");
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                clients.add(mapResultSetToClient(rs));
-            }
+        String sql = "SELECT * FROM clients WHERE lower(name) LIKE ? ESCAPE '\\'";
+        try {
+            return jdbcTemplate.forReads().query(sql,
+                    pstmt -> pstmt.setString(1, "%" + escapeLike(name.toLowerCase(Locale.ROOT)) + "%"), CLIENT_MAPPER);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding clients by name", e);
         }
-        return clients;
     }
 
     @Override
     public void delete(Long id) {
-        String sql = "DELETE FROM clients WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+        // The client's projects go with it, in the same statement
+        String sql = ProjectRepositoryImpl.deleteProjectsSql("SELECT id FROM projects WHERE client_id = ?") +
+                ", client AS (DELETE FROM clients WHERE id = ?) SELECT id FROM removed";
+        List<Long> projectIds;
+        try {
+            projectIds = jdbcTemplate.execute(connection -> {
+                database.recordWrite();
+                return jdbcTemplate.query(connection, sql, pstmt -> {
+                    pstmt.setLong(1, id);
+                    pstmt.setLong(2, id);
+                }, columns -> rs -> rs.getLong(1));
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting client", e);
         }
+        changes.publish("clients", id);
+        for (Long projectId : projectIds) {
+            changes.publish("projects", projectId);
+        }
+        IdentityMap identityMap = database.currentIdentityMap();
+        if (identityMap != null) {
+            identityMap.remove(Client.class, id);
+            for (Long projectId : projectIds) {
+                identityMap.remove(Project.class, projectId);
+            }
+        }
     }
 
     @Override
     public void update(Client client) {
-        String sql = "UPDATE clients SET name = ?, email = ?, address = ?, phone_number = ?, is_professional = ?, discount_rate = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, client.getName());
-            pstmt.setString(2, client.getEmail());
-            pstmt.setString(3, client.getAddress());
-            pstmt.setString(4, client.getPhoneNumber());
-            pstmt.setBoolean(5, client.isProfessional());
-            pstmt.setDouble(6, client.getDiscountRate());
-            pstmt.setLong(7, client.getId());
-            pstmt.executeUpdate();
+        String sql = "UPDATE clients SET name = ?, email = ?, address = ?, phone_number = ?, is_professional = ?, discount_rate = ?, " +
+                     "version = version + 1 WHERE id = ? AND version = ?";
+        int affectedRows;
+        try {
+            affectedRows = jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setString(1, client.getName());
+                pstmt.setString(2, client.getEmail());
+                pstmt.setString(3, client.getAddress());
+                pstmt.setString(4, client.getPhoneNumber());
+                pstmt.setBoolean(5, client.isProfessional());
+                pstmt.setDouble(6, client.getDiscountRate());
+                pstmt.setLong(7, client.getId());
+                pstmt.setLong(8, client.getVersion());
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error updating client", e);
         }
+        if (affectedRows == 0) {
+            throw new OptimisticLockException("Client", client.getId(), client.getVersion());
+        }
+        client.setVersion(client.getVersion() + 1);
+        changes.publish("clients", client.getId());
     }
-
-    private Client mapResultSetToClient(ResultSet rs) throws SQLException {
-        Client client = new Client(
-            rs.getString("name"),
-            rs.getString("email"),
-            rs.getString("address"),
-            rs.getString("phone_number"),
-            rs.getBoolean("is_professional"),
-            rs.getDouble("discount_rate")
-        );
-        client.setId(rs.getLong("id"));
-        return client;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.baticuisine.repository;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column label to position lookup for one result set shape. When a label appears more than
+ * once (e.g. {@code id} in a join), the first occurrence wins, as with {@code ResultSet.findColumn}.
+ */
+public class ColumnIndex {
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    ColumnIndex(ResultSetMetaData metaData) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            positions.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    public int indexOf(String label) throws SQLException {
+        Integer position = positions.get(label.toLowerCase(Locale.ROOT));
+        if (position == null) {
+            throw new SQLException("Column not found in result set: " + label);
+        }
+        return position;
+    }
+
+    /**
+     * Returns the position of {@code label}, or 0 when the result set does not contain it.
+     */
+    public int indexOfOptional(String label) {
+        Integer position = positions.get(label.toLowerCase(Locale.ROOT));
+        return position != null ? position : 0;
+    }
+}
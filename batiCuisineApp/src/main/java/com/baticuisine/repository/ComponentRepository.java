@@ -4,12 +4,17 @@ import java.util.List;
 import java.util.Optional;
 
 import com.baticuisine.model.Component;
+import com.baticuisine.model.Material;
 
 public interface ComponentRepository {
     Component save(Component component);
     Optional<Component> findById(Long id);
     List<Component> findAll();
     List<Component> findByType(String type);
+    List<Component> findByType(String type, int limit);
+    long countByType(String type);
+    List<Material> findAllMaterials();
+    Optional<Material> findMaterialByName(String name);
     void delete(Long id);
     void update(Component component);
 }
\ No newline at end of file
@@ -1,76 +1,149 @@
 package com.baticuisine.repository;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Optional;
 
+import com.baticuisine.database.ChangeNotifier;
 import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.IdentityMap;
 import com.baticuisine.model.Component;
 import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 
 public class ComponentRepositoryImpl implements ComponentRepository {
     private static ComponentRepositoryImpl instance;
-    private final Connection connection;
-    private final Map<String, List<Component>> componentsByType = new HashMap<>();
+    private final DatabaseConnection database;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeNotifier changes;
 
-    private ComponentRepositoryImpl() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+    static final String SELECT_COMPONENTS =
+            "SELECT c.id, c.name, c.type, c.tva_cost, c.version, " +
+            "m.unit_cost, m.quantite, m.transport_cost, m.coefficient_qualite, " +
+            "l.hourly_rate, l.work_hours, l.worker_productivity " +
+            "FROM components c " +
+            "LEFT JOIN materials m ON m.id = c.id " +
+            "LEFT JOIN labor l ON l.id = c.id";
+
+    static final RowMapperFactory<Component> COMPONENT_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int type = columns.indexOf("type");
+        int vatRate = columns.indexOf("tva_cost");
+        int unitCost = columns.indexOf("unit_cost");
+        int quantity = columns.indexOf("quantite");
+        int transportCost = columns.indexOf("transport_cost");
+        int qualityCoefficient = columns.indexOf("coefficient_qualite");
+        int hourlyRate = columns.indexOf("hourly_rate");
+        int hoursWorked = columns.indexOf("work_hours");
+        int workerProductivity = columns.indexOf("worker_productivity");
+        int version = columns.indexOf("version");
+        return rs -> {
+            String componentType = rs.getString(type);
+            Component component;
+            if ("MATERIAL".equals(componentType)) {
+                component = new Material(
+                    rs.getString(name),
+                    rs.getDouble(vatRate),
+                    rs.getDouble(unitCost),
+                    rs.getDouble(quantity),
+                    rs.getDouble(transportCost),
+                    rs.getDouble(qualityCoefficient)
+                );
+            } else if ("LABOR".equals(componentType)) {
+                component = new Labor(
+                    rs.getString(name),
+                    rs.getDouble(vatRate),
+                    rs.getDouble(hourlyRate),
+                    rs.getDouble(hoursWorked),
+                    rs.getDouble(workerProductivity)
+                );
+            } else {
+                throw new IllegalStateException("Unknown component type: " + componentType);
+            }
+            component.setId(rs.getLong(id));
+            component.setVersion(rs.getLong(version));
+            return component;
+        };
+    };
+
+    static final String SELECT_MATERIALS =
+            "SELECT c.id, c.name, c.tva_cost, c.version, m.unit_cost, m.quantite, m.transport_cost, m.coefficient_qualite " +
+            "FROM components c " +
+            "JOIN materials m ON m.id = c.id";
+
+    static final RowMapperFactory<Material> MATERIAL_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int vatRate = columns.indexOf("tva_cost");
+        int unitCost = columns.indexOf("unit_cost");
+        int quantity = columns.indexOf("quantite");
+        int transportCost = columns.indexOf("transport_cost");
+        int qualityCoefficient = columns.indexOf("coefficient_qualite");
+        int version = columns.indexOf("version");
+        return rs -> {
+            Material material = new Material(
+                rs.getString(name),
+                rs.getDouble(vatRate),
+                rs.getDouble(unitCost),
+                rs.getDouble(quantity),
+                rs.getDouble(transportCost),
+                rs.getDouble(qualityCoefficient)
+            );
+            material.setId(rs.getLong(id));
+            material.setVersion(rs.getLong(version));
+            return material;
+        };
+    };
+
+    private ComponentRepositoryImpl(DatabaseConnection database) {
+        this.database = database;
+        this.jdbcTemplate = new JdbcTemplate(database);
+        this.changes = ChangeNotifier.getInstance(database);
     }
 
-    public static synchronized ComponentRepositoryImpl getInstance() {
+    public static synchronized ComponentRepositoryImpl getInstance(DatabaseConnection database) {
         if (instance == null) {
-            instance = new ComponentRepositoryImpl();
+            instance = new ComponentRepositoryImpl(database);
         }
         return instance;
     }
 
     @Override
     public Component save(Component component) {
+        // The components row and its materials/labor row are written by a single statement
         String sql;
         if (component instanceof Material) {
-            sql = "INSERT INTO components (name, component_type, vat_rate, unit_cost, quantity, transport_cost, quality_coefficient) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            sql = "WITH c AS (INSERT INTO components (name, type, tva_cost, in_catalog) VALUES (?, 'MATERIAL', ?, TRUE) RETURNING id) " +
+                  "INSERT INTO materials (id, unit_cost, quantite, transport_cost, coefficient_qualite) " +
+                  "SELECT id, ?, ?, ?, ? FROM c";
         } else {
-            sql = "INSERT INTO components (name, component_type, vat_rate, hourly_rate, hours_worked, worker_productivity) VALUES (?, ?, ?, ?, ?, ?)";
-        }
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, component.getName());
-            pstmt.setString(2, component.getComponentType());
-            pstmt.setDouble(3, component.getVatRate());
-
-            if (component instanceof Material) {
-                Material material = (Material) component;
-                pstmt.setDouble(4, material.getUnitCost());
-                pstmt.setDouble(5, material.getQuantity());
-                pstmt.setDouble(6, material.getTransportCost());
-                pstmt.setDouble(7, material.getQualityCoefficient());
-            } else if (component instanceof Labor) {
-                Labor labor = (Labor) component;
-                pstmt.setDouble(4, labor.getHourlyRate());
-                pstmt.setDouble(5, labor.getHoursWorked());
-                pstmt.setDouble(6, labor.getWorkerProductivity());
-            }
+            sql = "WITH c AS (INSERT INTO components (name, type, tva_cost, in_catalog) VALUES (?, 'LABOR', ?, TRUE) RETURNING id) " +
+                  "INSERT INTO labor (id, hourly_rate, work_hours, worker_productivity) " +
+                  "SELECT id, ?, ?, ? FROM c";
+        }
 
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating component failed, no rows affected.");
-            }
+        try {
+            long id = jdbcTemplate.insertAndReturnKey(sql, pstmt -> {
+                pstmt.setString(1, component.getName());
+                pstmt.setDouble(2, component.getVatRate());
 
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    component.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating component failed, no ID obtained.");
+                if (component instanceof Material) {
+                    Material material = (Material) component;
+                    pstmt.setDouble(3, material.getUnitCost());
+                    pstmt.setDouble(4, material.getQuantity());
+                    pstmt.setDouble(5, material.getTransportCost());
+                    pstmt.setDouble(6, material.getQualityCoefficient());
+                } else if (component instanceof Labor) {
+                    Labor labor = (Labor) component;
+                    pstmt.setDouble(3, labor.getHourlyRate());
+                    pstmt.setDouble(4, labor.getHoursWorked());
+                    pstmt.setDouble(5, labor.getWorkerProductivity());
                 }
-            }
+            });
+            component.setId(id);
+            changes.publish("components", id);
         } catch (SQLException e) {
             throw new RuntimeException("Error saving component", e);
         }
@@ -79,127 +152,151 @@ public class ComponentRepositoryImpl implements ComponentRepository {
 
     @Override
     public Optional<Component> findById(Long id) {
-        String sql = "SELECT * FROM components WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToComponent(rs));
-            }
+        IdentityMap identityMap = database.currentIdentityMap();
+        Component known = identityMap != null ? identityMap.get(Component.class, id) : null;
+        if (known != null) {
+            return Optional.of(known);
+        }
+        String sql = SELECT_COMPONENTS + " WHERE c.id = ?";
+        try {
+            Optional<Component> component = jdbcTemplate.queryForOptional(sql, pstmt -> pstmt.setLong(1, id), COMPONENT_MAPPER);
+            return identityMap != null
+                    ? component.map(loaded -> identityMap.register(Component.class, id, loaded))
+                    : component;
         } catch (SQLException e) {
             throw new RuntimeException("Error finding component by id", e);
         }
-        return Optional.empty();
     }
 
     @Override
     public List<Component> findAll() {
-        List<Component> components = new ArrayList<>();
-        String sql = "SELECT * FROM components";
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                components.add(mapResultSetToComponent(rs));
-            }
+        String sql = SELECT_COMPONENTS + " ORDER BY c.id";
+        try {
+            return jdbcTemplate.forReads().query(sql, StatementBinder.NONE, COMPONENT_MAPPER);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding all components", e);
         }
-        return components;
     }
 
     @Override
     public List<Component> findByType(String type) {
-        if (componentsByType.containsKey(type)) {
-            return componentsByType.get(type);
-        }
- 
-        List<Component> components = new ArrayList<>();
-        String sql = "SELECT * FROM components WHERE component_type = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, type);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Component component = mapResultSetToComponent(rs);
-                components.add(component);
-            }
-            componentsByType.put(type, components);
+        String sql = SELECT_COMPONENTS + " WHERE c.type = ? ORDER BY c.id";
+        try {
+            return jdbcTemplate.forReads().query(sql,
+                    pstmt -> pstmt.setString(1, type.toUpperCase(Locale.ROOT)), COMPONENT_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding components by type", e);
+        }
+    }
+
+    @Override
+    public List<Component> findByType(String type, int limit) {
+        String sql = SELECT_COMPONENTS + " WHERE c.type = ? ORDER BY c.id LIMIT ?";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> {
+                pstmt.setString(1, type.toUpperCase(Locale.ROOT));
+                pstmt.setInt(2, limit);
+            }, COMPONENT_MAPPER);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding components by type", e);
         }
-        return components;
+    }
+
+    @Override
+    public long countByType(String type) {
+        String sql = "SELECT COUNT(*) FROM components WHERE type = ?";
+        try {
+            return jdbcTemplate.forReads().queryForLong(sql, pstmt -> pstmt.setString(1, type.toUpperCase(Locale.ROOT)));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting components by type", e);
+        }
+    }
+
+    @Override
+    public List<Material> findAllMaterials() {
+        String sql = SELECT_MATERIALS + " ORDER BY c.id";
+        try {
+            return jdbcTemplate.forReads().query(sql, StatementBinder.NONE, MATERIAL_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding all materials", e);
+        }
+    }
+
+    @Override
+    public Optional<Material> findMaterialByName(String name) {
+        String sql = SELECT_MATERIALS + " WHERE c.name = ? ORDER BY c.id LIMIT 1";
+        try {
+            return jdbcTemplate.forReads().queryForOptional(sql, pstmt -> pstmt.setString(1, name), MATERIAL_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding material by name", e);
+        }
     }
 
     @Override
     public void delete(Long id) {
-        String sql = "DELETE FROM components WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+        String sql = "WITH m AS (DELETE FROM materials WHERE id = ?), " +
+                     "l AS (DELETE FROM labor WHERE id = ?) " +
+                     "DELETE FROM components WHERE id = ?";
+        try {
+            jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setLong(1, id);
+                pstmt.setLong(2, id);
+                pstmt.setLong(3, id);
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting component", e);
         }
+        changes.publish("components", id);
+        IdentityMap identityMap = database.currentIdentityMap();
+        if (identityMap != null) {
+            identityMap.remove(Component.class, id);
+        }
     }
 
     @Override
     public void update(Component component) {
+        // The version check on components gates the materials/labor update: no match, no rows
         String sql;
         if (component instanceof Material) {
-            sql = "UPDATE components SET name = ?, component_type = ?, vat_rate = ?, unit_cost = ?, quantity = ?, transport_cost = ?, quality_coefficient = ? WHERE id = ?";
+            sql = "WITH c AS (UPDATE components SET name = ?, tva_cost = ?, version = version + 1 " +
+                  "WHERE id = ? AND version = ? RETURNING id) " +
+                  "UPDATE materials SET unit_cost = ?, quantite = ?, transport_cost = ?, coefficient_qualite = ? " +
+                  "WHERE id = (SELECT id FROM c)";
         } else {
-            sql = "UPDATE components SET name = ?, component_type = ?, vat_rate = ?, hourly_rate = ?, hours_worked = ?, worker_productivity = ? WHERE id = ?";
-        }
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, component.getName());
-            pstmt.setString(2, component.getComponentType());
-            pstmt.setDouble(3, component.getVatRate());
-
-            if (component instanceof Material) {
-                Material material = (Material) component;
-                pstmt.setDouble(4, material.getUnitCost());
-                pstmt.setDouble(5, material.getQuantity());
-                pstmt.setDouble(6, material.getTransportCost());
-                pstmt.setDouble(7, material.getQualityCoefficient());
-                pstmt.setLong(8, material.getId());
-            } else if (component instanceof Labor) {
-                Labor labor = (Labor) component;
-                pstmt.setDouble(4, labor.getHourlyRate());
-                pstmt.setDouble(5, labor.getHoursWorked());
-                pstmt.setDouble(6, labor.getWorkerProductivity());
-                pstmt.setLong(7, labor.getId());
-            }
+            sql = "WITH c AS (UPDATE components SET name = ?, tva_cost = ?, version = version + 1 " +
+                  "WHERE id = ? AND version = ? RETURNING id) " +
+                  "UPDATE labor SET hourly_rate = ?, work_hours = ?, worker_productivity = ? " +
+                  "WHERE id = (SELECT id FROM c)";
+        }
 
-            pstmt.executeUpdate();
+        int affectedRows;
+        try {
+            affectedRows = jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setString(1, component.getName());
+                pstmt.setDouble(2, component.getVatRate());
+                pstmt.setLong(3, component.getId());
+                pstmt.setLong(4, component.getVersion());
+
+                if (component instanceof Material) {
+                    Material material = (Material) component;
+                    pstmt.setDouble(5, material.getUnitCost());
+                    pstmt.setDouble(6, material.getQuantity());
+                    pstmt.setDouble(7, material.getTransportCost());
+                    pstmt.setDouble(8, material.getQualityCoefficient());
+                } else if (component instanceof Labor) {
+                    Labor labor = (Labor) component;
+                    pstmt.setDouble(5, labor.getHourlyRate());
+                    pstmt.setDouble(6, labor.getHoursWorked());
+                    pstmt.setDouble(7, labor.getWorkerProductivity());
+                }
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error updating component", e);
         }
-    }
-
-    private Component mapResultSetToComponent(ResultSet rs) throws SQLException {
-        String componentType = rs.getString("component_type");
-        if ("Material".equals(componentType)) {
-            Material material = new Material(
-                rs.getString("name"),
-                rs.getDouble("vat_rate"),
-                rs.getDouble("unit_cost"),
-                rs.getDouble("quantity"),
-                rs.getDouble("transport_cost"),
-                rs.getDouble("quality_coefficient")
-            );
-            material.setId(rs.getLong("id"));
-            return material;
-        } else if ("Labor".equals(componentType)) {
-            Labor labor = new Labor(
-                rs.getString("name"),
-                rs.getDouble("vat_rate"),
-                rs.getDouble("hourly_rate"),
-                rs.getDouble("hours_worked"),
-                rs.getDouble("worker_productivity")
-            );
-            labor.setId(rs.getLong("id"));
-            return labor;
-        } else {
-            throw new IllegalStateException("Unknown component type: " + componentType);
+        if (affectedRows == 0) {
+            throw new OptimisticLockException("Component", component.getId(), component.getVersion());
         }
+        component.setVersion(component.getVersion() + 1);
+        changes.publish("components", component.getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.baticuisine.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ConnectionCallback<T> {
+    T doInConnection(Connection connection) throws SQLException;
+}
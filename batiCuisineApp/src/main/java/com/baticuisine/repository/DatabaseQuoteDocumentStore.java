@@ -0,0 +1,64 @@
+package com.baticuisine.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import com.baticuisine.database.DatabaseConnection;
+
+/**
+ * Keeps quote documents in the {@code quote_documents} table as gzip {@code bytea}.
+ */
+public class DatabaseQuoteDocumentStore implements QuoteDocumentStore {
+    private static final String SELECT_SQL = "SELECT content FROM quote_documents WHERE hash = ?";
+    private static final RowMapperFactory<byte[]> CONTENT_MAPPER = columns -> rs -> rs.getBytes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseQuoteDocumentStore(DatabaseConnection database) {
+        this.jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @Override
+    public String put(String content) {
+        String hash = QuoteDocuments.hash(content);
+        byte[] compressed = QuoteDocuments.compress(content);
+        String sql = "INSERT INTO quote_documents (hash, content, original_size) VALUES (?, ?, ?) " +
+                "ON CONFLICT (hash) DO NOTHING";
+        try {
+            jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setString(1, hash);
+                pstmt.setBytes(2, compressed);
+                pstmt.setInt(3, content.length());
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error storing quote document", e);
+        }
+        return hash;
+    }
+
+    @Override
+    public String get(String hash) {
+        // Documents never change once stored, so a replica that has the row has the right one
+        Optional<byte[]> compressed;
+        try {
+            compressed = jdbcTemplate.forReads().queryForOptional(SELECT_SQL, pstmt -> pstmt.setString(1, hash),
+                    CONTENT_MAPPER);
+            if (!compressed.isPresent()) {
+                // Not replicated yet
+                compressed = jdbcTemplate.queryForOptional(SELECT_SQL, pstmt -> pstmt.setString(1, hash), CONTENT_MAPPER);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading quote document", e);
+        }
+        if (!compressed.isPresent()) {
+            return null;
+        }
+        try {
+            return QuoteDocuments.decompress(new ByteArrayInputStream(compressed.get()));
+        } catch (IOException e) {
+            throw new RuntimeException("Error decompressing quote document " + hash, e);
+        }
+    }
+}
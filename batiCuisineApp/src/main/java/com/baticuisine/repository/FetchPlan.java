@@ -0,0 +1,42 @@
+package com.baticuisine.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Which associations of a {@link com.baticuisine.model.Project} a query loads up front.
+ * Associations left out are loaded on first access, in one query for every project returned
+ * by the same call.
+ */
+public final class FetchPlan {
+    public enum Association { CLIENT, MATERIALS, LABOR, QUOTES }
+
+    public static final FetchPlan NONE = new FetchPlan(EnumSet.noneOf(Association.class));
+    public static final FetchPlan CLIENT = of(Association.CLIENT);
+    /** What the cost calculation and quote generation read: client discount and line items. */
+    public static final FetchPlan PRICING = of(Association.CLIENT, Association.MATERIALS, Association.LABOR);
+    public static final FetchPlan ALL = new FetchPlan(EnumSet.allOf(Association.class));
+
+    private final Set<Association> associations;
+
+    private FetchPlan(EnumSet<Association> associations) {
+        this.associations = Collections.unmodifiableSet(associations);
+    }
+
+    public static FetchPlan of(Association... associations) {
+        EnumSet<Association> set = EnumSet.noneOf(Association.class);
+        set.addAll(Arrays.asList(associations));
+        return new FetchPlan(set);
+    }
+
+    public boolean includes(Association association) {
+        return associations.contains(association);
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPlan" + associations;
+    }
+}
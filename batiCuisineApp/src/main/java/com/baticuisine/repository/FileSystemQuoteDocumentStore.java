@@ -0,0 +1,92 @@
+package com.baticuisine.repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps quote documents as gzip files in a directory, one file per hash under a subdirectory named
+ * after its first two characters ({@code ab/abcd....gz}). Files are written to a temporary name
+ * and renamed into place, and are read through a memory mapping.
+ */
+public class FileSystemQuoteDocumentStore implements QuoteDocumentStore {
+    private final Path directory;
+
+    public FileSystemQuoteDocumentStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String put(String content) {
+        String hash = QuoteDocuments.hash(content);
+        Path file = fileFor(hash);
+        if (Files.exists(file)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, QuoteDocuments.compress(content));
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently under the same hash, hence with the same content
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error storing quote document", e);
+        }
+        return hash;
+    }
+
+    @Override
+    public String get(String hash) {
+        try (FileChannel channel = FileChannel.open(fileFor(hash), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return QuoteDocuments.decompress(new ByteBufferInputStream(mapped));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading quote document " + hash, e);
+        }
+    }
+
+    private Path fileFor(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid quote document hash: " + hash);
+        }
+        return directory.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.baticuisine.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.baticuisine.database.DatabaseConnection;
+
+/**
+ * Shared query execution layer for the repositories.
+ * <p>
+ * Every statement and result set is closed before a method returns. Statements are prepared
+ * through the pooled connection, which caches them per connection, and row mappers are compiled
+ * once per (SQL, mapper) pair so rows are read by column index. Methods taking a
+ * {@link Connection} run on the caller's connection; the others borrow one for the call.
+ */
+public class JdbcTemplate {
+    private static final String[] ID_COLUMN = { "id" };
+
+    private final DatabaseConnection database;
+    private final boolean reads;
+    private final ConcurrentMap<MapperKey, RowMapper<?>> compiledMappers;
+    private volatile JdbcTemplate readTemplate;
+
+    public JdbcTemplate(DatabaseConnection database) {
+        this(database, false, new ConcurrentHashMap<>());
+    }
+
+    private JdbcTemplate(DatabaseConnection database, boolean reads,
+            ConcurrentMap<MapperKey, RowMapper<?>> compiledMappers) {
+        this.database = database;
+        this.reads = reads;
+        this.compiledMappers = compiledMappers;
+    }
+
+    /**
+     * Returns a template whose borrowed connections come from {@link DatabaseConnection#getReadConnection()},
+     * i.e. from a replica when one is available. Use it only for queries that tolerate replication lag.
+     */
+    public JdbcTemplate forReads() {
+        if (reads) {
+            return this;
+        }
+        JdbcTemplate template = readTemplate;
+        if (template == null) {
+            readTemplate = template = new JdbcTemplate(database, true, compiledMappers);
+        }
+        return template;
+    }
+
+    public <T> T execute(ConnectionCallback<T> callback) throws SQLException {
+        try (Connection connection = reads ? database.getReadConnection() : database.getConnection()) {
+            return callback.doInConnection(connection);
+        }
+    }
+
+    public <T> List<T> query(String sql, StatementBinder binder, RowMapperFactory<T> mapper) throws SQLException {
+        return execute(connection -> query(connection, sql, binder, mapper));
+    }
+
+    public <T> List<T> query(Connection connection, String sql, StatementBinder binder, RowMapperFactory<T> mapper)
+            throws SQLException {
+        List<T> results = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            binder.bind(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<T> rowMapper = compiled(sql, mapper, rs);
+                while (rs.next()) {
+                    results.add(rowMapper.mapRow(rs));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Streams the rows of {@code sql} to {@code handler} without collecting them. With a positive
+     * {@code fetchSize} and auto-commit disabled (i.e. inside a transaction), the driver reads the
+     * result through a server-side cursor, {@code fetchSize} rows at a time.
+     *
+     * @return the number of rows processed
+     */
+    public long queryForEach(Connection connection, String sql, StatementBinder binder, int fetchSize,
+            RowCallbackHandler handler) throws SQLException {
+        long rows = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            binder.bind(pstmt);
+            pstmt.setFetchSize(fetchSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.processRow(rs);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    public <T> Optional<T> queryForOptional(String sql, StatementBinder binder, RowMapperFactory<T> mapper)
+            throws SQLException {
+        return execute(connection -> queryForOptional(connection, sql, binder, mapper));
+    }
+
+    public <T> Optional<T> queryForOptional(Connection connection, String sql, StatementBinder binder,
+            RowMapperFactory<T> mapper) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            binder.bind(pstmt);
+            pstmt.setMaxRows(1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return Optional.empty();
+                }
+                return Optional.ofNullable(compiled(sql, mapper, rs).mapRow(rs));
+            }
+        }
+    }
+
+    public long queryForLong(String sql, StatementBinder binder) throws SQLException {
+        return execute(connection -> queryForLong(connection, sql, binder));
+    }
+
+    public long queryForLong(Connection connection, String sql, StatementBinder binder) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            binder.bind(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Query returned no rows: " + sql);
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    public int update(String sql, StatementBinder binder) throws SQLException {
+        return executeOnPrimary(connection -> update(connection, sql, binder));
+    }
+
+    public int update(Connection connection, String sql, StatementBinder binder) throws SQLException {
+        database.recordWrite();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            binder.bind(pstmt);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    public long insertAndReturnKey(String sql, StatementBinder binder) throws SQLException {
+        return executeOnPrimary(connection -> insertAndReturnKey(connection, sql, binder));
+    }
+
+    public long insertAndReturnKey(Connection connection, String sql, StatementBinder binder) throws SQLException {
+        database.recordWrite();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql, ID_COLUMN)) {
+            binder.bind(pstmt);
+            if (pstmt.executeUpdate() == 0) {
+                throw new SQLException("Insert failed, no rows affected.");
+            }
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Insert failed, no ID obtained.");
+                }
+                return generatedKeys.getLong(1);
+            }
+        }
+    }
+
+    public <T> int[] batchUpdate(Connection connection, String sql, List<T> items, BatchBinder<T> binder)
+            throws SQLException {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        database.recordWrite();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (T item : items) {
+                binder.bind(pstmt, item);
+                pstmt.addBatch();
+            }
+            return pstmt.executeBatch();
+        }
+    }
+
+    private <T> T executeOnPrimary(ConnectionCallback<T> callback) throws SQLException {
+        try (Connection connection = database.getConnection()) {
+            return callback.doInConnection(connection);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> RowMapper<T> compiled(String sql, RowMapperFactory<T> factory, ResultSet rs) throws SQLException {
+        MapperKey key = new MapperKey(sql, factory);
+        RowMapper<T> mapper = (RowMapper<T>) compiledMappers.get(key);
+        if (mapper == null) {
+            mapper = factory.compile(new ColumnIndex(rs.getMetaData()));
+            compiledMappers.putIfAbsent(key, mapper);
+        }
+        return mapper;
+    }
+
+    private static final class MapperKey {
+        private final String sql;
+        private final RowMapperFactory<?> factory;
+
+        MapperKey(String sql, RowMapperFactory<?> factory) {
+            this.sql = sql;
+            this.factory = factory;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MapperKey)) {
+                return false;
+            }
+            MapperKey other = (MapperKey) o;
+            return factory == other.factory && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, System.identityHashCode(factory));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.baticuisine.repository;
+
+/**
+ * Thrown by a repository update when the row's version no longer matches the entity's: another
+ * transaction updated or deleted it since it was loaded. Nothing was written. Callers can reload
+ * the entity, reapply their change and retry.
+ */
+public class OptimisticLockException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String entity;
+    private final Long id;
+    private final long expectedVersion;
+
+    public OptimisticLockException(String entity, Long id, long expectedVersion) {
+        super(entity + " " + id + " was changed or deleted by someone else (expected version " + expectedVersion + ")");
+        this.entity = entity;
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
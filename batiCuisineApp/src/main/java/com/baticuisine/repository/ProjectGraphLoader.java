@@ -0,0 +1,405 @@
+package com.baticuisine.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.IdentityMap;
+import com.baticuisine.model.Client;
+import com.baticuisine.model.Labor;
+import com.baticuisine.model.Material;
+import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectLoader;
+import com.baticuisine.model.Quote;
+import com.baticuisine.model.enums.ProjectStatus;
+
+/**
+ * Loads projects together with their materials, labor, clients and quotes using a fixed number
+ * of set-based queries (one per table) instead of one query per project row. A {@link FetchPlan}
+ * decides which of them are read up front; the rest are read lazily, again one query per table.
+ */
+class ProjectGraphLoader {
+    private static final String MATERIALS_SQL =
+            "SELECT pc.project_id, c.id, c.name, c.tva_cost, c.version, m.unit_cost, m.quantite, m.transport_cost, m.coefficient_qualite " +
+            "FROM project_components pc " +
+            "JOIN components c ON c.id = pc.component_id " +
+            "JOIN materials m ON m.id = c.id " +
+            "WHERE pc.project_id = ANY(?) " +
+            "ORDER BY pc.project_id, c.id";
+    private static final String LABOR_SQL =
+            "SELECT pc.project_id, c.id, c.name, c.tva_cost, c.version, l.hourly_rate, l.work_hours, l.worker_productivity " +
+            "FROM project_components pc " +
+            "JOIN components c ON c.id = pc.component_id " +
+            "JOIN labor l ON l.id = c.id " +
+            "WHERE pc.project_id = ANY(?) " +
+            "ORDER BY pc.project_id, c.id";
+    private static final String CLIENTS_SQL = "SELECT * FROM clients WHERE id = ANY(?)";
+    private static final String PROJECTS_BY_IDS_SQL = "SELECT * FROM projects WHERE id = ANY(?)";
+    private static final String QUOTES_SQL =
+            "SELECT * FROM quotes WHERE project_id = ANY(?) ORDER BY project_id, issue_date, id";
+
+    static final RowMapperFactory<Project> PROJECT_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int surface = columns.indexOf("surface");
+        int startDate = columns.indexOf("start_date");
+        int status = columns.indexOf("status");
+        int profitMargin = columns.indexOf("profit_margin");
+        int totalCost = columns.indexOf("total_cost");
+        int version = columns.indexOf("version");
+        return rs -> {
+            Project project = new Project(
+                    rs.getString(name),
+                    rs.getDouble(surface),
+                    rs.getDate(startDate).toLocalDate(),
+                    ProjectStatus.fromDbValue(rs.getString(status)),
+                    null);
+            project.setId(rs.getLong(id));
+            project.setProfitMargin(rs.getDouble(profitMargin));
+            project.setTotalCost(rs.getDouble(totalCost));
+            project.setVersion(rs.getLong(version));
+            return project;
+        };
+    };
+
+    private static final RowMapperFactory<Linked<Project>> PROJECT_ROW_MAPPER = columns -> {
+        RowMapper<Project> projectMapper = PROJECT_MAPPER.compile(columns);
+        int clientId = columns.indexOf("client_id");
+        return rs -> {
+            Project project = projectMapper.mapRow(rs);
+            long client = rs.getLong(clientId);
+            return new Linked<>(rs.wasNull() ? null : client, project);
+        };
+    };
+
+    private static final RowMapperFactory<Linked<Material>> MATERIAL_MAPPER = columns -> {
+        int projectId = columns.indexOf("project_id");
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int vatRate = columns.indexOf("tva_cost");
+        int unitCost = columns.indexOf("unit_cost");
+        int quantity = columns.indexOf("quantite");
+        int transportCost = columns.indexOf("transport_cost");
+        int qualityCoefficient = columns.indexOf("coefficient_qualite");
+        int version = columns.indexOf("version");
+        return rs -> {
+            Material material = new Material(
+                    rs.getString(name),
+                    rs.getDouble(vatRate),
+                    rs.getDouble(unitCost),
+                    rs.getDouble(quantity),
+                    rs.getDouble(transportCost),
+                    rs.getDouble(qualityCoefficient));
+            material.setId(rs.getLong(id));
+            material.setVersion(rs.getLong(version));
+            return new Linked<>(rs.getLong(projectId), material);
+        };
+    };
+
+    private static final RowMapperFactory<Linked<Labor>> LABOR_MAPPER = columns -> {
+        int projectId = columns.indexOf("project_id");
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int vatRate = columns.indexOf("tva_cost");
+        int hourlyRate = columns.indexOf("hourly_rate");
+        int hoursWorked = columns.indexOf("work_hours");
+        int workerProductivity = columns.indexOf("worker_productivity");
+        int version = columns.indexOf("version");
+        return rs -> {
+            Labor labor = new Labor(
+                    rs.getString(name),
+                    rs.getDouble(vatRate),
+                    rs.getDouble(hourlyRate),
+                    rs.getDouble(hoursWorked),
+                    rs.getDouble(workerProductivity));
+            labor.setId(rs.getLong(id));
+            labor.setVersion(rs.getLong(version));
+            return new Linked<>(rs.getLong(projectId), labor);
+        };
+    };
+
+    private static final RowMapperFactory<Linked<Quote>> QUOTE_MAPPER = columns -> {
+        RowMapper<Quote> quoteMapper = QuoteRepositoryImpl.QUOTE_MAPPER.compile(columns);
+        int projectId = columns.indexOf("project_id");
+        return rs -> new Linked<>(rs.getLong(projectId), quoteMapper.mapRow(rs));
+    };
+
+    private final DatabaseConnection database;
+    private final JdbcTemplate jdbcTemplate;
+
+    ProjectGraphLoader(DatabaseConnection database, JdbcTemplate jdbcTemplate) {
+        this.database = database;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Runs {@code projectSql} (which must select {@code projects.*}) and returns the matching
+     * projects in query order, with the associations in {@code plan} attached. The others are
+     * loaded on first access, for all returned projects at once, through {@code source}: the
+     * template {@code connection} was borrowed from.
+     * <p>
+     * Inside a unit of work, projects already in its {@link IdentityMap} are returned as the
+     * registered instance (only missing associations of the plan are loaded for them), and the
+     * others are registered.
+     */
+    List<Project> load(JdbcTemplate source, Connection connection, String projectSql, StatementBinder binder,
+            FetchPlan plan) throws SQLException {
+        Map<Long, Project> projectsById = new LinkedHashMap<>();
+        Map<Long, Project> loaded = new HashMap<>();
+        Map<Long, Long> clientIdsByProjectId = new HashMap<>();
+        readProjects(connection, projectSql, binder, projectsById, loaded, clientIdsByProjectId);
+        if (projectsById.isEmpty()) {
+            return new ArrayList<>();
+        }
+        attach(source, connection, loaded, clientIdsByProjectId, plan);
+        return new ArrayList<>(projectsById.values());
+    }
+
+    /**
+     * Loads the given projects by id, like {@link #load}. Ids that do not exist are absent from the map.
+     */
+    Map<Long, Project> loadByIds(JdbcTemplate source, Connection connection, Collection<Long> projectIds,
+            FetchPlan plan) throws SQLException {
+        Map<Long, Project> projectsById = new HashMap<>();
+        if (projectIds.isEmpty()) {
+            return projectsById;
+        }
+        Map<Long, Project> loaded = new HashMap<>();
+        Map<Long, Long> clientIdsByProjectId = new HashMap<>();
+        readProjects(connection, PROJECTS_BY_IDS_SQL, pstmt -> pstmt.setArray(1, toArray(connection, projectIds)),
+                projectsById, loaded, clientIdsByProjectId);
+        attach(source, connection, loaded, clientIdsByProjectId, plan);
+        return projectsById;
+    }
+
+    /**
+     * Loads the associations of {@code plan} that {@code project} does not have yet.
+     */
+    static void ensureLoaded(Project project, FetchPlan plan) {
+        if (plan.includes(FetchPlan.Association.CLIENT)) {
+            project.getClient();
+        }
+        if (plan.includes(FetchPlan.Association.MATERIALS)) {
+            project.getMaterials();
+        }
+        if (plan.includes(FetchPlan.Association.LABOR)) {
+            project.getLaborItems();
+        }
+        if (plan.includes(FetchPlan.Association.QUOTES)) {
+            project.getQuotes();
+        }
+    }
+
+    /**
+     * Sets up the freshly read {@code projectsById}: eager associations of {@code plan} are
+     * attached now, the rest lazily.
+     */
+    private void attach(JdbcTemplate source, Connection connection, Map<Long, Project> projectsById,
+            Map<Long, Long> clientIdsByProjectId, FetchPlan plan) throws SQLException {
+        if (projectsById.isEmpty()) {
+            return;
+        }
+        LazyBatch batch = new LazyBatch(source, new ArrayList<>(projectsById.values()), clientIdsByProjectId);
+        for (Project project : projectsById.values()) {
+            project.setLoader(batch);
+        }
+        if (plan.includes(FetchPlan.Association.CLIENT)) {
+            attachClients(connection, projectsById, clientIdsByProjectId);
+        }
+        if (plan.includes(FetchPlan.Association.MATERIALS)) {
+            attachMaterials(connection, projectsById);
+        }
+        if (plan.includes(FetchPlan.Association.LABOR)) {
+            attachLabor(connection, projectsById);
+        }
+        if (plan.includes(FetchPlan.Association.QUOTES)) {
+            attachQuotes(connection, projectsById);
+        }
+    }
+
+    /**
+     * Fills {@code projectsById} with the project of every row. Rows whose project is already in
+     * the identity map resolve to the registered instance; the others also go to {@code loaded}.
+     */
+    private void readProjects(Connection connection, String sql, StatementBinder binder,
+            Map<Long, Project> projectsById, Map<Long, Project> loaded, Map<Long, Long> clientIdsByProjectId)
+            throws SQLException {
+        IdentityMap identityMap = database.currentIdentityMap();
+        for (Linked<Project> row : jdbcTemplate.query(connection, sql, binder, PROJECT_ROW_MAPPER)) {
+            Long id = row.value.getId();
+            Project project = identityMap != null ? identityMap.register(Project.class, id, row.value) : row.value;
+            projectsById.put(id, project);
+            if (project == row.value) {
+                loaded.put(id, project);
+                if (row.ownerId != null) {
+                    clientIdsByProjectId.put(id, row.ownerId);
+                }
+            }
+        }
+    }
+
+    private void attachMaterials(Connection connection, Map<Long, Project> projectsById) throws SQLException {
+        Map<Long, List<Material>> materialsByProjectId = emptyLists(projectsById.keySet());
+        List<Linked<Material>> rows = jdbcTemplate.query(connection, MATERIALS_SQL,
+                pstmt -> pstmt.setArray(1, toArray(connection, projectsById.keySet())), MATERIAL_MAPPER);
+        for (Linked<Material> row : rows) {
+            materialsByProjectId.get(row.ownerId).add(row.value);
+        }
+        projectsById.forEach((id, project) -> project.setMaterials(materialsByProjectId.get(id)));
+    }
+
+    private void attachLabor(Connection connection, Map<Long, Project> projectsById) throws SQLException {
+        Map<Long, List<Labor>> laborByProjectId = emptyLists(projectsById.keySet());
+        List<Linked<Labor>> rows = jdbcTemplate.query(connection, LABOR_SQL,
+                pstmt -> pstmt.setArray(1, toArray(connection, projectsById.keySet())), LABOR_MAPPER);
+        for (Linked<Labor> row : rows) {
+            laborByProjectId.get(row.ownerId).add(row.value);
+        }
+        projectsById.forEach((id, project) -> project.setLaborItems(laborByProjectId.get(id)));
+    }
+
+    private void attachQuotes(Connection connection, Map<Long, Project> projectsById) throws SQLException {
+        Map<Long, List<Quote>> quotesByProjectId = emptyLists(projectsById.keySet());
+        List<Linked<Quote>> rows = jdbcTemplate.query(connection, QUOTES_SQL,
+                pstmt -> pstmt.setArray(1, toArray(connection, projectsById.keySet())), QUOTE_MAPPER);
+        IdentityMap identityMap = database.currentIdentityMap();
+        for (Linked<Quote> row : rows) {
+            Quote quote = identityMap != null
+                    ? identityMap.register(Quote.class, row.value.getId(), row.value)
+                    : row.value;
+            quote.setProject(projectsById.get(row.ownerId));
+            quotesByProjectId.get(row.ownerId).add(quote);
+        }
+        projectsById.forEach((id, project) -> project.setQuotes(quotesByProjectId.get(id)));
+    }
+
+    private void attachClients(Connection connection, Map<Long, Project> projectsById,
+            Map<Long, Long> clientIdsByProjectId) throws SQLException {
+        IdentityMap identityMap = database.currentIdentityMap();
+        Map<Long, Client> clientsById = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long projectId : projectsById.keySet()) {
+            Long clientId = clientIdsByProjectId.get(projectId);
+            if (clientId == null || clientsById.containsKey(clientId)) {
+                continue;
+            }
+            Client known = identityMap != null ? identityMap.get(Client.class, clientId) : null;
+            if (known != null) {
+                clientsById.put(clientId, known);
+            } else {
+                missing.add(clientId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Client> clients = jdbcTemplate.query(connection, CLIENTS_SQL,
+                    pstmt -> pstmt.setArray(1, toArray(connection, missing)), ClientRepositoryImpl.CLIENT_MAPPER);
+            for (Client client : clients) {
+                clientsById.put(client.getId(), identityMap != null
+                        ? identityMap.register(Client.class, client.getId(), client)
+                        : client);
+            }
+        }
+        projectsById.forEach((projectId, project) ->
+                project.setClient(clientsById.get(clientIdsByProjectId.get(projectId))));
+    }
+
+    private static <T> Map<Long, List<T>> emptyLists(Collection<Long> ids) {
+        Map<Long, List<T>> lists = new HashMap<>();
+        for (Long id : ids) {
+            lists.put(id, new ArrayList<>());
+        }
+        return lists;
+    }
+
+    static Array toArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray(new Long[0]));
+    }
+
+    /**
+     * Lazy loader shared by the projects returned from one call. The first access to an
+     * association fetches it for every project of the batch that does not have it yet, through
+     * the template the projects were read with, so a batch read from the primary never
+     * completes from a lagging replica. Inside a transaction it always uses the primary (and
+     * thereby joins the transaction).
+     */
+    private final class LazyBatch implements ProjectLoader {
+        private final JdbcTemplate source;
+        private final List<Project> projects;
+        private final Map<Long, Long> clientIdsByProjectId;
+
+        LazyBatch(JdbcTemplate source, List<Project> projects, Map<Long, Long> clientIdsByProjectId) {
+            this.source = source;
+            this.projects = projects;
+            this.clientIdsByProjectId = clientIdsByProjectId;
+        }
+
+        @Override
+        public synchronized void loadClient(Project project) {
+            fetch(Project::isClientLoaded, (connection, pending) -> attachClients(connection, pending, clientIdsByProjectId));
+        }
+
+        @Override
+        public synchronized void loadMaterials(Project project) {
+            fetch(Project::isMaterialsLoaded, ProjectGraphLoader.this::attachMaterials);
+        }
+
+        @Override
+        public synchronized void loadLaborItems(Project project) {
+            fetch(Project::isLaborItemsLoaded, ProjectGraphLoader.this::attachLabor);
+        }
+
+        @Override
+        public synchronized void loadQuotes(Project project) {
+            fetch(Project::isQuotesLoaded, ProjectGraphLoader.this::attachQuotes);
+        }
+
+        private void fetch(Predicate<Project> loaded, Attacher attacher) {
+            Map<Long, Project> pending = new LinkedHashMap<>();
+            for (Project project : projects) {
+                if (!loaded.test(project)) {
+                    pending.put(project.getId(), project);
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                JdbcTemplate template = database.isInTransaction() ? jdbcTemplate : source;
+                template.execute(connection -> {
+                    attacher.attach(connection, pending);
+                    return null;
+                });
+            } catch (SQLException e) {
+                throw new RuntimeException("Error loading project data", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attacher {
+        void attach(Connection connection, Map<Long, Project> projectsById) throws SQLException;
+    }
+
+    /**
+     * A mapped row together with the id of the row it belongs to.
+     */
+    private static final class Linked<T> {
+        final Long ownerId;
+        final T value;
+
+        Linked(Long ownerId, T value) {
+            this.ownerId = ownerId;
+            this.value = value;
+        }
+    }
+}
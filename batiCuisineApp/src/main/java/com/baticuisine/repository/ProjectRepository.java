@@ -7,17 +7,37 @@ import java.util.Optional;
 import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectSummary;
 import com.baticuisine.model.enums.ProjectStatus;
 
 public interface ProjectRepository {
     Project save(Project project);
 
+    /**
+     * Loads the project with its client, materials and labor ({@link FetchPlan#PRICING}).
+     */
     Optional<Project> findById(Long id);
 
+    /**
+     * Loads the project with the associations in {@code plan}; the others load on first access.
+     */
+    Optional<Project> findById(Long id, FetchPlan plan);
+
     List<Project> findAll();
 
+    List<Project> findAll(FetchPlan plan);
+
+    /**
+     * Lists every project with its client's name only; no materials, labor or quotes are read.
+     */
+    List<ProjectSummary> findAllSummaries();
+
+    Optional<ProjectSummary> findSummaryByName(String name);
+
     Optional<Project> findByName(String name);
 
+    Optional<Project> findByName(String name, FetchPlan plan);
+
     void delete(Long id);
 
     List<Project> findByStatus(ProjectStatus status);
@@ -27,4 +47,6 @@ public interface ProjectRepository {
     void saveMaterial(Material material, Long projectId) throws SQLException;
 
     void saveLabor(Labor labor, Long projectId) throws SQLException;
+
+    void saveComponents(Long projectId, List<Material> materials, List<Labor> laborItems) throws SQLException;
 }
@@ -2,73 +2,154 @@ package com.baticuisine.repository;
 
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 
-import com.baticuisine.model.Client;
+import com.baticuisine.database.ChangeNotifier;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.IdentityMap;
+import com.baticuisine.model.Component;
 import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectSummary;
 import com.baticuisine.model.enums.ProjectStatus;
 
 public class ProjectRepositoryImpl implements ProjectRepository {
     private static final Logger LOGGER = Logger.getLogger(ProjectRepositoryImpl.class.getName());
     private static ProjectRepositoryImpl instance;
-    private final Connection connection;
+    private final DatabaseConnection database;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeNotifier changes;
+    private final ProjectGraphLoader graphLoader;
+
+    private static final String SELECT_SUMMARIES =
+            "SELECT p.id, p.name, p.status, COALESCE(r.total_cost, p.total_cost) AS total_cost, c.name AS client_name " +
+            "FROM projects p " +
+            "LEFT JOIN clients c ON c.id = p.client_id " +
+            "LEFT JOIN project_cost_rollups r ON r.project_id = p.id";
+
+    /**
+     * Deletes the projects whose ids {@code selection} returns, with their line items, quotes and
+     * rollups, and the line item components no other project uses. Catalog components are kept.
+     * Callers append the main statement; {@code removed} returns the deleted project ids. The
+     * orphan check must exclude the doomed projects itself, since every part of the statement
+     * sees the rows as they were before it.
+     */
+    static String deleteProjectsSql(String selection) {
+        return "WITH doomed AS (" + selection + "), " +
+               "links AS (DELETE FROM project_components WHERE project_id IN (SELECT id FROM doomed) " +
+               "RETURNING component_id), " +
+               "orphans AS (DELETE FROM components c WHERE c.id IN (SELECT component_id FROM links) " +
+               "AND NOT c.in_catalog AND NOT EXISTS (SELECT 1 FROM project_components pc " +
+               "WHERE pc.component_id = c.id AND pc.project_id NOT IN (SELECT id FROM doomed))), " +
+               "removed AS (DELETE FROM projects WHERE id IN (SELECT id FROM doomed) RETURNING id) ";
+    }
 
-    private ProjectRepositoryImpl(Connection connection) {
-        this.connection = connection;
+    // One row per component, in input order. input is materialized so that the ids drawn for new
+    // components are the same in every part of the statement. The existing components are locked
+    // first, and FOR UPDATE reads their latest committed version, so the version check and the
+    // write below see the same rows and no concurrent update can slip in between. If any component
+    // was updated or deleted since it was loaded, the statement writes nothing and returns no row
+    // for it.
+    private static final String UPSERT_COMPONENTS_SQL =
+            "WITH input AS MATERIALIZED (" +
+            "SELECT COALESCE(t.given_id, nextval('components_id_seq')) AS id, t.* " +
+            "FROM unnest(?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::float8[], ?::float8[], ?::float8[], " +
+            "?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::float8[], ?::float8[]) WITH ORDINALITY AS " +
+            "t(given_id, version, type, name, tva_cost, unit_cost, quantite, transport_cost, coefficient_qualite, " +
+            "hourly_rate, work_hours, worker_productivity, quantity, ord)), " +
+            "locked AS (SELECT k.id, k.version FROM components k JOIN input ON k.id = input.given_id " +
+            "FOR UPDATE OF k), " +
+            "stale AS (SELECT 1 FROM input LEFT JOIN locked k ON k.id = input.given_id " +
+            "WHERE input.given_id IS NOT NULL AND k.version IS DISTINCT FROM input.version), " +
+            "c AS (INSERT INTO components (id, name, type, tva_cost) SELECT id, name, type, tva_cost FROM input " +
+            "WHERE NOT EXISTS (SELECT 1 FROM stale) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, tva_cost = EXCLUDED.tva_cost, " +
+            "version = components.version + 1 " +
+            "WHERE components.version = (SELECT i.version FROM input i WHERE i.id = EXCLUDED.id) " +
+            "RETURNING id, version), " +
+            "complete AS (SELECT (SELECT count(*) FROM c) = (SELECT count(*) FROM input) AS ok), " +
+            "m AS (INSERT INTO materials (id, unit_cost, quantite, transport_cost, coefficient_qualite) " +
+            "SELECT id, unit_cost, quantite, transport_cost, coefficient_qualite FROM input " +
+            "WHERE type = 'MATERIAL' AND (SELECT ok FROM complete) " +
+            "ON CONFLICT (id) DO UPDATE SET unit_cost = EXCLUDED.unit_cost, quantite = EXCLUDED.quantite, " +
+            "transport_cost = EXCLUDED.transport_cost, coefficient_qualite = EXCLUDED.coefficient_qualite), " +
+            "l AS (INSERT INTO labor (id, hourly_rate, work_hours, worker_productivity) " +
+            "SELECT id, hourly_rate, work_hours, worker_productivity FROM input " +
+            "WHERE type = 'LABOR' AND (SELECT ok FROM complete) " +
+            "ON CONFLICT (id) DO UPDATE SET hourly_rate = EXCLUDED.hourly_rate, work_hours = EXCLUDED.work_hours, " +
+            "worker_productivity = EXCLUDED.worker_productivity), " +
+            "pc AS (INSERT INTO project_components (project_id, component_id, quantity) " +
+            "SELECT ?, id, quantity FROM input WHERE (SELECT ok FROM complete) " +
+            "ON CONFLICT (project_id, component_id) DO UPDATE SET quantity = EXCLUDED.quantity) " +
+            "SELECT input.ord, c.id, c.version FROM input JOIN c ON c.id = input.id ORDER BY input.ord";
+
+    static final RowMapperFactory<ProjectSummary> PROJECT_SUMMARY_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int name = columns.indexOf("name");
+        int status = columns.indexOf("status");
+        int totalCost = columns.indexOf("total_cost");
+        int clientName = columns.indexOf("client_name");
+        return rs -> new ProjectSummary(
+                rs.getLong(id),
+                rs.getString(name),
+                ProjectStatus.fromDbValue(rs.getString(status)),
+                rs.getDouble(totalCost),
+                rs.getString(clientName));
+    };
+
+    private ProjectRepositoryImpl(DatabaseConnection database) {
+        this.database = database;
+        this.jdbcTemplate = new JdbcTemplate(database);
+        this.changes = ChangeNotifier.getInstance(database);
+        this.graphLoader = new ProjectGraphLoader(database, jdbcTemplate);
     }
 
-    public static synchronized ProjectRepositoryImpl getInstance(Connection connection) {
+    public static synchronized ProjectRepositoryImpl getInstance(DatabaseConnection database) {
         if (instance == null) {
-            instance = new ProjectRepositoryImpl(connection);
+            instance = new ProjectRepositoryImpl(database);
         }
         return instance;
     }
 
+    /**
+     * Inserts a project without an id and updates one with an id, without checking first which
+     * applies. An update of a row that was deleted meanwhile fails like a concurrent update.
+     */
     @Override
     public Project save(Project project) {
-        if (project.getId() != null && findById(project.getId()).isPresent()) {
-            return update(project);
-        } else {
-            return insertProject(project);
-        }
+        return project.getId() != null ? update(project) : insertProject(project);
     }
 
     private Project insertProject(Project project) {
+        if (project.getClient() == null || project.getClient().getId() == null) {
+            throw new IllegalArgumentException("Client ID cannot be null");
+        }
         String sql = "INSERT INTO projects (name, profit_margin, total_cost, status, surface, start_date, client_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, project.getProjectName());
-            pstmt.setDouble(2, project.getProfitMargin());
-            pstmt.setDouble(3, project.getTotalCost());
-            pstmt.setString(4, project.getProjectStatus().name());
-            pstmt.setDouble(5, project.getSurface());
-            pstmt.setDate(6, Date.valueOf(project.getStartDate()));
-            if (project.getClient() != null && project.getClient().getId() != null) {
-                pstmt.setLong(7, project.getClient().getId());
-            } else {
-                throw new IllegalArgumentException("Client ID cannot be null");
-            }
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating project failed, no rows affected.");
-            }
-
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    project.setId(generatedKeys.getLong(1));
-                    saveMaterialsAndLabor(project); // Save materials and labor
-                } else {
-                    throw new SQLException("Creating project failed, no ID obtained.");
-                }
+        try {
+            jdbcTemplate.execute(connection -> {
+                long id = jdbcTemplate.insertAndReturnKey(connection, sql, pstmt -> {
+                    pstmt.setString(1, project.getProjectName());
+                    pstmt.setDouble(2, project.getProfitMargin());
+                    pstmt.setDouble(3, project.getTotalCost());
+                    pstmt.setString(4, project.getProjectStatus().name());
+                    pstmt.setDouble(5, project.getSurface());
+                    pstmt.setDate(6, Date.valueOf(project.getStartDate()));
+                    pstmt.setLong(7, project.getClient().getId());
+                });
+                project.setId(id);
+                saveComponents(connection, id, project.getMaterials(), project.getLaborItems());
+                return null;
+            });
+            changes.publish("projects", project.getId());
+            IdentityMap identityMap = database.currentIdentityMap();
+            if (identityMap != null) {
+                identityMap.replace(Project.class, project.getId(), project);
             }
         } catch (SQLException e) {
             throw new RuntimeException("Error saving project", e);
@@ -76,18 +157,105 @@ public class ProjectRepositoryImpl implements ProjectRepository {
         return project;
     }
 
-    private void saveMaterialsAndLabor(Project project) throws SQLException {
-        for (Material material : project.getMaterials()) {
-            saveMaterial(material, project.getId());
+    @Override
+    public void saveMaterial(Material material, Long projectId) throws SQLException {
+        saveComponents(projectId, Collections.singletonList(material), Collections.emptyList());
+    }
+
+    @Override
+    public void saveLabor(Labor labor, Long projectId) throws SQLException {
+        saveComponents(projectId, Collections.emptyList(), Collections.singletonList(labor));
+    }
+
+    @Override
+    public void saveComponents(Long projectId, List<Material> materials, List<Labor> laborItems) throws SQLException {
+        jdbcTemplate.execute(connection -> {
+            saveComponents(connection, projectId, materials, laborItems);
+            return null;
+        });
+        changes.publish("projects", projectId);
+    }
+
+    /**
+     * Writes all materials and labor of a project in one statement: components without an id are
+     * inserted, the others updated (or re-inserted under their id if they were deleted), and their
+     * links to the project upserted with the current quantity. The ids and versions the database
+     * returns are set on the components.
+     */
+    private void saveComponents(Connection connection, Long projectId, List<Material> materials,
+            List<Labor> laborItems) throws SQLException {
+        if (materials.isEmpty() && laborItems.isEmpty()) {
+            return;
+        }
+        if (projectId == null) {
+            throw new IllegalArgumentException("Project must be saved before its components");
+        }
+        materials.forEach(this::validateMaterial);
+
+        List<Component> components = new ArrayList<>(materials);
+        components.addAll(laborItems);
+        int size = components.size();
+        Long[] ids = new Long[size];
+        Long[] versions = new Long[size];
+        String[] types = new String[size];
+        String[] names = new String[size];
+        Double[][] values = new Double[9][size];
+        for (int i = 0; i < size; i++) {
+            Component component = components.get(i);
+            ids[i] = component.getId();
+            versions[i] = component.getVersion();
+            names[i] = component.getName();
+            values[0][i] = component.getVatRate();
+            if (component instanceof Material) {
+                Material material = (Material) component;
+                types[i] = "MATERIAL";
+                values[1][i] = material.getUnitCost();
+                values[2][i] = material.getQuantity();
+                values[3][i] = material.getTransportCost();
+                values[4][i] = material.getQualityCoefficient();
+                values[8][i] = material.getQuantity();
+            } else {
+                Labor labor = (Labor) component;
+                types[i] = "LABOR";
+                values[5][i] = labor.getHourlyRate();
+                values[6][i] = labor.getHoursWorked();
+                values[7][i] = labor.getWorkerProductivity();
+                values[8][i] = labor.getHoursWorked();
+            }
+        }
+
+        database.recordWrite();
+        List<long[]> rows = jdbcTemplate.query(connection, UPSERT_COMPONENTS_SQL, pstmt -> {
+            pstmt.setArray(1, connection.createArrayOf("bigint", ids));
+            pstmt.setArray(2, connection.createArrayOf("bigint", versions));
+            pstmt.setArray(3, connection.createArrayOf("text", types));
+            pstmt.setArray(4, connection.createArrayOf("text", names));
+            for (int column = 0; column < 9; column++) {
+                pstmt.setArray(5 + column, connection.createArrayOf("float8", values[column]));
+            }
+            pstmt.setLong(14, projectId);
+        }, columns -> rs -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3) });
+        if (rows.size() != size) {
+            boolean[] written = new boolean[size];
+            for (long[] row : rows) {
+                written[(int) row[0] - 1] = true;
+            }
+            for (int i = 0; i < size; i++) {
+                Component component = components.get(i);
+                if (!written[i] && component.getId() != null) {
+                    throw new OptimisticLockException("Component", component.getId(), component.getVersion());
+                }
+            }
+            throw new SQLException("Component upsert returned " + rows.size() + " rows for " + size + " components");
         }
-        for (Labor labor : project.getLaborItems()) {
-            saveLabor(labor, project.getId());
+        for (long[] row : rows) {
+            Component component = components.get((int) row[0] - 1);
+            component.setId(row[1]);
+            component.setVersion(row[2]);
         }
     }
 
-    @Override
-    public void saveMaterial(Material material, Long projectId) throws SQLException {
-        // Validate input values
+    private void validateMaterial(Material material) {
         if (material.getUnitCost() > 999.99) {
             throw new IllegalArgumentException("Unit cost exceeds the maximum allowed value");
         }
@@ -100,354 +268,145 @@ public class ProjectRepositoryImpl implements ProjectRepository {
         if (material.getQualityCoefficient() > 9.99) {
             throw new IllegalArgumentException("Quality coefficient exceeds the maximum allowed value");
         }
-
-        // Check if the material already exists
-        if (material.getId() != null && findMaterialById(material.getId()).isPresent()) {
-            updateMaterial(material);
-            linkMaterialToProject(material, projectId);
-            return;
-        }
-
-        // First, insert into the components table
-        String componentSql = "INSERT INTO components (name, type, tva_cost) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(componentSql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, material.getName());
-            pstmt.setString(2, "MATERIAL");
-            pstmt.setDouble(3, material.getVatRate());
-            pstmt.executeUpdate();
-
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    material.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating component failed, no ID obtained.");
-                }
-            }
-        }
-
-        // Then, insert into the materials table
-        String materialSql = "INSERT INTO materials (id, unit_cost, quantite, transport_cost, coefficient_qualite) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(materialSql)) {
-            pstmt.setLong(1, material.getId());
-            pstmt.setDouble(2, material.getUnitCost());
-            pstmt.setDouble(3, material.getQuantity());
-            pstmt.setDouble(4, material.getTransportCost());
-            pstmt.setDouble(5, material.getQualityCoefficient());
-            pstmt.executeUpdate();
-        }
-
-        // Finally, link the material to the project in the project_components table
-        linkMaterialToProject(material, projectId);
     }
 
-    private void linkMaterialToProject(Material material, Long projectId) throws SQLException {
-        String projectComponentSql = "INSERT INTO project_components (project_id, component_id, quantity) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(projectComponentSql)) {
-            pstmt.setLong(1, projectId);
-            pstmt.setLong(2, material.getId());
-            pstmt.setDouble(3, material.getQuantity());
-            pstmt.executeUpdate();
-        }
-    }
 
     @Override
-    public void saveLabor(Labor labor, Long projectId) throws SQLException {
-        // Check if the labor already exists
-        if (labor.getId() != null && findLaborById(labor.getId()).isPresent()) {
-            updateLabor(labor);
-            linkLaborToProject(labor, projectId);
-            return;
-        }
-
-        // First, insert into the components table
-        String componentSql = "INSERT INTO components (name, type, tva_cost) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(componentSql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, labor.getName());
-            pstmt.setString(2, "LABOR");
-            pstmt.setDouble(3, labor.getVatRate());
-            pstmt.executeUpdate();
+    public Optional<Project> findById(Long id) {
+        return findById(id, FetchPlan.PRICING);
+    }
 
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    labor.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating component failed, no ID obtained.");
-                }
-            }
+    @Override
+    public Optional<Project> findById(Long id, FetchPlan plan) {
+        IdentityMap identityMap = database.currentIdentityMap();
+        Project known = identityMap != null ? identityMap.get(Project.class, id) : null;
+        if (known != null) {
+            ProjectGraphLoader.ensureLoaded(known, plan);
+            return Optional.of(known);
         }
-
-        // Then, insert into the labor table
-        String laborSql = "INSERT INTO labor (id, hourly_rate, work_hours, worker_productivity) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(laborSql)) {
-            pstmt.setLong(1, labor.getId());
-            pstmt.setDouble(2, labor.getHourlyRate());
-            pstmt.setDouble(3, labor.getHoursWorked());
-            pstmt.setDouble(4, labor.getWorkerProductivity());
-            pstmt.executeUpdate();
+        try {
+            return jdbcTemplate.execute(connection -> graphLoader.load(jdbcTemplate, connection,
+                    "SELECT * FROM projects WHERE id = ?", pstmt -> pstmt.setLong(1, id), plan))
+                    .stream()
+                    .findFirst();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding project by id", e);
         }
+    }
 
-        // Finally, link the labor to the project in the project_components table
-        linkLaborToProject(labor, projectId);
+    @Override
+    public List<Project> findAll() {
+        return findAll(FetchPlan.PRICING);
     }
 
-    private void linkLaborToProject(Labor labor, Long projectId) throws SQLException {
-        String projectComponentSql = "INSERT INTO project_components (project_id, component_id, quantity) VALUES (?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(projectComponentSql)) {
-            pstmt.setLong(1, projectId);
-            pstmt.setLong(2, labor.getId());
-            pstmt.setDouble(3, labor.getHoursWorked());
-            pstmt.executeUpdate();
+    @Override
+    public List<Project> findAll(FetchPlan plan) {
+        try {
+            JdbcTemplate reads = jdbcTemplate.forReads();
+            return reads.execute(connection ->
+                    graphLoader.load(reads, connection, "SELECT * FROM projects ORDER BY id", StatementBinder.NONE, plan));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding all projects", e);
         }
     }
 
     @Override
-    public Optional<Project> findById(Long id) {
-        String sql = "SELECT * FROM projects WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToProject(rs));
-            }
+    public List<ProjectSummary> findAllSummaries() {
+        try {
+            return jdbcTemplate.forReads().query(SELECT_SUMMARIES + " ORDER BY p.id", StatementBinder.NONE,
+                    PROJECT_SUMMARY_MAPPER);
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding project by id", e);
+            throw new RuntimeException("Error finding project summaries", e);
         }
-        return Optional.empty();
     }
 
     @Override
-    public List<Project> findAll() {
-        List<Project> projects = new ArrayList<>();
-        String sql = "SELECT * FROM projects";
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                projects.add(mapResultSetToProject(rs));
-            }
+    public Optional<ProjectSummary> findSummaryByName(String name) {
+        String sql = SELECT_SUMMARIES + " WHERE p.name = ? ORDER BY p.id LIMIT 1";
+        try {
+            return jdbcTemplate.forReads().queryForOptional(sql, pstmt -> pstmt.setString(1, name),
+                    PROJECT_SUMMARY_MAPPER);
         } catch (SQLException e) {
-            throw new RuntimeException("Error finding all projects", e);
+            throw new RuntimeException("Error finding project summary by name", e);
         }
-        return projects;
     }
 
     @Override
     public Optional<Project> findByName(String name) {
-        String sql = "SELECT * FROM projects WHERE name = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, name);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToProject(rs));
-            }
+        return findByName(name, FetchPlan.PRICING);
+    }
+
+    @Override
+    public Optional<Project> findByName(String name, FetchPlan plan) {
+        String sql = "SELECT * FROM projects WHERE name = ? ORDER BY id LIMIT 1";
+        try {
+            JdbcTemplate reads = jdbcTemplate.forReads();
+            return reads.execute(connection -> graphLoader.load(reads, connection, sql, pstmt -> pstmt.setString(1, name), plan))
+                    .stream()
+                    .findFirst();
         } catch (SQLException e) {
             throw new RuntimeException("Error finding project by name", e);
         }
-        return Optional.empty();
     }
 
     @Override
     public List<Project> findByStatus(ProjectStatus status) {
-        List<Project> projects = new ArrayList<>();
-        String sql = "SELECT * FROM projects WHERE status = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, status.name());
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                projects.add(mapResultSetToProject(rs));
-            }
+        String sql = "SELECT * FROM projects WHERE status = ? ORDER BY id";
+        try {
+            JdbcTemplate reads = jdbcTemplate.forReads();
+            return reads.execute(connection -> graphLoader.load(reads, connection, sql, pstmt -> pstmt.setString(1, status.name()), FetchPlan.PRICING));
         } catch (SQLException e) {
             throw new RuntimeException("Error finding projects by status", e);
         }
-        return projects;
     }
 
     @Override
     public void delete(Long id) {
-        String sql = "DELETE FROM projects WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+        String sql = deleteProjectsSql("SELECT id FROM projects WHERE id = ?") + "SELECT id FROM removed";
+        try {
+            jdbcTemplate.execute(connection -> {
+                database.recordWrite();
+                return jdbcTemplate.query(connection, sql, pstmt -> pstmt.setLong(1, id), columns -> rs -> rs.getLong(1));
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting project", e);
         }
+        changes.publish("projects", id);
+        IdentityMap identityMap = database.currentIdentityMap();
+        if (identityMap != null) {
+            identityMap.remove(Project.class, id);
+        }
     }
 
     @Override
     public Project update(Project project) {
-        String sql = "UPDATE projects SET name = ?, profit_margin = ?, total_cost = ?, status = ?, surface = ?, start_date = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, project.getProjectName());
-            pstmt.setDouble(2, project.getProfitMargin());
-            pstmt.setDouble(3, project.getTotalCost());
-            pstmt.setString(4, project.getProjectStatus().name());
-            pstmt.setDouble(5, project.getSurface());
-            pstmt.setDate(6, Date.valueOf(project.getStartDate()));
-            pstmt.setLong(7, project.getId());
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Updating project failed, no rows affected.");
-            }
+        String sql = "UPDATE projects SET name = ?, profit_margin = ?, total_cost = ?, status = ?, surface = ?, start_date = ?, " +
+                     "version = version + 1 WHERE id = ? AND version = ?";
+        int affectedRows;
+        try {
+            affectedRows = jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setString(1, project.getProjectName());
+                pstmt.setDouble(2, project.getProfitMargin());
+                pstmt.setDouble(3, project.getTotalCost());
+                pstmt.setString(4, project.getProjectStatus().name());
+                pstmt.setDouble(5, project.getSurface());
+                pstmt.setDate(6, Date.valueOf(project.getStartDate()));
+                pstmt.setLong(7, project.getId());
+                pstmt.setLong(8, project.getVersion());
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error updating project", e);
         }
-        return findById(project.getId()).orElseThrow(() -> new RuntimeException("Updated project not found"));
-    }
-
-    private Project mapResultSetToProject(ResultSet rs) throws SQLException {
-        Project project = new Project(
-                rs.getString("name"),
-                rs.getDouble("surface"),
-                rs.getDate("start_date").toLocalDate(),
-                ProjectStatus.fromDbValue(rs.getString("status")),
-                null);
-        project.setId(rs.getLong("id"));
-        project.setProfitMargin(rs.getDouble("profit_margin"));
-        project.setTotalCost(rs.getDouble("total_cost"));
-
-        // Retrieve and set materials
-        project.setMaterials(findMaterialsByProjectId(project.getId()));
-
-        // Retrieve and set labor items
-        project.setLaborItems(findLaborByProjectId(project.getId()));
-
-        // Retrieve and set client
-        project.setClient(findClientById(rs.getLong("client_id")));
-
-        return project;
-    }
-
-    private List<Material> findMaterialsByProjectId(Long projectId) throws SQLException {
-        List<Material> materials = new ArrayList<>();
-        String sql = "SELECT c.id, c.name, c.tva_cost, m.unit_cost, m.quantite, m.transport_cost, m.coefficient_qualite "
-                +
-                "FROM components c " +
-                "JOIN materials m ON c.id = m.id " +
-                "JOIN project_components pc ON c.id = pc.component_id " +
-                "WHERE pc.project_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, projectId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Material material = new Material(
-                        rs.getString("name"),
-                        rs.getDouble("tva_cost"),
-                        rs.getDouble("unit_cost"),
-                        rs.getDouble("quantite"),
-                        rs.getDouble("transport_cost"),
-                        rs.getDouble("coefficient_qualite"));
-                material.setId(rs.getLong("id"));
-                materials.add(material);
-            }
-        }
-        return materials;
-    }
-
-    private List<Labor> findLaborByProjectId(Long projectId) throws SQLException {
-        List<Labor> laborItems = new ArrayList<>();
-        String sql = "SELECT c.id, c.name, c.tva_cost, l.hourly_rate, l.work_hours, l.worker_productivity " +
-                "FROM components c " +
-                "JOIN labor l ON c.id = l.id " +
-                "JOIN project_components pc ON c.id = pc.component_id " +
-                "WHERE pc.project_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, projectId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                Labor labor = new Labor(
-                        rs.getString("name"),
-                        rs.getDouble("tva_cost"),
-                        rs.getDouble("hourly_rate"),
-                        rs.getDouble("work_hours"),
-                        rs.getDouble("worker_productivity"));
-                labor.setId(rs.getLong("id"));
-                laborItems.add(labor);
-            }
+        if (affectedRows == 0) {
+            throw new OptimisticLockException("Project", project.getId(), project.getVersion());
         }
-        return laborItems;
-    }
-
-    private Client findClientById(Long clientId) throws SQLException {
-        String sql = "SELECT * FROM clients WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, clientId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new Client(
-                        rs.getString("name"),
-                        rs.getString("email"),
-                        rs.getString("phone_number"),
-                        rs.getString("address"),
-                        rs.getBoolean("is_professional"),
-                        rs.getDouble("discount_rate"));
-            }
-        }
-        return null;
-    }
-
-    private Optional<Material> findMaterialById(Long id) throws SQLException {
-        String sql = "SELECT * FROM materials WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToMaterial(rs));
-            }
-        }
-        return Optional.empty();
-    }
-
-    private Optional<Labor> findLaborById(Long id) throws SQLException {
-        String sql = "SELECT * FROM labor WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToLabor(rs));
-            }
-        }
-        return Optional.empty();
-    }
-
-    private Material mapResultSetToMaterial(ResultSet rs) throws SQLException {
-        return new Material(
-            rs.getString("name"),
-            rs.getDouble("tva_cost"),
-            rs.getDouble("unit_cost"),
-            rs.getDouble("quantite"),
-            rs.getDouble("transport_cost"),
-            rs.getDouble("coefficient_qualite")
-        );
-    }
-    
-    private Labor mapResultSetToLabor(ResultSet rs) throws SQLException {
-        return new Labor(
-            rs.getString("name"),
-            rs.getDouble("tva_cost"),
-            rs.getDouble("hourly_rate"),
-            rs.getDouble("work_hours"),
-            rs.getDouble("worker_productivity")
-        );
-    }
-    private void updateMaterial(Material material) throws SQLException {
-        String sql = "UPDATE materials SET unit_cost= ?, quantite = ?, transport_cost = ?, coefficient_qualite = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setDouble(1, material.getUnitCost());
-            pstmt.setDouble(2, material.getQuantity());
-            pstmt.setDouble(3, material.getTransportCost());
-            pstmt.setDouble(4, material.getQualityCoefficient());
-            pstmt.setLong(5, material.getId());
-            pstmt.executeUpdate();
-        }
-    }
-
-    private void updateLabor(Labor labor) throws SQLException {
-        String sql = "UPDATE labor SET hourly_rate = ?, work_hours = ?, worker_productivity = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setDouble(1, labor.getHourlyRate());
-            pstmt.setDouble(2, labor.getHoursWorked());
-            pstmt.setDouble(3, labor.getWorkerProductivity());
-            pstmt.setLong(4, labor.getId());
-            pstmt.executeUpdate();
+        project.setVersion(project.getVersion() + 1);
+        changes.publish("projects", project.getId());
+        // The caller's instance now matches the row, so it becomes the unit of work's copy
+        IdentityMap identityMap = database.currentIdentityMap();
+        if (identityMap != null) {
+            identityMap.replace(Project.class, project.getId(), project);
         }
+        return project;
     }
-}
\ No newline at end of file
+}
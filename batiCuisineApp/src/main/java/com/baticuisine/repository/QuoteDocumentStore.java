@@ -0,0 +1,17 @@
+package com.baticuisine.repository;
+
+/**
+ * Content-addressed storage for rendered quote documents. Documents are stored compressed under
+ * the SHA-256 of their text, so storing a document that is already there writes nothing.
+ */
+public interface QuoteDocumentStore {
+    /**
+     * @return the document's hash, to be passed to {@link #get}
+     */
+    String put(String content);
+
+    /**
+     * @return the document stored under {@code hash}, or {@code null} if there is none
+     */
+    String get(String hash);
+}
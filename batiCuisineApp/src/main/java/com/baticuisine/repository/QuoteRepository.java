@@ -1,15 +1,50 @@
 package com.baticuisine.repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteLine;
+import com.baticuisine.model.QuoteSummary;
 
 public interface QuoteRepository {
+    /**
+     * Inserts the quote together with its priced lines.
+     */
     Quote save(Quote quote);
     Optional<Quote> findById(Long id);
+
+    /**
+     * Looks the quote up in the partition of {@code issueDate} only. Prefer it to
+     * {@link #findById(Long)} whenever the issue date is known.
+     */
+    Optional<Quote> findById(Long id, LocalDate issueDate);
     List<Quote> findAll();
     List<Quote> findByProjectId(Long projectId);
-    void delete(Long id);
+    List<QuoteSummary> findSummariesByProjectId(Long projectId);
+
+    /**
+     * The quote's priced lines in line order.
+     */
+    List<QuoteLine> findLines(Long quoteId);
+
+    /**
+     * Quotes with a material or labor line whose description contains {@code description},
+     * ignoring case, newest first.
+     */
+    List<QuoteSummary> findSummariesWithItem(String description);
+
+    /**
+     * Quotes neither accepted nor expired on {@code today}, soonest to expire first. Only the
+     * partitions of the last year are read.
+     */
+    List<QuoteSummary> findOpenSummaries(LocalDate today);
+    void delete(Long id, LocalDate issueDate);
+
+    /**
+     * Saves the quote's fields except its issue date, which places it in its partition and
+     * never changes.
+     */
     void update(Quote quote);
 }
\ No newline at end of file
@@ -1,57 +1,191 @@
 package com.baticuisine.repository;
 
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Date;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-import com.baticuisine.model.Client;
+import com.baticuisine.database.ChangeNotifier;
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.IdentityMap;
 import com.baticuisine.model.Project;
 import com.baticuisine.model.Quote;
-import com.baticuisine.model.enums.ProjectStatus;
+import com.baticuisine.model.QuoteLine;
+import com.baticuisine.model.QuoteSummary;
+import com.baticuisine.model.enums.QuoteLineKind;
+import com.baticuisine.utils.PropertyLoader;
 
 public class QuoteRepositoryImpl implements QuoteRepository {
+    /**
+     * Upper bound of validity_date - issue_date, enforced by a CHECK on quotes. It turns a bound on
+     * validity_date into one on issue_date, the partition key.
+     */
+    static final int MAX_VALIDITY_DAYS = 366;
+
     private static QuoteRepositoryImpl instance;
-    private final Connection connection;
+    private final DatabaseConnection database;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeNotifier changes;
+    private final ProjectGraphLoader graphLoader;
+    private final QuoteDocumentStore documents;
+
+    static final RowMapperFactory<Quote> QUOTE_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int totalCost = columns.indexOf("total_cost");
+        int issueDate = columns.indexOf("issue_date");
+        int validityDate = columns.indexOf("validity_date");
+        int isAccepted = columns.indexOf("is_accepted");
+        int version = columns.indexOf("version");
+        int documentHash = columns.indexOf("document_hash");
+        return rs -> {
+            Quote quote = new Quote(
+                    rs.getDouble(totalCost),
+                    rs.getDate(issueDate).toLocalDate(),
+                    rs.getDate(validityDate).toLocalDate(),
+                    null);
+            quote.setId(rs.getLong(id));
+            quote.setAccepted(rs.getBoolean(isAccepted));
+            quote.setVersion(rs.getLong(version));
+            quote.setDocumentHash(rs.getString(documentHash));
+            return quote;
+        };
+    };
+
+    private static final RowMapperFactory<QuoteRow> QUOTE_ROW_MAPPER = columns -> {
+        RowMapper<Quote> quoteMapper = QUOTE_MAPPER.compile(columns);
+        int projectId = columns.indexOf("project_id");
+        return rs -> new QuoteRow(quoteMapper.mapRow(rs), rs.getLong(projectId));
+    };
+
+    static final RowMapperFactory<QuoteSummary> QUOTE_SUMMARY_MAPPER = columns -> {
+        int id = columns.indexOf("id");
+        int projectId = columns.indexOf("project_id");
+        int totalCost = columns.indexOf("total_cost");
+        int issueDate = columns.indexOf("issue_date");
+        int validityDate = columns.indexOf("validity_date");
+        int isAccepted = columns.indexOf("is_accepted");
+        return rs -> new QuoteSummary(
+                rs.getLong(id),
+                rs.getLong(projectId),
+                rs.getDouble(totalCost),
+                rs.getDate(issueDate).toLocalDate(),
+                rs.getDate(validityDate).toLocalDate(),
+                rs.getBoolean(isAccepted));
+    };
 
-    private QuoteRepositoryImpl(Connection connection) {
-        this.connection = connection;
+    static final RowMapperFactory<QuoteLine> QUOTE_LINE_MAPPER = columns -> {
+        int lineNo = columns.indexOf("line_no");
+        int kind = columns.indexOf("kind");
+        int componentId = columns.indexOf("component_id");
+        int description = columns.indexOf("description");
+        int quantity = columns.indexOf("quantity");
+        int unitPrice = columns.indexOf("unit_price");
+        int coefficient = columns.indexOf("coefficient");
+        int extraCost = columns.indexOf("extra_cost");
+        int rate = columns.indexOf("rate");
+        int amount = columns.indexOf("amount");
+        return rs -> {
+            QuoteLine line = new QuoteLine(
+                    QuoteLineKind.valueOf(rs.getString(kind)),
+                    rs.getString(description),
+                    rs.getDouble(amount));
+            line.setLineNo(rs.getInt(lineNo));
+            long component = rs.getLong(componentId);
+            line.setComponentId(rs.wasNull() ? null : component);
+            line.setQuantity(nullableDouble(rs, quantity));
+            line.setUnitPrice(nullableDouble(rs, unitPrice));
+            line.setCoefficient(nullableDouble(rs, coefficient));
+            line.setExtraCost(nullableDouble(rs, extraCost));
+            line.setRate(nullableDouble(rs, rate));
+            return line;
+        };
+    };
+
+    // Inserts the quote and all its lines in one statement, so they are saved together or not at all
+    private static final String INSERT_QUOTE_SQL =
+            "WITH q AS (INSERT INTO quotes (total_cost, issue_date, validity_date, project_id, document_hash) " +
+            "VALUES (?, ?, ?, ?, ?) RETURNING id, issue_date), " +
+            "lines AS (INSERT INTO quote_lines (quote_id, issue_date, line_no, kind, component_id, description, " +
+            "quantity, unit_price, coefficient, extra_cost, rate, amount) " +
+            "SELECT q.id, q.issue_date, t.line_no, t.kind, t.component_id, t.description, t.quantity, " +
+            "t.unit_price, t.coefficient, t.extra_cost, t.rate, t.amount " +
+            "FROM q, unnest(?::int[], ?::text[], ?::bigint[], ?::text[], ?::float8[], ?::float8[], ?::float8[], " +
+            "?::float8[], ?::float8[], ?::float8[]) AS t(line_no, kind, component_id, description, quantity, " +
+            "unit_price, coefficient, extra_cost, rate, amount)) " +
+            "SELECT id FROM q";
+
+    private QuoteRepositoryImpl(DatabaseConnection database) {
+        this.database = database;
+        this.jdbcTemplate = new JdbcTemplate(database);
+        this.changes = ChangeNotifier.getInstance(database);
+        this.graphLoader = new ProjectGraphLoader(database, jdbcTemplate);
+        this.documents = documentStore(database);
     }
 
-    public static synchronized QuoteRepositoryImpl getInstance(Connection connection) {
+    public static synchronized QuoteRepositoryImpl getInstance(DatabaseConnection database) {
         if (instance == null) {
-            instance = new QuoteRepositoryImpl(connection);
+            instance = new QuoteRepositoryImpl(database);
         }
         return instance;
     }
 
     @Override
     public Quote save(Quote quote) {
-        String sql = "INSERT INTO quotes (total_cost, issue_date, validity_date, project_id, content) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setDouble(1, quote.getTotalCost());
-            pstmt.setDate(2, Date.valueOf(quote.getIssueDate()));
-            pstmt.setDate(3, Date.valueOf(quote.getValidityDate()));
-            pstmt.setLong(4, quote.getProject().getId());
-            pstmt.setString(5, quote.getContent());
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating quote failed, no rows affected.");
-            }
-
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    quote.setId(generatedKeys.getLong(1));
-                } else {
-                    throw new SQLException("Creating quote failed, no ID obtained.");
-                }
-            }
+        List<QuoteLine> lines = quote.getLines() != null ? quote.getLines() : new ArrayList<>();
+        int size = lines.size();
+        Integer[] lineNos = new Integer[size];
+        String[] kinds = new String[size];
+        Long[] componentIds = new Long[size];
+        String[] descriptions = new String[size];
+        Double[][] values = new Double[6][size];
+        for (int i = 0; i < size; i++) {
+            QuoteLine line = lines.get(i);
+            lineNos[i] = line.getLineNo();
+            kinds[i] = line.getKind().name();
+            componentIds[i] = line.getComponentId();
+            descriptions[i] = line.getDescription();
+            values[0][i] = line.getQuantity();
+            values[1][i] = line.getUnitPrice();
+            values[2][i] = line.getCoefficient();
+            values[3][i] = line.getExtraCost();
+            values[4][i] = line.getRate();
+            values[5][i] = line.getAmount();
+        }
+        // Stored first: an orphaned document is harmless, a quote pointing at a missing one is not.
+        // A quote whose document is already stored carries its hash.
+        String documentHash = quote.getDocumentHash() != null || quote.getContent() == null
+                ? quote.getDocumentHash()
+                : documents.put(quote.getContent());
+        try {
+            long id = jdbcTemplate.execute(connection -> {
+                database.recordWrite();
+                return jdbcTemplate.queryForLong(connection, INSERT_QUOTE_SQL, pstmt -> {
+                    pstmt.setDouble(1, quote.getTotalCost());
+                    pstmt.setDate(2, Date.valueOf(quote.getIssueDate()));
+                    pstmt.setDate(3, Date.valueOf(quote.getValidityDate()));
+                    pstmt.setLong(4, quote.getProject().getId());
+                    pstmt.setString(5, documentHash);
+                    pstmt.setArray(6, connection.createArrayOf("int4", lineNos));
+                    pstmt.setArray(7, connection.createArrayOf("text", kinds));
+                    pstmt.setArray(8, connection.createArrayOf("bigint", componentIds));
+                    pstmt.setArray(9, connection.createArrayOf("text", descriptions));
+                    for (int column = 0; column < 6; column++) {
+                        pstmt.setArray(10 + column, connection.createArrayOf("float8", values[column]));
+                    }
+                });
+            });
+            quote.setId(id);
+            quote.setDocumentHash(documentHash);
+            changes.publish("quotes", id);
         } catch (SQLException e) {
             throw new RuntimeException("Error saving quote", e);
         }
@@ -60,132 +194,206 @@ public class QuoteRepositoryImpl implements QuoteRepository {
 
     @Override
     public Optional<Quote> findById(Long id) {
-        String sql = "SELECT * FROM quotes WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        return findById(id, "SELECT * FROM quotes WHERE id = ?", pstmt -> pstmt.setLong(1, id));
+    }
+
+    @Override
+    public Optional<Quote> findById(Long id, LocalDate issueDate) {
+        return findById(id, "SELECT * FROM quotes WHERE id = ? AND issue_date = ?", pstmt -> {
             pstmt.setLong(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return Optional.of(mapResultSetToQuote(rs));
-            }
+            pstmt.setDate(2, Date.valueOf(issueDate));
+        });
+    }
+
+    private Optional<Quote> findById(Long id, String sql, StatementBinder binder) {
+        IdentityMap identityMap = database.currentIdentityMap();
+        Quote known = identityMap != null ? identityMap.get(Quote.class, id) : null;
+        if (known != null) {
+            return Optional.of(known);
+        }
+        try {
+            return loadQuotes(jdbcTemplate, sql, binder)
+                    .stream()
+                    .findFirst();
         } catch (SQLException e) {
             throw new RuntimeException("Error finding quote by id", e);
         }
-        return Optional.empty();
     }
 
     @Override
     public List<Quote> findAll() {
-        List<Quote> quotes = new ArrayList<>();
-        String sql = "SELECT * FROM quotes";
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                quotes.add(mapResultSetToQuote(rs));
-            }
+        try {
+            return loadQuotes(jdbcTemplate.forReads(), "SELECT * FROM quotes ORDER BY id", StatementBinder.NONE);
         } catch (SQLException e) {
             throw new RuntimeException("Error finding all quotes", e);
         }
-        return quotes;
     }
 
     @Override
     public List<Quote> findByProjectId(Long projectId) {
-        List<Quote> quotes = new ArrayList<>();
-        String sql = "SELECT * FROM quotes WHERE project_id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, projectId);
-            ResultSet rs = pstmt.executeQuery();
-            while (rs.next()) {
-                quotes.add(mapResultSetToQuote(rs));
-            }
+        String sql = "SELECT * FROM quotes WHERE project_id = ? ORDER BY issue_date, id";
+        try {
+            return loadQuotes(jdbcTemplate.forReads(), sql, pstmt -> pstmt.setLong(1, projectId));
         } catch (SQLException e) {
             throw new RuntimeException("Error finding quotes by project id", e);
         }
-        return quotes;
     }
 
     @Override
-    public void delete(Long id) {
-        String sql = "DELETE FROM quotes WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, id);
-            pstmt.executeUpdate();
+    public List<QuoteLine> findLines(Long quoteId) {
+        String sql = "SELECT * FROM quote_lines WHERE quote_id = ? ORDER BY line_no";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> pstmt.setLong(1, quoteId), QUOTE_LINE_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding quote lines", e);
+        }
+    }
+
+    @Override
+    public List<QuoteSummary> findSummariesWithItem(String description) {
+        // The LIKE on lower(description) is served by the trigram index on quote_lines
+        String sql = "SELECT id, project_id, total_cost, issue_date, validity_date, is_accepted FROM quotes " +
+                "WHERE (id, issue_date) IN (SELECT quote_id, issue_date FROM quote_lines " +
+                "WHERE kind IN ('MATERIAL', 'LABOR') AND lower(description) LIKE ? ESCAPE '\\') " +
+                "ORDER BY issue_date DESC, id";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> pstmt.setString(1,
+                    "%" + ClientRepositoryImpl.escapeLike(description.toLowerCase(Locale.ROOT)) + "%"),
+                    QUOTE_SUMMARY_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding quotes by item", e);
+        }
+    }
+
+    @Override
+    public List<QuoteSummary> findSummariesByProjectId(Long projectId) {
+        String sql = "SELECT id, project_id, total_cost, issue_date, validity_date, is_accepted " +
+                "FROM quotes WHERE project_id = ? ORDER BY issue_date, id";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> pstmt.setLong(1, projectId), QUOTE_SUMMARY_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding quote summaries by project id", e);
+        }
+    }
+
+    @Override
+    public List<QuoteSummary> findOpenSummaries(LocalDate today) {
+        String sql = "SELECT id, project_id, total_cost, issue_date, validity_date, is_accepted " +
+                "FROM quotes WHERE NOT is_accepted AND validity_date >= ? AND issue_date >= ? " +
+                "ORDER BY validity_date, id";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> {
+                pstmt.setDate(1, Date.valueOf(today));
+                pstmt.setDate(2, Date.valueOf(today.minusDays(MAX_VALIDITY_DAYS)));
+            }, QUOTE_SUMMARY_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding open quotes", e);
+        }
+    }
+
+    @Override
+    public void delete(Long id, LocalDate issueDate) {
+        String sql = "DELETE FROM quotes WHERE id = ? AND issue_date = ?";
+        try {
+            jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setLong(1, id);
+                pstmt.setDate(2, Date.valueOf(issueDate));
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error deleting quote", e);
         }
+        changes.publish("quotes", id);
+        IdentityMap identityMap = database.currentIdentityMap();
+        if (identityMap != null) {
+            identityMap.remove(Quote.class, id);
+        }
     }
 
     @Override
     public void update(Quote quote) {
-        String sql = "UPDATE quotes SET total_cost = ?, issue_date = ?, validity_date = ?, project_id = ? WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setDouble(1, quote.getTotalCost());
-            pstmt.setDate(2, Date.valueOf(quote.getIssueDate()));
-            pstmt.setDate(3, Date.valueOf(quote.getValidityDate()));
-            pstmt.setLong(4, quote.getProject().getId());
-            pstmt.setLong(5, quote.getId());
-            pstmt.executeUpdate();
+        String sql = "UPDATE quotes SET total_cost = ?, validity_date = ?, project_id = ?, is_accepted = ?, " +
+                     "version = version + 1 WHERE id = ? AND issue_date = ? AND version = ?";
+        int affectedRows;
+        try {
+            affectedRows = jdbcTemplate.update(sql, pstmt -> {
+                pstmt.setDouble(1, quote.getTotalCost());
+                pstmt.setDate(2, Date.valueOf(quote.getValidityDate()));
+                pstmt.setLong(3, quote.getProject().getId());
+                pstmt.setBoolean(4, quote.isAccepted());
+                pstmt.setLong(5, quote.getId());
+                pstmt.setDate(6, Date.valueOf(quote.getIssueDate()));
+                pstmt.setLong(7, quote.getVersion());
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Error updating quote", e);
         }
+        if (affectedRows == 0) {
+            throw new OptimisticLockException("Quote", quote.getId(), quote.getVersion());
+        }
+        quote.setVersion(quote.getVersion() + 1);
+        changes.publish("quotes", quote.getId());
     }
 
-    private Quote mapResultSetToQuote(ResultSet rs) throws SQLException {
-        Quote quote = new Quote(
-                rs.getDouble("total_cost"),
-                rs.getDate("issue_date").toLocalDate(),
-                rs.getDate("validity_date").toLocalDate(),
-                findProjectById(rs.getLong("project_id")));
-        quote.setId(rs.getLong("id"));
-        quote.setAccepted(rs.getBoolean("is_accepted"));
-        quote.setContent(rs.getString("content"));
-        return quote;
+    /**
+     * Reads the quote rows, then resolves their distinct projects and clients in one batched
+     * query each. Quotes of the same project share a single {@link Project} instance, whose
+     * line items load on first access, through the same {@code template}. Stored documents load
+     * on the first {@code getContent()}.
+     */
+    private List<Quote> loadQuotes(JdbcTemplate template, String sql, StatementBinder binder) throws SQLException {
+        return template.execute(connection -> loadQuotes(template, connection, sql, binder));
     }
 
-    private Project findProjectById(Long projectId) throws SQLException {
-        String sql = "SELECT * FROM projects WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, projectId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return mapResultSetToProject(rs);
-            } else {
-                throw new SQLException("Project not found with id: " + projectId);
+    private List<Quote> loadQuotes(JdbcTemplate template, Connection connection, String sql, StatementBinder binder)
+            throws SQLException {
+        List<QuoteRow> rows = jdbcTemplate.query(connection, sql, binder, QUOTE_ROW_MAPPER);
+        Set<Long> projectIds = new HashSet<>();
+        for (QuoteRow row : rows) {
+            projectIds.add(row.projectId);
+        }
+
+        Map<Long, Project> projectsById = graphLoader.loadByIds(template, connection, projectIds, FetchPlan.CLIENT);
+        IdentityMap identityMap = database.currentIdentityMap();
+        List<Quote> quotes = new ArrayList<>(rows.size());
+        for (QuoteRow row : rows) {
+            Project project = projectsById.get(row.projectId);
+            if (project == null) {
+                throw new SQLException("Project not found with id: " + row.projectId);
+            }
+            String documentHash = row.quote.getDocumentHash();
+            if (documentHash != null) {
+                row.quote.setContentLoader(() -> documents.get(documentHash));
             }
+            Quote quote = identityMap != null
+                    ? identityMap.register(Quote.class, row.quote.getId(), row.quote)
+                    : row.quote;
+            quote.setProject(project);
+            quotes.add(quote);
+        }
+        return quotes;
+    }
+
+    private static QuoteDocumentStore documentStore(DatabaseConnection database) {
+        String store = PropertyLoader.getProperty("quotes.documents.store", "database");
+        if ("filesystem".equalsIgnoreCase(store)) {
+            return new FileSystemQuoteDocumentStore(
+                    Paths.get(PropertyLoader.getProperty("quotes.documents.directory", "quote-documents")));
         }
+        return new DatabaseQuoteDocumentStore(database);
     }
 
-    private Project mapResultSetToProject(ResultSet rs) throws SQLException {
-        Project project = new Project(
-                rs.getString("name"),
-                rs.getDouble("surface"),
-                rs.getDate("start_date").toLocalDate(),
-                ProjectStatus.fromDbValue(rs.getString("status")),
-                null);
-        project.setId(rs.getLong("id"));
-        project.setProfitMargin(rs.getDouble("profit_margin"));
-        project.setTotalCost(rs.getDouble("total_cost"));
-        project.setClient(findClientById(rs.getLong("client_id")));
-        return project;
-    }
-
-    private Client findClientById(Long clientId) throws SQLException {
-        String sql = "SELECT * FROM clients WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, clientId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return new Client(
-                    rs.getString("name"),
-                    rs.getString("email"),
-                    rs.getString("phone_number"),
-                    rs.getString("address"),
-                    rs.getBoolean("is_professional"),
-                    rs.getDouble("discount_rate")
-                );
-            } else {
-                throw new SQLException("Client not found with id: " + clientId);
-            }
+    private static Double nullableDouble(ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static final class QuoteRow {
+        final Quote quote;
+        final long projectId;
+
+        QuoteRow(Quote quote, long projectId) {
+            this.quote = quote;
+            this.projectId = projectId;
         }
     }
-}
\ No newline at end of file
+}
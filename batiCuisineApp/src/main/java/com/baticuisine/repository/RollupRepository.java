@@ -0,0 +1,20 @@
+package com.baticuisine.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.baticuisine.model.ClientRollup;
+import com.baticuisine.model.ProjectCostRollup;
+
+/**
+ * Reads the precomputed cost rollups; each lookup is a single primary key or index read.
+ */
+public interface RollupRepository {
+    Optional<ProjectCostRollup> findByProjectId(Long projectId);
+    Optional<ClientRollup> findByClientId(Long clientId);
+
+    /**
+     * The clients with the largest pipeline first.
+     */
+    List<ClientRollup> findTopClientsByPipeline(int limit);
+}
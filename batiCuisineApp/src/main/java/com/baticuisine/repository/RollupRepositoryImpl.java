@@ -0,0 +1,93 @@
+package com.baticuisine.repository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.model.ClientRollup;
+import com.baticuisine.model.ProjectCostRollup;
+
+public class RollupRepositoryImpl implements RollupRepository {
+    private static RollupRepositoryImpl instance;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String SELECT_CLIENT_ROLLUPS =
+            "SELECT r.client_id, c.name, r.project_count, r.pipeline_value, r.accepted_quote_value " +
+            "FROM client_rollups r " +
+            "JOIN clients c ON c.id = r.client_id";
+
+    static final RowMapperFactory<ProjectCostRollup> PROJECT_COST_MAPPER = columns -> {
+        int projectId = columns.indexOf("project_id");
+        int materialCost = columns.indexOf("material_cost");
+        int laborCost = columns.indexOf("labor_cost");
+        int discount = columns.indexOf("discount");
+        int vat = columns.indexOf("vat");
+        int totalCost = columns.indexOf("total_cost");
+        return rs -> new ProjectCostRollup(
+                rs.getLong(projectId),
+                rs.getDouble(materialCost),
+                rs.getDouble(laborCost),
+                rs.getDouble(discount),
+                rs.getDouble(vat),
+                rs.getDouble(totalCost));
+    };
+
+    static final RowMapperFactory<ClientRollup> CLIENT_ROLLUP_MAPPER = columns -> {
+        int clientId = columns.indexOf("client_id");
+        int name = columns.indexOf("name");
+        int projectCount = columns.indexOf("project_count");
+        int pipelineValue = columns.indexOf("pipeline_value");
+        int acceptedQuoteValue = columns.indexOf("accepted_quote_value");
+        return rs -> new ClientRollup(
+                rs.getLong(clientId),
+                rs.getString(name),
+                rs.getInt(projectCount),
+                rs.getDouble(pipelineValue),
+                rs.getDouble(acceptedQuoteValue));
+    };
+
+    private RollupRepositoryImpl(DatabaseConnection database) {
+        this.jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    public static synchronized RollupRepositoryImpl getInstance(DatabaseConnection database) {
+        if (instance == null) {
+            instance = new RollupRepositoryImpl(database);
+        }
+        return instance;
+    }
+
+    @Override
+    public Optional<ProjectCostRollup> findByProjectId(Long projectId) {
+        String sql = "SELECT project_id, material_cost, labor_cost, discount, vat, total_cost " +
+                     "FROM project_cost_rollups WHERE project_id = ?";
+        try {
+            return jdbcTemplate.forReads().queryForOptional(sql, pstmt -> pstmt.setLong(1, projectId),
+                    PROJECT_COST_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding cost rollup for project", e);
+        }
+    }
+
+    @Override
+    public Optional<ClientRollup> findByClientId(Long clientId) {
+        String sql = SELECT_CLIENT_ROLLUPS + " WHERE r.client_id = ?";
+        try {
+            return jdbcTemplate.forReads().queryForOptional(sql, pstmt -> pstmt.setLong(1, clientId),
+                    CLIENT_ROLLUP_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding rollup for client", e);
+        }
+    }
+
+    @Override
+    public List<ClientRollup> findTopClientsByPipeline(int limit) {
+        String sql = SELECT_CLIENT_ROLLUPS + " ORDER BY r.pipeline_value DESC, r.client_id LIMIT ?";
+        try {
+            return jdbcTemplate.forReads().query(sql, pstmt -> pstmt.setInt(1, limit), CLIENT_ROLLUP_MAPPER);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding client rollups", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.baticuisine.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface RowCallbackHandler {
+    void processRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,12 @@
+package com.baticuisine.repository;
+
+import java.sql.SQLException;
+
+/**
+ * Builds a {@link RowMapper} for one query shape. Column positions are resolved once in
+ * {@link #compile(ColumnIndex)} so the returned mapper reads every row by index.
+ */
+@FunctionalInterface
+public interface RowMapperFactory<T> {
+    RowMapper<T> compile(ColumnIndex columns) throws SQLException;
+}
@@ -0,0 +1,11 @@
+package com.baticuisine.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface StatementBinder {
+    StatementBinder NONE = pstmt -> { };
+
+    void bind(PreparedStatement pstmt) throws SQLException;
+}
@@ -0,0 +1,95 @@
+package com.baticuisine.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.baticuisine.database.DatabaseConnection;
+import com.baticuisine.database.TransactionManager;
+import com.baticuisine.repository.ArchiveRepository;
+
+/**
+ * Archives old closed projects and purges components no project uses, in chunks of
+ * {@code chunkSize} rows. Each chunk is its own transaction, and the job sleeps {@code pauseMs}
+ * between chunks, so it can run next to the application without holding locks for long or
+ * starving it of I/O. Its writes are not recorded for read-your-writes: nobody reads them back,
+ * so they never pin reads to the primary.
+ */
+public class ArchivalService {
+    private static final Logger LOGGER = Logger.getLogger(ArchivalService.class.getName());
+    private final ArchiveRepository archiveRepository;
+    private final DatabaseConnection database;
+    private final TransactionManager transactionManager;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    public ArchivalService(ArchiveRepository archiveRepository, DatabaseConnection database,
+            TransactionManager transactionManager, int chunkSize, long pauseMs) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.archiveRepository = archiveRepository;
+        this.database = database;
+        this.transactionManager = transactionManager;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    /**
+     * @return the number of projects archived
+     */
+    public int archiveClosedProjects(int closedForDays) {
+        return database.untracked(() -> archiveInChunks(closedForDays));
+    }
+
+    /**
+     * @return the number of components deleted
+     */
+    public int purgeOrphanedComponents() {
+        return database.untracked(this::purgeInChunks);
+    }
+
+    private int archiveInChunks(int closedForDays) {
+        int total = 0;
+        while (true) {
+            List<Long> archived = transactionManager.inTransaction(
+                    () -> archiveRepository.archiveClosedProjects(closedForDays, chunkSize));
+            total += archived.size();
+            // A short chunk means the rest is gone or locked by someone else; the next run gets those
+            if (archived.size() < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        LOGGER.info("Archived " + total + " projects closed for more than " + closedForDays + " days");
+        return total;
+    }
+
+    private int purgeInChunks() {
+        int total = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> purged = archiveRepository.purgeOrphanedComponents(afterId, chunkSize);
+            total += purged.size();
+            if (purged.size() < chunkSize) {
+                break;
+            }
+            afterId = Collections.max(purged);
+            pause();
+        }
+        LOGGER.info("Purged " + total + " orphaned components");
+        return total;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archival interrupted", e);
+        }
+    }
+}
@@ -2,25 +2,30 @@ package com.baticuisine.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
+import com.baticuisine.model.ClientRollup;
 import com.baticuisine.repository.ClientRepository;
+import com.baticuisine.repository.RollupRepository;
 
 public class ClientService {
     private static ClientService instance;
     private static final Logger LOGGER = Logger.getLogger(ClientService.class.getName());
     private final ClientRepository clientRepository;
+    private final RollupRepository rollupRepository;
 
-    private ClientService(ClientRepository clientRepository) {
+    private ClientService(ClientRepository clientRepository, RollupRepository rollupRepository) {
         this.clientRepository = clientRepository;
+        this.rollupRepository = rollupRepository;
     }
 
-    public static synchronized ClientService getInstance(ClientRepository clientRepository) {
+    public static synchronized ClientService getInstance(ClientRepository clientRepository, RollupRepository rollupRepository) {
         if (instance == null) {
-            instance = new ClientService(clientRepository);
+            instance = new ClientService(clientRepository, rollupRepository);
         }
         return instance;
     }
@@ -46,14 +51,30 @@ public class ClientService {
     }
     public List<Client> getClientsByNameAndPhone(String name, String phone) {
         try {
-            return clientRepository.findAll().stream()
-                .filter(client -> client.getName().equals(name) && client.getPhoneNumber().equals(phone))
-                .collect(Collectors.toList());
+            return clientRepository.findByExactNameAndPhone(name, phone);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error retrieving clients by name and phone: " + name + ", " + phone, e);
             throw new RuntimeException("Failed to retrieve clients by name and phone", e);
         }
     }
+    public List<ClientMatch> searchClients(String query, int limit) {
+        try {
+            return clientRepository.search(query, limit);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error searching clients: " + query, e);
+            throw new RuntimeException("Failed to search clients", e);
+        }
+    }
+
+    public List<ClientMatch> searchClientsByNameAndPhone(String name, String phone, int limit) {
+        try {
+            return clientRepository.searchByNameAndPhone(name, phone, limit);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error searching clients by name and phone: " + name + ", " + phone, e);
+            throw new RuntimeException("Failed to search clients by name and phone", e);
+        }
+    }
+
     public Optional<Client> getClientByName(String name) {
         try {
             List<Client> clients = clientRepository.findByName(name);
@@ -75,6 +96,28 @@ public class ClientService {
         }
     }
 
+    /**
+     * Applies {@code changes} to the current version of the client and saves it. If another
+     * session updates the client in between, the client is reloaded and {@code changes} applied
+     * again, so both sessions' edits to different fields survive.
+     */
+    public Optional<Client> updateClient(Long clientId, Consumer<Client> changes) {
+        try {
+            return OptimisticRetry.run(() -> {
+                Optional<Client> client = clientRepository.findById(clientId);
+                client.ifPresent(current -> {
+                    changes.accept(current);
+                    clientRepository.update(current);
+                    LOGGER.info("Client updated: " + current.getName());
+                });
+                return client;
+            });
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error updating client", e);
+            return Optional.empty();
+        }
+    }
+
     public Optional<Client> deleteClient(String clientName) {
         try {
             Optional<Client> clientToDelete = getClientByName(clientName);
@@ -92,13 +135,48 @@ public class ClientService {
         }
     }
 
-    public int getTotalClientCount() {
-        return getAllClients().size();
+    public boolean clientExists(String name, String phone) {
+        try {
+            return clientRepository.existsByNameAndPhone(name, phone);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error checking client existence: " + name + ", " + phone, e);
+            throw new RuntimeException("Failed to check client existence", e);
+        }
+    }
+
+    public long getTotalClientCount() {
+        try {
+            return clientRepository.count();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error counting clients", e);
+            throw new RuntimeException("Failed to count clients", e);
+        }
+    }
+
+    public long getProfessionalClientCount() {
+        try {
+            return clientRepository.countByProfessional(true);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error counting professional clients", e);
+            throw new RuntimeException("Failed to count professional clients", e);
+        }
     }
 
     public List<Client> getProfessionalClients() {
-        return getAllClients().stream()
-            .filter(Client::isProfessional)
-            .collect(Collectors.toList());
+        try {
+            return clientRepository.findByProfessional(true);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving professional clients", e);
+            throw new RuntimeException("Failed to retrieve professional clients", e);
+        }
+    }
+
+    public List<ClientRollup> getTopClientsByPipeline(int limit) {
+        try {
+            return rollupRepository.findTopClientsByPipeline(limit);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving client rollups", e);
+            throw new RuntimeException("Failed to retrieve client rollups", e);
+        }
     }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package com.baticuisine.service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.baticuisine.model.Client;
+import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 import com.baticuisine.model.Project;
+import com.baticuisine.model.QuoteLine;
+import com.baticuisine.model.enums.QuoteLineKind;
 
 public class CostCalculator {
     private static final Logger LOGGER = Logger.getLogger(CostCalculator.class.getName());
@@ -40,6 +45,56 @@ public class CostCalculator {
         }
     }
 
+    /**
+     * Prices the project line by line for a quote, with the amounts {@link #calculateTotalCost}
+     * adds up: one line per material and labor item, then the subtotal, the client's discount
+     * when there is one, the VAT and the rounded total. Lines are numbered from 1.
+     */
+    public List<QuoteLine> priceLines(Project project) {
+        List<QuoteLine> lines = new ArrayList<>();
+        double subtotal = 0;
+        for (Material material : project.getMaterials()) {
+            QuoteLine line = new QuoteLine(QuoteLineKind.MATERIAL, material.getName(), material.calculateCost());
+            line.setComponentId(material.getId());
+            line.setQuantity(material.getQuantity());
+            line.setUnitPrice(material.getUnitCost());
+            line.setCoefficient(material.getQualityCoefficient());
+            line.setExtraCost(material.getTransportCost());
+            lines.add(line);
+            subtotal += line.getAmount();
+        }
+        for (Labor labor : project.getLaborItems()) {
+            QuoteLine line = new QuoteLine(QuoteLineKind.LABOR, labor.getName(),
+                    labor.getHoursWorked() * labor.getHourlyRate());
+            line.setComponentId(labor.getId());
+            line.setQuantity(labor.getHoursWorked());
+            line.setUnitPrice(labor.getHourlyRate());
+            line.setCoefficient(labor.getWorkerProductivity());
+            lines.add(line);
+            subtotal += line.getAmount();
+        }
+        lines.add(new QuoteLine(QuoteLineKind.SUBTOTAL, "Subtotal", subtotal));
+
+        Client client = project.getClient();
+        double discountRate = (client != null) ? client.getDiscountRate() : 0.0;
+        double discountedSubtotal = subtotal * (1 - discountRate);
+        if (discountRate != 0) {
+            QuoteLine discount = new QuoteLine(QuoteLineKind.DISCOUNT, "Client discount", discountedSubtotal - subtotal);
+            discount.setRate(discountRate);
+            lines.add(discount);
+        }
+        QuoteLine vat = new QuoteLine(QuoteLineKind.VAT, "VAT", discountedSubtotal * DEFAULT_TVA_RATE);
+        vat.setRate(DEFAULT_TVA_RATE);
+        lines.add(vat);
+        double total = Math.round(discountedSubtotal * (1 + DEFAULT_TVA_RATE) * 100.0) / 100.0;
+        lines.add(new QuoteLine(QuoteLineKind.TOTAL, "Total", total));
+
+        for (int i = 0; i < lines.size(); i++) {
+            lines.get(i).setLineNo(i + 1);
+        }
+        return lines;
+    }
+
 private double calculateMaterialCost(Project project) {
     return project.getMaterials().stream()
             .mapToDouble(Material::calculateCost)
@@ -2,6 +2,7 @@ package com.baticuisine.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -35,22 +36,39 @@ public class MaterialService {
 
     public List<Material> getAllMaterials() {
         try {
-            return componentRepository.findAll().stream()
-                .filter(c -> c instanceof Material)
+            return componentRepository.findAllMaterials();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving all materials", e);
+            throw new RuntimeException("Failed to retrieve materials", e);
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} materials, ordered by id.
+     */
+    public List<Material> getMaterials(int limit) {
+        try {
+            return componentRepository.findByType("MATERIAL", limit).stream()
                 .map(c -> (Material) c)
                 .collect(Collectors.toList());
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Error retrieving all materials", e);
+            LOGGER.log(Level.SEVERE, "Error retrieving materials", e);
             throw new RuntimeException("Failed to retrieve materials", e);
         }
     }
 
+    public long getMaterialCount() {
+        try {
+            return componentRepository.countByType("MATERIAL");
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error counting materials", e);
+            throw new RuntimeException("Failed to count materials", e);
+        }
+    }
+
     public Optional<Material> getMaterialByName(String name) {
         try {
-            return componentRepository.findAll().stream()
-                .filter(c -> c instanceof Material && c.getName().equals(name))
-                .map(c -> (Material) c)
-                .findFirst();
+            return componentRepository.findMaterialByName(name);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error retrieving material by name: " + name, e);
             throw new RuntimeException("Failed to retrieve material", e);
@@ -67,6 +85,29 @@ public class MaterialService {
         }
     }
 
+    /**
+     * Applies {@code changes} to the current version of the material and saves it, reloading and
+     * applying them again if another session updated the material in between.
+     */
+    public Optional<Material> updateMaterial(Long id, Consumer<Material> changes) {
+        try {
+            return OptimisticRetry.run(() -> {
+                Optional<Material> material = componentRepository.findById(id)
+                        .filter(Material.class::isInstance)
+                        .map(Material.class::cast);
+                material.ifPresent(current -> {
+                    changes.accept(current);
+                    componentRepository.update(current);
+                    LOGGER.info("Material updated: " + current.getName());
+                });
+                return material;
+            });
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error updating material", e);
+            throw new RuntimeException("Failed to update material", e);
+        }
+    }
+
     public void deleteMaterial(Long id) {
         try {
             componentRepository.delete(id);
@@ -0,0 +1,35 @@
+package com.baticuisine.service;
+
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import com.baticuisine.repository.OptimisticLockException;
+import com.baticuisine.utils.PropertyLoader;
+
+/**
+ * Reruns a read-modify-write that lost an optimistic lock race, up to
+ * {@code db.optimisticLock.maxAttempts} times in all. Each attempt must reload the entity and
+ * reapply only the fields it changes, so that a retry merges the change into what the other
+ * writer committed. Attempts must not run inside an enclosing transaction, whose identity map
+ * would hand back the stale instance.
+ */
+final class OptimisticRetry {
+    private static final Logger LOGGER = Logger.getLogger(OptimisticRetry.class.getName());
+    private static final int MAX_ATTEMPTS = Math.max(1, PropertyLoader.getIntProperty("db.optimisticLock.maxAttempts", 3));
+
+    private OptimisticRetry() {
+    }
+
+    static <T> T run(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockException e) {
+                if (i >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.info("Retrying after conflict (attempt " + i + " of " + MAX_ATTEMPTS + "): " + e.getMessage());
+            }
+        }
+    }
+}
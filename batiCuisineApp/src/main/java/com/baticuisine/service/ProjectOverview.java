@@ -0,0 +1,28 @@
+package com.baticuisine.service;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.baticuisine.model.Project;
+import com.baticuisine.model.Quote;
+
+/**
+ * A project with its client, line items and quotes, as shown on the project details screen.
+ */
+public class ProjectOverview {
+    private final Project project;
+    private final List<Quote> quotes;
+
+    public ProjectOverview(Project project, List<Quote> quotes) {
+        this.project = project;
+        this.quotes = Collections.unmodifiableList(quotes);
+    }
+
+    public Project getProject() {
+        return project;
+    }
+
+    public List<Quote> getQuotes() {
+        return quotes;
+    }
+}
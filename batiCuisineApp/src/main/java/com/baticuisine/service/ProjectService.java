@@ -3,15 +3,26 @@ package com.baticuisine.service;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.baticuisine.database.TransactionManager;
 import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectCostRollup;
+import com.baticuisine.model.ProjectSummary;
+import com.baticuisine.model.Quote;
 import com.baticuisine.model.enums.ProjectStatus;
+import com.baticuisine.repository.AsyncProjectRepository;
+import com.baticuisine.repository.AsyncQuoteRepository;
 import com.baticuisine.repository.ComponentRepository;
+import com.baticuisine.repository.FetchPlan;
+import com.baticuisine.repository.OptimisticLockException;
 import com.baticuisine.repository.ProjectRepository;
+import com.baticuisine.repository.RollupRepository;
 import com.baticuisine.utils.DateUtils;
 
 public class ProjectService {
@@ -21,17 +32,25 @@ public class ProjectService {
     private final ComponentRepository componentRepository;
     private final DateUtils dateUtils;
     private final CostCalculator costCalculator;
+    private final TransactionManager transactionManager;
+    private final AsyncProjectRepository asyncProjectRepository;
+    private final AsyncQuoteRepository asyncQuoteRepository;
+    private final RollupRepository rollupRepository;
 
-    private ProjectService(ProjectRepository projectRepository, DateUtils dateUtils, ComponentRepository componentRepository, CostCalculator costCalculator) {
+    private ProjectService(ProjectRepository projectRepository, DateUtils dateUtils, ComponentRepository componentRepository, CostCalculator costCalculator, TransactionManager transactionManager, AsyncProjectRepository asyncProjectRepository, AsyncQuoteRepository asyncQuoteRepository, RollupRepository rollupRepository) {
         this.projectRepository = projectRepository;
         this.dateUtils = dateUtils;
         this.componentRepository = componentRepository;
         this.costCalculator = costCalculator;
+        this.transactionManager = transactionManager;
+        this.asyncProjectRepository = asyncProjectRepository;
+        this.asyncQuoteRepository = asyncQuoteRepository;
+        this.rollupRepository = rollupRepository;
     }
 
-    public static synchronized ProjectService getInstance(ProjectRepository projectRepository, DateUtils dateUtils, ComponentRepository componentRepository, CostCalculator costCalculator) {
+    public static synchronized ProjectService getInstance(ProjectRepository projectRepository, DateUtils dateUtils, ComponentRepository componentRepository, CostCalculator costCalculator, TransactionManager transactionManager, AsyncProjectRepository asyncProjectRepository, AsyncQuoteRepository asyncQuoteRepository, RollupRepository rollupRepository) {
         if (instance == null) {
-            instance = new ProjectService(projectRepository, dateUtils, componentRepository, costCalculator);
+            instance = new ProjectService(projectRepository, dateUtils, componentRepository, costCalculator, transactionManager, asyncProjectRepository, asyncQuoteRepository, rollupRepository);
         }
         return instance;
     }
@@ -41,7 +60,8 @@ public class ProjectService {
             if (project.getClient() == null || project.getClient().getId() == null) {
                 throw new IllegalArgumentException("Client must be set and have a valid ID before creating a project");
             }
-            Project createdProject = projectRepository.save(project);
+            // Project row, components and links commit together or not at all
+            Project createdProject = transactionManager.inTransaction(() -> projectRepository.save(project));
             return Optional.of(createdProject);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error creating project", e);
@@ -49,16 +69,40 @@ public class ProjectService {
         }
     }
 
+    /**
+     * Writes {@code project} as is. Throws {@link OptimisticLockException} if the project changed
+     * since {@code project} was loaded; {@link #updateProjectStatus} retries instead.
+     */
     public Project updateProject(Project project) {
         try {
             projectRepository.update(project);
             return project;
+        } catch (OptimisticLockException e) {
+            LOGGER.warning(e.getMessage());
+            throw e;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error updating project", e);
             throw new RuntimeException("Failed to update project", e);
         }
     }
 
+    /**
+     * Sets the status on the current version of the project, retrying on concurrent updates.
+     */
+    public Project updateProjectStatus(Long projectId, ProjectStatus status) {
+        try {
+            return OptimisticRetry.run(() -> transactionManager.inTransaction(() -> {
+                Project project = projectRepository.findById(projectId, FetchPlan.NONE)
+                        .orElseThrow(() -> new IllegalArgumentException("Project not found with id: " + projectId));
+                project.setProjectStatus(status);
+                return projectRepository.update(project);
+            }));
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error updating status of project: " + projectId, e);
+            throw new RuntimeException("Failed to update project status", e);
+        }
+    }
+
     public List<Project> getAllProjects() {
         try {
             List<Project> projects = projectRepository.findAll();
@@ -70,6 +114,80 @@ public class ProjectService {
         }
     }
 
+    public List<ProjectSummary> getProjectSummaries() {
+        try {
+            return projectRepository.findAllSummaries();
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving project summaries", e);
+            throw new RuntimeException("Failed to retrieve projects", e);
+        }
+    }
+
+    public Optional<ProjectSummary> getProjectSummaryByName(String name) {
+        try {
+            return projectRepository.findSummaryByName(name);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving project summary by name: " + name, e);
+            throw new RuntimeException("Failed to retrieve project by name", e);
+        }
+    }
+
+    /**
+     * Loads the project row only; its client, line items and quotes load on first access.
+     */
+    public Optional<Project> getProjectById(Long id) {
+        try {
+            return projectRepository.findById(id, FetchPlan.NONE);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving project by id: " + id, e);
+            throw new RuntimeException("Failed to retrieve project", e);
+        }
+    }
+
+    /**
+     * Loads the project graph (with its client) and the project's quotes concurrently.
+     */
+    public CompletableFuture<ProjectOverview> getProjectOverviewAsync(Long projectId) {
+        CompletableFuture<Optional<Project>> projectFuture = asyncProjectRepository.findById(projectId);
+        CompletableFuture<List<Quote>> quotesFuture = asyncQuoteRepository.findByProjectId(projectId);
+        CompletableFuture<ProjectOverview> overview = projectFuture.thenCombine(quotesFuture, (projectOpt, quotes) -> {
+            Project project = projectOpt.orElseThrow(
+                    () -> new IllegalArgumentException("Project not found with id: " + projectId));
+            quotes.forEach(quote -> quote.setProject(project));
+            project.setQuotes(quotes);
+            return new ProjectOverview(project, quotes);
+        });
+        // Stop whichever lookup is still running once the result can no longer be used
+        overview.whenComplete((result, error) -> {
+            if (error != null) {
+                projectFuture.cancel(true);
+                quotesFuture.cancel(true);
+            }
+        });
+        return overview;
+    }
+
+    public ProjectOverview getProjectOverview(Long projectId) {
+        try {
+            return getProjectOverviewAsync(projectId).join();
+        } catch (CompletionException e) {
+            LOGGER.log(Level.SEVERE, "Error loading overview for project: " + projectId, e.getCause());
+            throw new RuntimeException("Failed to load project overview", e.getCause());
+        }
+    }
+
+    /**
+     * The database-maintained cost breakdown; unlike {@link #calculateTotalCost} it loads no line items.
+     */
+    public Optional<ProjectCostRollup> getCostBreakdown(Long projectId) {
+        try {
+            return rollupRepository.findByProjectId(projectId);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving cost breakdown for project: " + projectId, e);
+            return Optional.empty();
+        }
+    }
+
     public List<Project> getProjectsByStatus(ProjectStatus status) {
         try {
             return projectRepository.findByStatus(status);
@@ -81,17 +199,20 @@ public class ProjectService {
 
     public Project calculateTotalCost(Long projectId) {
         try {
-            Optional<Project> projectOpt = projectRepository.findById(projectId);
-            if (projectOpt.isPresent()) {
-                Project project = projectOpt.get();
-                double totalCost = costCalculator.calculateTotalCost(project);
-                project.setTotalCost(totalCost);
-                Project updatedProject = projectRepository.update(project);
-                LOGGER.info("Total cost calculated and saved for project: " + projectId);
-                return updatedProject;
-            } else {
-                throw new IllegalArgumentException("Project not found with id: " + projectId);
-            }
+            // A concurrent edit of the project invalidates the cost, so a retry recomputes it
+            return OptimisticRetry.run(() -> transactionManager.inTransaction(() -> {
+                Optional<Project> projectOpt = projectRepository.findById(projectId, FetchPlan.PRICING);
+                if (projectOpt.isPresent()) {
+                    Project project = projectOpt.get();
+                    double totalCost = costCalculator.calculateTotalCost(project);
+                    project.setTotalCost(totalCost);
+                    Project updatedProject = projectRepository.update(project);
+                    LOGGER.info("Total cost calculated and saved for project: " + projectId);
+                    return updatedProject;
+                } else {
+                    throw new IllegalArgumentException("Project not found with id: " + projectId);
+                }
+            }));
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error calculating total cost for project: " + projectId, e);
             throw new RuntimeException("Failed to calculate total cost", e);
@@ -123,4 +244,13 @@ public class ProjectService {
     public void saveLabor(Labor labor, Long projectId) throws SQLException {
         projectRepository.saveLabor(labor, projectId);
     }
+
+    public void saveComponents(Long projectId, List<Material> materials, List<Labor> laborItems) throws SQLException {
+        transactionManager.inTransaction(() -> {
+            projectRepository.saveComponents(projectId, materials, laborItems);
+            return null;
+        });
+        LOGGER.info(String.format("Saved %d material(s) and %d labor item(s) for project: %d",
+                materials.size(), laborItems.size(), projectId));
+    }
 }
\ No newline at end of file
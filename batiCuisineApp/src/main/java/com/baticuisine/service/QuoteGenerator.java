@@ -1,48 +1,146 @@
 package com.baticuisine.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.baticuisine.cache.EntityCache;
+import com.baticuisine.cache.RenderedQuote;
+import com.baticuisine.model.Client;
 import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 import com.baticuisine.model.Project;
 import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteLine;
+import com.baticuisine.model.QuoteSummary;
+import com.baticuisine.model.enums.QuoteLineKind;
+import com.baticuisine.repository.AsyncQuoteRepository;
 import com.baticuisine.repository.QuoteRepository;
 
 public class QuoteGenerator {
     private static final Logger LOGGER = Logger.getLogger(QuoteGenerator.class.getName());
     private final CostCalculator costCalculator;
     private final QuoteRepository quoteRepository;
+    private final AsyncQuoteRepository asyncQuoteRepository;
+    // Null when caching is disabled
+    private final EntityCache<Long, RenderedQuote> renderedQuotes;
 
-    public QuoteGenerator(CostCalculator costCalculator, QuoteRepository quoteRepository) {
+    public QuoteGenerator(CostCalculator costCalculator, QuoteRepository quoteRepository, AsyncQuoteRepository asyncQuoteRepository,
+                          EntityCache<Long, RenderedQuote> renderedQuotes) {
         this.costCalculator = costCalculator;
         this.quoteRepository = quoteRepository;
+        this.asyncQuoteRepository = asyncQuoteRepository;
+        this.renderedQuotes = renderedQuotes;
     }
 
     public List<Quote> getQuotesByProjectId(Long projectId) {
         return quoteRepository.findByProjectId(projectId);
     }
 
+    public List<QuoteSummary> getQuoteSummariesByProjectId(Long projectId) {
+        return quoteRepository.findSummariesByProjectId(projectId);
+    }
+
+    public List<QuoteSummary> getOpenQuoteSummaries() {
+        return quoteRepository.findOpenSummaries(LocalDate.now());
+    }
+
+    public List<QuoteSummary> getQuoteSummariesWithItem(String description) {
+        return quoteRepository.findSummariesWithItem(description);
+    }
+
+    public CompletableFuture<List<Quote>> getQuotesByProjectIdAsync(Long projectId) {
+        return asyncQuoteRepository.findByProjectId(projectId);
+    }
+
+    /**
+     * Prices and renders a quote for the project. While the project's pricing inputs are unchanged,
+     * the last quote generated for it is reused from the rendered-quote cache.
+     */
     public Quote generateQuote(Project project) {
-        double totalCost = costCalculator.calculateTotalCost(project);
         LocalDate issueDate = LocalDate.now();
         LocalDate validityDate = issueDate.plusMonths(1); // Quote valid for 1 month
+        byte[] fingerprint = renderedQuotes != null && project.getId() != null ? fingerprint(project) : null;
+
+        RenderedQuote cached = fingerprint != null ? renderedQuotes.get(project.getId()) : null;
+        if (cached != null && cached.matches(fingerprint)) {
+            project.setTotalCost(cached.getTotalCost());
+            Quote quote = new Quote(cached.getTotalCost(), issueDate, validityDate, project);
+            quote.setLines(cached.getLines());
+            quote.setContent(cached.getContent());
+            quote.setDocumentHash(cached.getDocumentHash());
+            return quote;
+        }
 
+        double totalCost = costCalculator.calculateTotalCost(project);
         Quote quote = new Quote(totalCost, issueDate, validityDate, project);
-        quote.setContent(generateQuoteContent(project, totalCost));
+        quote.setLines(costCalculator.priceLines(project));
+        quote.setContent(renderLines(quote));
+        if (fingerprint != null) {
+            RenderedQuote rendered = new RenderedQuote(fingerprint, totalCost, quote.getLines(), quote.getContent());
+            renderedQuotes.put(project.getId(), rendered);
+            quote.setLines(rendered.getLines());
+        }
 
         return quote;
     }
 
-    private String generateQuoteContent(Project project, double totalCost) {
+    /**
+     * SHA-256 of everything a quote is priced and rendered from: the project's details and status,
+     * the client's name and discount, and every material and labor item.
+     */
+    private static byte[] fingerprint(Project project) {
+        StringBuilder inputs = new StringBuilder();
+        inputs.append(project.getProjectName()).append('\0').append(project.getSurface()).append('\0')
+                .append(project.getStartDate()).append('\0').append(project.getProjectStatus()).append('\0');
+        Client client = project.getClient();
+        if (client != null) {
+            inputs.append(client.getName()).append('\0').append(client.getDiscountRate()).append('\0');
+        }
+        for (Material material : project.getMaterials()) {
+            inputs.append("M\0").append(material.getId()).append('\0').append(material.getName()).append('\0')
+                    .append(material.getUnitCost()).append('\0').append(material.getQuantity()).append('\0')
+                    .append(material.getTransportCost()).append('\0').append(material.getQualityCoefficient()).append('\0');
+        }
+        for (Labor labor : project.getLaborItems()) {
+            inputs.append("L\0").append(labor.getId()).append('\0').append(labor.getName()).append('\0')
+                    .append(labor.getHourlyRate()).append('\0').append(labor.getHoursWorked()).append('\0')
+                    .append(labor.getWorkerProductivity()).append('\0');
+        }
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(inputs.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The quote's document as issued. Quotes saved without one are rendered from their priced
+     * lines, with the project's current details.
+     */
+    public String renderQuote(Quote quote) {
+        String content = quote.getContent();
+        if (content != null) {
+            return content;
+        }
+        if (quote.getLines() == null) {
+            quote.setLines(quoteRepository.findLines(quote.getId()));
+        }
+        return renderLines(quote);
+    }
+
+    private String renderLines(Quote quote) {
         StringBuilder content = new StringBuilder();
-        appendProjectDetails(content, project);
-        appendMaterialDetails(content, project);
-        appendLaborDetails(content, project);
-        appendTotalCost(content, totalCost);
+        appendProjectDetails(content, quote.getProject());
+        appendItems(content, quote.getLines(), QuoteLineKind.MATERIAL, "Materials:\n");
+        appendItems(content, quote.getLines(), QuoteLineKind.LABOR, "\nLabor:\n");
+        appendTotals(content, quote.getLines());
         return content.toString();
     }
 
@@ -54,37 +152,53 @@ public class QuoteGenerator {
         content.append("Status: ").append(project.getProjectStatus()).append("\n\n");
     }
 
-    private void appendMaterialDetails(StringBuilder content, Project project) {
-        content.append("Materials:\n");
-        for (Material material : project.getMaterials()) {
-            content.append("- ").append(material.getName())
-                    .append(": ").append(String.format("%.2f", material.getQuantity()))
-                    .append(" ").append(material.getComponentType())
-                    .append(" x ").append(String.format("%.2f", material.getUnitCost()))
-                    .append("€ = ").append(String.format("%.2f", material.calculateCost()))
-                    .append("€\n");
+    private void appendItems(StringBuilder content, List<QuoteLine> lines, QuoteLineKind kind, String heading) {
+        content.append(heading);
+        for (QuoteLine line : lines) {
+            if (line.getKind() != kind) {
+                continue;
+            }
+            content.append("- ").append(line.getDescription())
+                    .append(": ").append(String.format("%.2f", line.getQuantity()));
+            if (kind == QuoteLineKind.MATERIAL) {
+                content.append(" x ").append(String.format("%.2f", line.getUnitPrice()))
+                        .append("€ x ").append(String.format("%.2f", line.getCoefficient()))
+                        .append(" + ").append(String.format("%.2f", line.getExtraCost())).append("€ transport");
+            } else {
+                content.append(" hours x ").append(String.format("%.2f", line.getUnitPrice())).append("€/h");
+            }
+            content.append(" = ").append(String.format("%.2f", line.getAmount())).append("€\n");
         }
     }
 
-    private void appendLaborDetails(StringBuilder content, Project project) {
-        content.append("\nLabor:\n");
-        for (Labor labor : project.getLaborItems()) {
-            content.append("- ").append(labor.getName())
-                    .append(": ").append(String.format("%.2f", labor.getHoursWorked()))
-                    .append(" hours x ").append(String.format("%.2f", labor.getHourlyRate()))
-                    .append("€/h = ").append(String.format("%.2f", labor.calculateCost()))
-                    .append("€\n");
+    private void appendTotals(StringBuilder content, List<QuoteLine> lines) {
+        content.append("\n");
+        for (QuoteLine line : lines) {
+            switch (line.getKind()) {
+                case SUBTOTAL:
+                    content.append("Subtotal: ");
+                    break;
+                case DISCOUNT:
+                    content.append("Discount (").append(String.format("%.0f", line.getRate() * 100)).append("%): ");
+                    break;
+                case VAT:
+                    content.append("VAT (").append(String.format("%.0f", line.getRate() * 100)).append("%): ");
+                    break;
+                case TOTAL:
+                    content.append("Total Cost: ");
+                    break;
+                default:
+                    continue;
+            }
+            content.append(String.format("%.2f", line.getAmount())).append("€\n");
         }
     }
 
-    private void appendTotalCost(StringBuilder content, double totalCost) {
-        content.append("\nTotal Cost: ").append(String.format("%.2f", totalCost)).append("€\n");
-    }
-
     public Optional<Quote> saveQuote(Quote quote) {
         try {
             Quote savedQuote = quoteRepository.save(quote);
             LOGGER.info("Quote saved: " + savedQuote.getId());
+            rememberDocumentHash(savedQuote);
             return Optional.of(savedQuote);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error saving quote", e);
@@ -92,11 +206,40 @@ public class QuoteGenerator {
         }
     }
 
-    public Optional<Quote> getQuoteById(Long id) {
-        return quoteRepository.findById(id);
+    /**
+     * Records the stored document's hash on the cache entry the quote was served from, if it
+     * still holds, so saving the same render again does not store the document again.
+     */
+    private void rememberDocumentHash(Quote quote) {
+        if (renderedQuotes == null || quote.getDocumentHash() == null || quote.getProject().getId() == null) {
+            return;
+        }
+        RenderedQuote cached = renderedQuotes.get(quote.getProject().getId());
+        // Quotes served from an entry share its line list
+        if (cached != null && cached.getLines() == quote.getLines()) {
+            cached.setDocumentHash(quote.getDocumentHash());
+        }
+    }
+
+    public Optional<Quote> getQuoteById(Long id, LocalDate issueDate) {
+        return quoteRepository.findById(id, issueDate);
     }
 
     public void updateQuote(Quote quote) {
         quoteRepository.update(quote);
     }
+
+    /**
+     * Accepts or refuses the current version of the quote, retrying on concurrent updates.
+     */
+    public Optional<Quote> setQuoteAccepted(Long quoteId, LocalDate issueDate, boolean accepted) {
+        return OptimisticRetry.run(() -> {
+            Optional<Quote> quote = quoteRepository.findById(quoteId, issueDate);
+            quote.ifPresent(current -> {
+                current.setAccepted(accepted);
+                quoteRepository.update(current);
+            });
+            return quote;
+        });
+    }
 }
\ No newline at end of file
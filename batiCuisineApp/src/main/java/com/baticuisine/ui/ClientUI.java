@@ -3,14 +3,17 @@ package com.baticuisine.ui;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientRollup;
 import com.baticuisine.service.ClientService;
 import com.baticuisine.utils.InputValidator;
 
 public class ClientUI {
     private static final Logger LOGGER = Logger.getLogger(ClientUI.class.getName());
+    private static final int DASHBOARD_SIZE = 20;
     private final Scanner scanner;
     private final ClientService clientService;
     private final InputValidator inputValidator;
@@ -37,7 +40,8 @@ public class ClientUI {
         System.out.println("2. View all clients");
         System.out.println("3. Update a client");
         System.out.println("4. Delete a client");
-        System.out.println("5. Return to main menu");
+        System.out.println("5. Client dashboard");
+        System.out.println("6. Return to main menu");
     }
 
     private boolean handleMenuChoice(int choice) {
@@ -46,7 +50,8 @@ public class ClientUI {
             case 2: viewAllClients(); return true;
             case 3: updateClient(); return true;
             case 4: deleteClient(); return true;
-            case 5: return false;
+            case 5: viewClientDashboard(); return true;
+            case 6: return false;
             default:
                 System.out.println("Invalid option. Please try again.");
                 return true;
@@ -90,6 +95,16 @@ public class ClientUI {
         }
     }
 
+    private void viewClientDashboard() {
+        System.out.println("\n=== Client Dashboard (by pipeline value) ===");
+        List<ClientRollup> rollups = clientService.getTopClientsByPipeline(DASHBOARD_SIZE);
+        if (rollups.isEmpty()) {
+            System.out.println("No clients found.");
+        } else {
+            rollups.forEach(System.out::println);
+        }
+    }
+
     private void updateClient() {
         System.out.println("\n=== Update a Client ===");
         String name = inputValidator.getValidStringInput(scanner, "Enter the name of the client to update: ");
@@ -104,8 +119,7 @@ public class ClientUI {
 
     private void updateClientDetails(Client client) {
         System.out.println("Current client details: " + client);
-        updateClientFields(client);
-        Optional<Client> updatedClient = clientService.updateClient(client);
+        Optional<Client> updatedClient = clientService.updateClient(client.getId(), readClientChanges());
         if (updatedClient.isPresent()) {
             Client c = updatedClient.get();
             System.out.println("Client updated successfully: " + c);
@@ -116,20 +130,26 @@ public class ClientUI {
         }
     }
 
-    private void updateClientFields(Client client) {
+    /**
+     * Only the fields entered are changed, so the update can be reapplied on top of a
+     * concurrent edit of the other fields.
+     */
+    private Consumer<Client> readClientChanges() {
         String newEmail = inputValidator.getValidEmailInput(scanner, "New email (press enter to keep current): ");
         String newPhone = inputValidator.getValidPhoneInput(scanner, "New phone number (press enter to keep current): ");
         double newDiscountRate = inputValidator.getValidDoubleInput(scanner, "New discount rate (0-1, press enter to keep current): ");
 
-        if (!newEmail.isEmpty()) {
-            client.setEmail(newEmail);
-        }
-        if (!newPhone.isEmpty()) {
-            client.setPhoneNumber(newPhone);
-        }
-        if (newDiscountRate >= 0) {
-            client.setDiscountRate(newDiscountRate);
-        }
+        return client -> {
+            if (!newEmail.isEmpty()) {
+                client.setEmail(newEmail);
+            }
+            if (!newPhone.isEmpty()) {
+                client.setPhoneNumber(newPhone);
+            }
+            if (newDiscountRate >= 0) {
+                client.setDiscountRate(newDiscountRate);
+            }
+        };
     }
 
     private void deleteClient() {
@@ -146,6 +166,7 @@ public class ClientUI {
 
     private void confirmAndDeleteClient(Client client) {
         System.out.println("Are you sure you want to delete this client? " + client);
+        System.out.println("All of the client's projects and their quotes will be deleted too.");
         boolean confirm = inputValidator.getValidBooleanInput(scanner, "Confirm deletion (yes/no): ");
 
         if (confirm) {
@@ -3,6 +3,7 @@ package com.baticuisine.ui;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -114,10 +115,14 @@ public class MaterialUI {
         
         if (materialOpt.isPresent()) {
             Material material = materialOpt.get();
-            updateMaterialFields(material);
+            Consumer<Material> changes = readMaterialChanges(material);
             try {
-                materialService.updateMaterial(material);
-                System.out.println("Matériau mis à jour avec succès : " + material);
+                Optional<Material> updated = materialService.updateMaterial(material.getId(), changes);
+                if (updated.isPresent()) {
+                    System.out.println("Matériau mis à jour avec succès : " + updated.get());
+                } else {
+                    System.out.println("Matériau non trouvé.");
+                }
             } catch (RuntimeException e) {
                 System.out.println("Échec de la mise à jour du matériau : " + e.getMessage());
             }
@@ -126,7 +131,7 @@ public class MaterialUI {
         }
     }
 
-    private void updateMaterialFields(Material material) {
+    private Consumer<Material> readMaterialChanges(Material material) {
         System.out.println("Appuyez sur Entrée pour conserver la valeur actuelle.");
         String newName = inputValidator.getValidStringInput(scanner, "Nouveau nom (" + material.getName() + ") : ");
         double newVatRate = inputValidator.getValidDoubleInput(scanner, "Nouveau taux de TVA (" + material.getVatRate() + ") : ");
@@ -135,12 +140,15 @@ public class MaterialUI {
         double newTransportCost = inputValidator.getValidDoubleInput(scanner, "Nouveau coût de transport (" + material.getTransportCost() + ") : ");
         double newQualityCoefficient = inputValidator.getValidDoubleInput(scanner, "Nouveau coefficient de qualité (" + material.getQualityCoefficient() + ") : ");
     
-        if (!newName.isEmpty()) material.setName(newName);
-        if (newVatRate >= 0) material.setVatRate(newVatRate);
-        if (newUnitCost >= 0) material.setUnitCost(newUnitCost);
-        if (newQuantity >= 0) material.setQuantity(newQuantity);
-        if (newTransportCost >= 0) material.setTransportCost(newTransportCost);
-        if (newQualityCoefficient >= 0) material.setQualityCoefficient(newQualityCoefficient);
+        // Applied to the current version of the material, which may differ from the one shown
+        return current -> {
+            if (!newName.isEmpty()) current.setName(newName);
+            if (newVatRate >= 0) current.setVatRate(newVatRate);
+            if (newUnitCost >= 0) current.setUnitCost(newUnitCost);
+            if (newQuantity >= 0) current.setQuantity(newQuantity);
+            if (newTransportCost >= 0) current.setTransportCost(newTransportCost);
+            if (newQualityCoefficient >= 0) current.setQualityCoefficient(newQualityCoefficient);
+        };
     }
 
     private void deleteMaterial() {
@@ -2,6 +2,7 @@ package com.baticuisine.ui;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
@@ -10,26 +11,34 @@ import java.util.logging.Logger;
 import java.util.stream.IntStream;
 
 import com.baticuisine.model.Client;
+import com.baticuisine.model.ClientMatch;
 import com.baticuisine.model.Labor;
 import com.baticuisine.model.Material;
 import com.baticuisine.model.Project;
+import com.baticuisine.model.ProjectSummary;
 import com.baticuisine.model.Quote;
+import com.baticuisine.model.QuoteSummary;
 import com.baticuisine.model.enums.ProjectStatus;
+import com.baticuisine.repository.OptimisticLockException;
 import com.baticuisine.service.ClientService;
 import com.baticuisine.service.CostCalculator;
 import com.baticuisine.service.MaterialService;
+import com.baticuisine.service.ProjectOverview;
 import com.baticuisine.service.ProjectService;
 import com.baticuisine.service.QuoteGenerator;
 import com.baticuisine.utils.InputValidator;
 
 public class ProjectUI {
     private static final Logger LOGGER = Logger.getLogger(ProjectUI.class.getName());
+    private static final int CLIENT_SEARCH_LIMIT = 10;
     private final Scanner scanner;
     private final ProjectService projectService;
     private final CostCalculator costCalculator;
     private final QuoteGenerator quoteGenerator;
     private final InputValidator inputValidator;
     private final ClientService clientService;
+    private final List<Material> pendingMaterials = new ArrayList<>();
+    private final List<Labor> pendingLabor = new ArrayList<>();
 
     public ProjectUI(ProjectService projectService, CostCalculator costCalculator,
             InputValidator inputValidator, QuoteGenerator quoteGenerator,
@@ -67,7 +76,9 @@ public class ProjectUI {
         System.out.println("2. View and manage existing projects");
         System.out.println("3. Delete a project");
         System.out.println("4. View quotes by project name");
-        System.out.println("5. Return to main menu");
+        System.out.println("5. View open quotes");
+        System.out.println("6. Find quotes including an item");
+        System.out.println("7. Return to main menu");
     }
 
     private boolean handleMainMenuChoice(int choice) {
@@ -85,6 +96,12 @@ public class ProjectUI {
                 viewQuotesByProjectName();
                 return true;
             case 5:
+                viewOpenQuotes();
+                return true;
+            case 6:
+                findQuotesWithItem();
+                return true;
+            case 7:
                 return false;
             default:
                 System.out.println("Invalid option. Please try again.");
@@ -138,7 +155,6 @@ public class ProjectUI {
                     addLaborToProject(project);
                     break;
                 case 3:
-                    saveProject(project);
                     return;
                 default:
                     System.out.println("Invalid option. Please try again.");
@@ -163,32 +179,37 @@ public class ProjectUI {
             String clientName = inputValidator.getValidStringInput(scanner, "Client name (e.g., John Doe): ");
             String clientPhone = inputValidator.getValidPhoneInput(scanner,
                     "Client phone number (e.g., +1234567890): ");
-            List<Client> clients = clientService.getClientsByNameAndPhone(clientName, clientPhone);
-            if (clients.isEmpty()) {
+            List<ClientMatch> matches = clientService.searchClientsByNameAndPhone(clientName, clientPhone,
+                    CLIENT_SEARCH_LIMIT);
+            if (matches.isEmpty()) {
                 System.out.println("Client not found. Let's create a new client.");
                 return createNewClient();
-            } else if (clients.size() == 1) {
-                return clients.get(0);
+            } else if (matches.size() == 1 && matches.get(0).getScore() >= 1.0) {
+                // Same phone number and same name: no need to ask
+                return matches.get(0).getClient();
             } else {
-                return selectClientFromList(clients);
+                return selectClientFromMatches(matches);
             }
         } else {
             return createNewClient();
         }
     }
 
-    private Client selectClientFromList(List<Client> clients) {
-        System.out.println("\nMultiple clients found with the same name. Please select the correct client:");
-        for (int i = 0; i < clients.size(); i++) {
-            System.out.println((i + 1) + ". " + clients.get(i));
+    private Client selectClientFromMatches(List<ClientMatch> matches) {
+        System.out.println("\nMatching clients found, best match first. Please select the correct client:");
+        for (int i = 0; i < matches.size(); i++) {
+            System.out.println((i + 1) + ". " + matches.get(i));
         }
-        int clientIndex = inputValidator.getValidIntInput(scanner, "Select a client (1 to " + clients.size() + "): ")
+        System.out.println("0. None of these, create a new client");
+        int clientIndex = inputValidator.getValidIntInput(scanner, "Select a client (0 to " + matches.size() + "): ")
                 - 1;
-        if (clientIndex >= 0 && clientIndex < clients.size()) {
-            return clients.get(clientIndex);
+        if (clientIndex == -1) {
+            return createNewClient();
+        } else if (clientIndex >= 0 && clientIndex < matches.size()) {
+            return matches.get(clientIndex).getClient();
         } else {
             System.out.println("Invalid selection. Please try again.");
-            return selectClientFromList(clients);
+            return selectClientFromMatches(matches);
         }
     }
 
@@ -211,12 +232,10 @@ public class ProjectUI {
     private void addMaterialToProject(Project project) {
         Material material = createMaterialFromInput();
         project.addMaterial(material);
-        try {
-            projectService.saveMaterial(material, project.getId());
-            System.out.println("Material added to the project and saved to the database.");
-        } catch (SQLException e) {
-            System.out.println("Failed to save material to the database: " + e.getMessage());
+        if (project.getId() != null) {
+            pendingMaterials.add(material);
         }
+        System.out.println("Material added to the project.");
     }
 
     private Material createMaterialFromInput() {
@@ -232,11 +251,35 @@ public class ProjectUI {
     private void addLaborToProject(Project project) {
         Labor labor = createLaborFromInput();
         project.addLabor(labor);
+        if (project.getId() != null) {
+            pendingLabor.add(labor);
+        }
+        System.out.println("Labor added to the project.");
+    }
+
+    /**
+     * Saves the buffered components. Those that could not be saved are taken off the project.
+     *
+     * @return false if the buffered components could not be saved
+     */
+    private boolean flushPendingComponents(Project project) {
+        if (pendingMaterials.isEmpty() && pendingLabor.isEmpty()) {
+            return true;
+        }
+        int count = pendingMaterials.size() + pendingLabor.size();
         try {
-            projectService.saveLabor(labor, project.getId());
-            System.out.println("Labor added to the project and saved to the database.");
-        } catch (SQLException e) {
-            System.out.println("Failed to save labor to the database: " + e.getMessage());
+            projectService.saveComponents(project.getId(), pendingMaterials, pendingLabor);
+            System.out.println(count + " component(s) saved to the database.");
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Error saving components for project: " + project.getProjectName(), e);
+            System.out.println("Failed to save components to the database: " + e.getMessage());
+            pendingMaterials.forEach(project::removeComponent);
+            pendingLabor.forEach(project::removeComponent);
+            return false;
+        } finally {
+            pendingMaterials.clear();
+            pendingLabor.clear();
         }
     }
 
@@ -250,7 +293,7 @@ public class ProjectUI {
     }
 
     private void viewAndManageProjects() {
-        List<Project> projects = projectService.getAllProjects();
+        List<ProjectSummary> projects = projectService.getProjectSummaries();
         if (projects.isEmpty()) {
             System.out.println("No projects found.");
             return;
@@ -259,17 +302,23 @@ public class ProjectUI {
         displayProjects(projects);
         int projectIndex = selectProject(projects);
         if (projectIndex >= 0) {
-            manageProject(projects.get(projectIndex));
+            // Only the selected project is loaded with its client, materials and labor
+            Optional<Project> project = projectService.getProjectById(projects.get(projectIndex).getId());
+            if (project.isPresent()) {
+                manageProject(project.get());
+            } else {
+                System.out.println("Project no longer exists.");
+            }
         }
     }
 
-    private void displayProjects(List<Project> projects) {
+    private void displayProjects(List<ProjectSummary> projects) {
         System.out.println("\n=== Existing Projects ===");
         IntStream.range(0, projects.size())
-                .forEach(i -> System.out.println((i + 1) + ". " + projects.get(i).getProjectName()));
+                .forEach(i -> System.out.println((i + 1) + ". " + projects.get(i)));
     }
 
-    private int selectProject(List<Project> projects) {
+    private int selectProject(List<ProjectSummary> projects) {
         int projectIndex = inputValidator.getValidIntInput(scanner, "Select a project to manage (0 to cancel): ") - 1;
         return (projectIndex >= -1 && projectIndex < projects.size()) ? projectIndex : -1;
     }
@@ -282,6 +331,7 @@ public class ProjectUI {
                 break;
             }
         }
+        flushPendingComponents(project);
     }
 
     private void displayProjectMenu(Project project) {
@@ -311,6 +361,7 @@ public class ProjectUI {
                 addLaborToProject(project);
                 return true;
             case 5:
+                flushPendingComponents(project);
                 calculateAndDisplayTotalCost(project);
                 return true;
             case 6:
@@ -328,23 +379,41 @@ public class ProjectUI {
     }
 
     private void viewProjectDetails(Project project) {
+        flushPendingComponents(project);
+        ProjectOverview overview;
+        try {
+            overview = projectService.getProjectOverview(project.getId());
+        } catch (RuntimeException e) {
+            System.out.println("Failed to load project details: " + e.getMessage());
+            return;
+        }
+        Project current = overview.getProject();
         System.out.println("\n=== Project Details ===");
-        System.out.println(project.toString());
+        System.out.println(current.toString());
         System.out.println("\nMaterials:");
-        project.getMaterials().forEach(System.out::println);
+        current.getMaterials().forEach(System.out::println);
         System.out.println("\nLabor:");
-        project.getLaborItems().forEach(System.out::println);
+        current.getLaborItems().forEach(System.out::println);
+        projectService.getCostBreakdown(current.getId())
+                .ifPresent(costs -> System.out.println("\nCost breakdown: " + costs));
+        System.out.println("\nQuotes:");
+        if (overview.getQuotes().isEmpty()) {
+            System.out.println("No quotes yet.");
+        } else {
+            overview.getQuotes().forEach(System.out::println);
+        }
     }
 
     private void updateProjectStatus(Project project) {
         System.out.println("\n=== Update Project Status ===");
         ProjectStatus newStatus = getValidProjectStatus();
-        project.setProjectStatus(newStatus);
-        Project updatedProject = projectService.updateProject(project);
-        if (updatedProject != null) {
+        try {
+            Project updatedProject = projectService.updateProjectStatus(project.getId(), newStatus);
+            project.setProjectStatus(updatedProject.getProjectStatus());
+            project.setVersion(updatedProject.getVersion());
             System.out.println("Project status updated successfully: " + updatedProject.getProjectStatus());
-        } else {
-            System.out.println("Failed to update project status.");
+        } catch (RuntimeException e) {
+            System.out.println("Failed to update project status: " + e.getMessage());
         }
     }
 
@@ -358,11 +427,16 @@ public class ProjectUI {
     }
 
     private void generateAndDisplayQuote(Project project) {
+        // The quote must only list components the project really has
+        if (!flushPendingComponents(project)) {
+            System.out.println("Quote not generated.");
+            return;
+        }
         Quote quote = quoteGenerator.generateQuote(project);
         System.out.println("\nQuote generated successfully!");
         System.out.println(quote.toString());
         System.out.println("\nDetailed quote content:");
-        System.out.println(quote.getContent());
+        System.out.println(quoteGenerator.renderQuote(quote));
 
         if (inputValidator.getValidBooleanInput(scanner, "Do you want to save this quote? (oui/non): ")) {
             saveQuote(quote);
@@ -380,7 +454,7 @@ public class ProjectUI {
 
     private void deleteProject() {
         String projectName = inputValidator.getValidStringInput(scanner, "Enter the name of the project to delete: ");
-        Optional<Project> projectToDelete = projectService.getProjectByName(projectName);
+        Optional<ProjectSummary> projectToDelete = projectService.getProjectSummaryByName(projectName);
         if (projectToDelete.isPresent()) {
             confirmAndDeleteProject(projectToDelete.get());
         } else {
@@ -388,7 +462,7 @@ public class ProjectUI {
         }
     }
 
-    private void confirmAndDeleteProject(Project project) {
+    private void confirmAndDeleteProject(ProjectSummary project) {
         System.out.println("Are you sure you want to delete this project? " + project.getProjectName());
         if (inputValidator.getValidBooleanInput(scanner, "Confirm deletion (yes/no): ")) {
             try {
@@ -403,7 +477,7 @@ public class ProjectUI {
     }
 
     public void reviewAndAcceptQuote(Project project) {
-        List<Quote> quotes = quoteGenerator.getQuotesByProjectId(project.getId());
+        List<QuoteSummary> quotes = quoteGenerator.getQuoteSummariesByProjectId(project.getId());
 
         if (quotes.isEmpty()) {
             System.out.println("No quotes found for the project: " + project.getProjectName());
@@ -418,19 +492,27 @@ public class ProjectUI {
         int quoteIndex = inputValidator.getValidIntInput(scanner,
                 "Select a quote to review (1 to " + quotes.size() + "): ") - 1;
         if (quoteIndex >= 0 && quoteIndex < quotes.size()) {
-            Quote quote = quotes.get(quoteIndex);
+            QuoteSummary summary = quotes.get(quoteIndex);
+            Optional<Quote> quoteOpt = quoteGenerator.getQuoteById(summary.getId(), summary.getIssueDate());
+            if (!quoteOpt.isPresent()) {
+                System.out.println("Quote no longer exists.");
+                return;
+            }
+            Quote quote = quoteOpt.get();
             System.out.println("\nQuote Details:");
             System.out.println(quote.toString());
             System.out.println("\nDetailed quote content:");
-            System.out.println(quote.getContent());
+            System.out.println(quoteGenerator.renderQuote(quote));
 
             boolean accept = inputValidator.getValidBooleanInput(scanner,
                     "Do you want to accept this quote? (yes/no): ");
             try {
-                quote.setAccepted(accept);
-                quoteGenerator.updateQuote(quote);
-                System.out.println("Quote " + (accept ? "accepted" : "refused") + " successfully.");
-            } catch (IllegalStateException e) {
+                if (quoteGenerator.setQuoteAccepted(quote.getId(), quote.getIssueDate(), accept).isPresent()) {
+                    System.out.println("Quote " + (accept ? "accepted" : "refused") + " successfully.");
+                } else {
+                    System.out.println("Quote no longer exists.");
+                }
+            } catch (IllegalStateException | OptimisticLockException e) {
                 System.out.println("Failed to accept quote: " + e.getMessage());
             }
         } else {
@@ -438,22 +520,52 @@ public class ProjectUI {
         }
     }
 
+    private void viewOpenQuotes() {
+        List<QuoteSummary> quotes = quoteGenerator.getOpenQuoteSummaries();
+        if (quotes.isEmpty()) {
+            System.out.println("No open quotes.");
+            return;
+        }
+        System.out.println("\n=== Open Quotes (soonest to expire first) ===");
+        quotes.forEach(quote -> System.out.println("Project #" + quote.getProjectId() + " - " + quote));
+    }
+
+    private void findQuotesWithItem() {
+        String item = inputValidator.getValidStringInput(scanner, "Enter the material or labor to look for: ");
+        List<QuoteSummary> quotes = quoteGenerator.getQuoteSummariesWithItem(item);
+        if (quotes.isEmpty()) {
+            System.out.println("No quotes include: " + item);
+            return;
+        }
+        System.out.println("\n=== Quotes including '" + item + "' (newest first) ===");
+        quotes.forEach(quote -> System.out.println("Project #" + quote.getProjectId() + " - " + quote));
+    }
+
     public void viewQuotesByProjectName() {
         String projectName = inputValidator.getValidStringInput(scanner, "Enter the name of the project: ");
-        Optional<Project> projectOpt = projectService.getProjectByName(projectName);
+        Optional<ProjectSummary> projectOpt = projectService.getProjectSummaryByName(projectName);
 
         if (projectOpt.isPresent()) {
-            Project project = projectOpt.get();
-            List<Quote> quotes = quoteGenerator.getQuotesByProjectId(project.getId());
+            List<QuoteSummary> quotes = quoteGenerator.getQuoteSummariesByProjectId(projectOpt.get().getId());
 
             if (quotes.isEmpty()) {
                 System.out.println("No quotes found for the project: " + projectName);
             } else {
                 System.out.println("\nQuotes for project: " + projectName);
-                for (Quote quote : quotes) {
-                    System.out.println(quote.toString());
-                    System.out.println("\nDetailed quote content:");
-                    System.out.println(quote.getContent());
+                for (int i = 0; i < quotes.size(); i++) {
+                    System.out.println((i + 1) + ". " + quotes.get(i).toString());
+                }
+                int quoteIndex = inputValidator.getValidIntInput(scanner,
+                        "Select a quote to view its content (0 to return): ") - 1;
+                if (quoteIndex >= 0 && quoteIndex < quotes.size()) {
+                    QuoteSummary summary = quotes.get(quoteIndex);
+                    Optional<Quote> quote = quoteGenerator.getQuoteById(summary.getId(), summary.getIssueDate());
+                    if (quote.isPresent()) {
+                        System.out.println("\nDetailed quote content:");
+                        System.out.println(quoteGenerator.renderQuote(quote.get()));
+                    } else {
+                        System.out.println("Quote no longer exists.");
+                    }
                 }
             }
         } else {
@@ -0,0 +1,164 @@
+package com.baticuisine.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Hash map from primitive {@code long} keys to non-null values, using open addressing with
+ * linear probing. Keys are never boxed and each entry costs one array slot per table, which
+ * keeps lookups by entity id cheap. Not thread-safe.
+ */
+public class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps {@code key} to {@code value} and returns the previous value, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int i = slot(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        insertAt(i, key, value);
+        return null;
+    }
+
+    /**
+     * Maps {@code key} to {@code value} unless it is already mapped, and returns the value
+     * mapped to {@code key} afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(long key, V value) {
+        Objects.requireNonNull(value, "value");
+        int i = slot(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        insertAt(i, key, value);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int i = slot(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                deleteAt(i);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void insertAt(int index, long key, Object value) {
+        keys[index] = key;
+        values[index] = value;
+        // Keep the table at most half full so probe sequences stay short
+        if (++size > (mask + 1) >>> 1) {
+            resize();
+        }
+    }
+
+    /**
+     * Empties slot {@code index} and shifts later entries of the same probe run back, so that
+     * lookups never stop early at the hole (no tombstones needed).
+     */
+    private void deleteAt(int index) {
+        int hole = index;
+        for (int j = (hole + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            boolean reachable = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!reachable) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate((mask + 1) << 1);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = slot(oldKeys[i]);
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >>> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
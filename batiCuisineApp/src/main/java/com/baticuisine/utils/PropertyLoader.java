@@ -30,4 +30,30 @@ public class PropertyLoader {
     public static String getProperty(String key, String defaultValue) {
         return properties.getProperty(key, defaultValue);
     }
-}
\ No newline at end of file
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid integer value for property " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid long value for property " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
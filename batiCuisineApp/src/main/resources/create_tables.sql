@@ -1,12 +1,24 @@
 -- Drop existing tables if they exist
+DROP TABLE IF EXISTS quote_lines_archive;
+DROP TABLE IF EXISTS quotes_archive;
+DROP TABLE IF EXISTS project_components_archive;
+DROP TABLE IF EXISTS components_archive;
+DROP TABLE IF EXISTS projects_archive;
+DROP TABLE IF EXISTS client_rollups;
+DROP TABLE IF EXISTS project_cost_rollups;
 DROP TABLE IF EXISTS project_components;
+DROP TABLE IF EXISTS quote_lines;
 DROP TABLE IF EXISTS quotes;
+DROP TABLE IF EXISTS quote_documents;
 DROP TABLE IF EXISTS projects;
 DROP TABLE IF EXISTS clients;
 DROP TABLE IF EXISTS labor;
 DROP TABLE IF EXISTS materials;
 DROP TABLE IF EXISTS components;
 
+-- Trigram matching for fuzzy client name search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- Create Clients table
 CREATE TABLE clients (
     id SERIAL PRIMARY KEY,
@@ -15,7 +27,12 @@ CREATE TABLE clients (
     phone_number VARCHAR(20) NOT NULL,
     address TEXT NOT NULL,
     is_professional BOOLEAN NOT NULL,
-    discount_rate NUMERIC(5, 2) NOT NULL
+    discount_rate NUMERIC(5, 2) NOT NULL,
+    -- Lookup keys for client search; ClientRepositoryImpl normalizes queries the same way
+    phone_normalized VARCHAR(20) GENERATED ALWAYS AS (regexp_replace(phone_number, '\D', '', 'g')) STORED,
+    email_normalized VARCHAR(255) GENERATED ALWAYS AS (lower(btrim(email))) STORED,
+    -- Optimistic locking: every update checks and increments it (see OptimisticLockException)
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 -- Create Projects table
@@ -27,7 +44,10 @@ CREATE TABLE projects (
     status VARCHAR(50) NOT NULL,
     profit_margin NUMERIC(5, 2) NOT NULL,
     total_cost NUMERIC(10, 2) NOT NULL,
-    client_id INTEGER REFERENCES clients(id)
+    client_id INTEGER REFERENCES clients(id),
+    -- Set by projects_status_changed_at; closed projects are archived by age since closing
+    status_changed_at TIMESTAMP NOT NULL DEFAULT now(),
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 -- Create Components table
@@ -35,12 +55,17 @@ CREATE TABLE components (
     id SERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     type VARCHAR(50) NOT NULL,
-    tva_cost NUMERIC(5, 2) NOT NULL
+    tva_cost NUMERIC(5, 2) NOT NULL,
+    -- Catalog entries (added from the materials menu) are kept even when no project uses them;
+    -- other components are a project's line items and are purged with their last project
+    in_catalog BOOLEAN NOT NULL DEFAULT FALSE,
+    -- Covers the materials/labor row too; updates of either bump it
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 -- Create Materials table (inherits from Components)
 CREATE TABLE materials (
-    id INTEGER PRIMARY KEY REFERENCES components(id),
+    id INTEGER PRIMARY KEY REFERENCES components(id) ON DELETE CASCADE,
     unit_cost NUMERIC(10, 2) NOT NULL,
     quantite NUMERIC(10, 2) NOT NULL,
     transport_cost NUMERIC(10, 2) NOT NULL,
@@ -49,7 +74,7 @@ CREATE TABLE materials (
 
 -- Create Labor table (inherits from Components)
 CREATE TABLE labor (
-    id INTEGER PRIMARY KEY REFERENCES components(id),
+    id INTEGER PRIMARY KEY REFERENCES components(id) ON DELETE CASCADE,
     hourly_rate NUMERIC(10, 2) NOT NULL,
     work_hours NUMERIC(10, 2) NOT NULL,
     worker_productivity NUMERIC(5, 2) NOT NULL
@@ -57,33 +82,362 @@ CREATE TABLE labor (
 
 -- Create Project_Components junction table
 CREATE TABLE project_components (
-    project_id INTEGER REFERENCES projects(id),
+    project_id INTEGER REFERENCES projects(id) ON DELETE CASCADE,
     component_id INTEGER REFERENCES components(id),
     quantity NUMERIC(10, 2) NOT NULL,
     PRIMARY KEY (project_id, component_id)
 );
 
--- Create Quotes table
+-- Create Quotes table, partitioned by month of issue_date. QuotePartitionManager creates the
+-- monthly partitions (quotes_pYYYY_MM) at startup; rows outside them land in quotes_default.
+-- The primary key must include the partition key. Validity is capped so that queries on
+-- validity_date can also bound issue_date and skip old partitions (QuoteRepositoryImpl).
 CREATE TABLE quotes (
-    id SERIAL PRIMARY KEY,
-    project_id INTEGER REFERENCES projects(id),
+    id SERIAL,
+    project_id INTEGER REFERENCES projects(id) ON DELETE CASCADE,
+    total_cost NUMERIC(10, 2) NOT NULL,
+    issue_date DATE NOT NULL,
+    validity_date DATE NOT NULL,
+    is_accepted BOOLEAN NOT NULL DEFAULT FALSE,
+    version INTEGER NOT NULL DEFAULT 0,
+    document_hash CHAR(64),
+    PRIMARY KEY (id, issue_date),
+    CHECK (validity_date BETWEEN issue_date AND issue_date + 366)
+) PARTITION BY RANGE (issue_date);
+
+CREATE TABLE quotes_default PARTITION OF quotes DEFAULT;
+
+-- Rendered quote documents, gzip-compressed and keyed by the SHA-256 of their text
+-- (DatabaseQuoteDocumentStore). Quotes refer to them by quotes.document_hash; identical documents
+-- are stored once. There is no foreign key, as the store can also be a directory.
+CREATE TABLE quote_documents (
+    hash CHAR(64) PRIMARY KEY,
+    content BYTEA NOT NULL,
+    original_size INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+-- Already compressed: store out of line without another pglz pass
+ALTER TABLE quote_documents ALTER COLUMN content SET STORAGE EXTERNAL;
+
+-- Priced snapshot of a quote, the only record of what was quoted: one line per material and
+-- labor item at the prices of the day, then the summary lines (subtotal, discount, one VAT line
+-- per rate, total). The quote text is rendered from these lines. component_id is not a foreign
+-- key, so the snapshot outlives edits and deletion of its components.
+CREATE TABLE quote_lines (
+    quote_id INTEGER NOT NULL,
+    issue_date DATE NOT NULL,
+    line_no SMALLINT NOT NULL,
+    kind VARCHAR(20) NOT NULL CHECK (kind IN ('MATERIAL', 'LABOR', 'SUBTOTAL', 'DISCOUNT', 'VAT', 'TOTAL')),
+    component_id INTEGER,
+    description VARCHAR(255) NOT NULL,
+    quantity NUMERIC(10, 2),
+    unit_price NUMERIC(10, 2),
+    coefficient NUMERIC(5, 2),
+    extra_cost NUMERIC(10, 2),
+    rate NUMERIC(5, 4),
+    amount NUMERIC(12, 2) NOT NULL,
+    PRIMARY KEY (quote_id, issue_date, line_no),
+    FOREIGN KEY (quote_id, issue_date) REFERENCES quotes(id, issue_date) ON DELETE CASCADE
+);
+
+-- Archive of closed projects, moved there by ArchivalService with their line items and quotes.
+-- Components shared with live projects are copied; the others are moved.
+CREATE TABLE projects_archive (
+    id INTEGER PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    surface NUMERIC(10, 2) NOT NULL,
+    start_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    profit_margin NUMERIC(5, 2) NOT NULL,
+    total_cost NUMERIC(10, 2) NOT NULL,
+    client_id INTEGER,
+    status_changed_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE TABLE components_archive (
+    id INTEGER PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    tva_cost NUMERIC(5, 2) NOT NULL,
+    unit_cost NUMERIC(10, 2),
+    quantite NUMERIC(10, 2),
+    transport_cost NUMERIC(10, 2),
+    coefficient_qualite NUMERIC(5, 2),
+    hourly_rate NUMERIC(10, 2),
+    work_hours NUMERIC(10, 2),
+    worker_productivity NUMERIC(5, 2),
+    archived_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE TABLE project_components_archive (
+    project_id INTEGER NOT NULL REFERENCES projects_archive(id),
+    component_id INTEGER NOT NULL REFERENCES components_archive(id),
+    quantity NUMERIC(10, 2) NOT NULL,
+    PRIMARY KEY (project_id, component_id)
+);
+
+CREATE TABLE quotes_archive (
+    id INTEGER NOT NULL,
+    project_id INTEGER NOT NULL REFERENCES projects_archive(id),
     total_cost NUMERIC(10, 2) NOT NULL,
     issue_date DATE NOT NULL,
     validity_date DATE NOT NULL,
-    content TEXT NOT NULL,
-    is_accepted BOOLEAN NOT NULL DEFAULT FALSE
+    is_accepted BOOLEAN NOT NULL,
+    document_hash CHAR(64),
+    PRIMARY KEY (id, issue_date)
 );
 
+CREATE TABLE quote_lines_archive (
+    quote_id INTEGER NOT NULL,
+    issue_date DATE NOT NULL,
+    line_no SMALLINT NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    component_id INTEGER,
+    description VARCHAR(255) NOT NULL,
+    quantity NUMERIC(10, 2),
+    unit_price NUMERIC(10, 2),
+    coefficient NUMERIC(5, 2),
+    extra_cost NUMERIC(10, 2),
+    rate NUMERIC(5, 4),
+    amount NUMERIC(12, 2) NOT NULL,
+    PRIMARY KEY (quote_id, issue_date, line_no),
+    FOREIGN KEY (quote_id, issue_date) REFERENCES quotes_archive(id, issue_date)
+);
+
+CREATE OR REPLACE FUNCTION projects_status_changed_at() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.status IS DISTINCT FROM OLD.status THEN
+        NEW.status_changed_at := now();
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER projects_status_changed_at BEFORE UPDATE OF status ON projects
+    FOR EACH ROW EXECUTE FUNCTION projects_status_changed_at();
+
+-- Cost breakdown per project, kept current by the triggers below. Amounts follow
+-- CostCalculator: materials (unit cost x quantity x quality + transport), labor (rate x hours),
+-- the client's discount on their sum, then 20% VAT on the discounted subtotal
+CREATE TABLE project_cost_rollups (
+    project_id INTEGER PRIMARY KEY REFERENCES projects(id) ON DELETE CASCADE,
+    material_cost NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    labor_cost NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    discount NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    vat NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    total_cost NUMERIC(12, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Per-client aggregates: the pipeline is the rolled-up cost of projects still pending or in progress
+CREATE TABLE client_rollups (
+    client_id INTEGER PRIMARY KEY REFERENCES clients(id) ON DELETE CASCADE,
+    project_count INTEGER NOT NULL DEFAULT 0,
+    pipeline_value NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    accepted_quote_value NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Recomputes the given clients' rollups from their projects and quotes. The rollup rows are
+-- locked first, in id order: a concurrent refresh of the same client waits, and the UPDATE
+-- below (a new statement, so a new snapshot) then sees the other transaction's committed rows.
+CREATE OR REPLACE FUNCTION refresh_client_rollups(client_ids INTEGER[]) RETURNS VOID AS $$
+BEGIN
+    IF cardinality(client_ids) = 0 THEN
+        RETURN;
+    END IF;
+    INSERT INTO client_rollups (client_id)
+    SELECT id FROM clients WHERE id = ANY(client_ids) ORDER BY id
+    ON CONFLICT (client_id) DO NOTHING;
+    PERFORM 1 FROM client_rollups WHERE client_id = ANY(client_ids) ORDER BY client_id FOR UPDATE;
+
+    UPDATE client_rollups cr
+    SET project_count = s.project_count,
+        pipeline_value = s.pipeline_value,
+        accepted_quote_value = s.accepted_quote_value,
+        updated_at = now()
+    FROM (
+        SELECT c.id,
+               (SELECT count(*) FROM projects p WHERE p.client_id = c.id) AS project_count,
+               (SELECT COALESCE(sum(r.total_cost), 0)
+                FROM projects p JOIN project_cost_rollups r ON r.project_id = p.id
+                WHERE p.client_id = c.id AND p.status IN ('EN_ATTENTE', 'EN_COURS')) AS pipeline_value,
+               (SELECT COALESCE(sum(q.total_cost), 0)
+                FROM projects p JOIN quotes q ON q.project_id = p.id
+                WHERE p.client_id = c.id AND q.is_accepted) AS accepted_quote_value
+        FROM clients c
+        WHERE c.id = ANY(client_ids)
+    ) s
+    WHERE cr.client_id = s.id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recomputes the given projects' cost breakdowns, then their clients' rollups. Locking works
+-- as in refresh_client_rollups.
+CREATE OR REPLACE FUNCTION refresh_project_cost_rollups(project_ids INTEGER[]) RETURNS VOID AS $$
+BEGIN
+    IF cardinality(project_ids) = 0 THEN
+        RETURN;
+    END IF;
+    INSERT INTO project_cost_rollups (project_id)
+    SELECT id FROM projects WHERE id = ANY(project_ids) ORDER BY id
+    ON CONFLICT (project_id) DO NOTHING;
+    PERFORM 1 FROM project_cost_rollups WHERE project_id = ANY(project_ids) ORDER BY project_id FOR UPDATE;
+
+    UPDATE project_cost_rollups r
+    SET material_cost = b.material_cost,
+        labor_cost = b.labor_cost,
+        discount = b.subtotal * b.discount_rate,
+        vat = b.subtotal * (1 - b.discount_rate) * 0.20,
+        total_cost = b.subtotal * (1 - b.discount_rate) * 1.20,
+        updated_at = now()
+    FROM (
+        SELECT p.id, costs.material_cost, costs.labor_cost,
+               costs.material_cost + costs.labor_cost AS subtotal,
+               COALESCE(c.discount_rate, 0) AS discount_rate
+        FROM projects p
+        LEFT JOIN clients c ON c.id = p.client_id
+        CROSS JOIN LATERAL (
+            SELECT COALESCE(sum(m.unit_cost * m.quantite * m.coefficient_qualite + m.transport_cost), 0) AS material_cost,
+                   COALESCE(sum(l.hourly_rate * l.work_hours), 0) AS labor_cost
+            FROM project_components pc
+            LEFT JOIN materials m ON m.id = pc.component_id
+            LEFT JOIN labor l ON l.id = pc.component_id
+            WHERE pc.project_id = p.id
+        ) costs
+        WHERE p.id = ANY(project_ids)
+    ) b
+    WHERE r.project_id = b.id;
+
+    PERFORM refresh_client_rollups(ARRAY(
+        SELECT DISTINCT client_id FROM projects WHERE id = ANY(project_ids) AND client_id IS NOT NULL));
+END;
+$$ LANGUAGE plpgsql;
+
+-- Line item changes: statement-level, so a batch of N rows refreshes each project once
+CREATE OR REPLACE FUNCTION project_components_rollup_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_project_cost_rollups(ARRAY(SELECT DISTINCT project_id FROM new_rows));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM refresh_project_cost_rollups(ARRAY(SELECT DISTINCT project_id FROM old_rows));
+    ELSE
+        PERFORM refresh_project_cost_rollups(ARRAY(
+            SELECT project_id FROM new_rows UNION SELECT project_id FROM old_rows));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER project_components_rollup_insert AFTER INSERT ON project_components
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION project_components_rollup_trigger();
+CREATE TRIGGER project_components_rollup_update AFTER UPDATE ON project_components
+    REFERENCING NEW TABLE AS new_rows OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION project_components_rollup_trigger();
+CREATE TRIGGER project_components_rollup_delete AFTER DELETE ON project_components
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION project_components_rollup_trigger();
+
+-- Material and labor price changes refresh every project using the component
+CREATE OR REPLACE FUNCTION component_cost_rollup_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM refresh_project_cost_rollups(ARRAY(
+            SELECT DISTINCT pc.project_id FROM project_components pc JOIN old_rows o ON o.id = pc.component_id));
+    ELSE
+        PERFORM refresh_project_cost_rollups(ARRAY(
+            SELECT DISTINCT pc.project_id FROM project_components pc JOIN new_rows n ON n.id = pc.component_id));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER materials_rollup_insert AFTER INSERT ON materials
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION component_cost_rollup_trigger();
+CREATE TRIGGER materials_rollup_update AFTER UPDATE ON materials
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION component_cost_rollup_trigger();
+CREATE TRIGGER materials_rollup_delete AFTER DELETE ON materials
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION component_cost_rollup_trigger();
+CREATE TRIGGER labor_rollup_insert AFTER INSERT ON labor
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION component_cost_rollup_trigger();
+CREATE TRIGGER labor_rollup_update AFTER UPDATE ON labor
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION component_cost_rollup_trigger();
+CREATE TRIGGER labor_rollup_delete AFTER DELETE ON labor
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION component_cost_rollup_trigger();
+
+-- Project rows: a new project starts at zero; a client or status change moves it between rollups
+CREATE OR REPLACE FUNCTION projects_rollup_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM refresh_client_rollups(ARRAY[OLD.client_id]);
+        RETURN NULL;
+    END IF;
+    PERFORM refresh_project_cost_rollups(ARRAY[NEW.id]);
+    IF TG_OP = 'UPDATE' THEN
+        IF OLD.client_id IS DISTINCT FROM NEW.client_id THEN
+            PERFORM refresh_client_rollups(ARRAY[OLD.client_id]);
+        END IF;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER projects_rollup AFTER INSERT OR DELETE OR UPDATE OF client_id, status ON projects
+    FOR EACH ROW EXECUTE FUNCTION projects_rollup_trigger();
+
+-- A new client gets an empty rollup; a discount change reprices all their projects
+CREATE OR REPLACE FUNCTION clients_rollup_trigger() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM refresh_client_rollups(ARRAY[NEW.id]);
+    ELSE
+        PERFORM refresh_project_cost_rollups(ARRAY(SELECT id FROM projects WHERE client_id = NEW.id));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER clients_rollup AFTER INSERT OR UPDATE OF discount_rate ON clients
+    FOR EACH ROW EXECUTE FUNCTION clients_rollup_trigger();
+
+-- Quote writes change the client's accepted-quote value
+CREATE OR REPLACE FUNCTION quotes_rollup_trigger() RETURNS TRIGGER AS $$
+DECLARE
+    project_ids INTEGER[] := '{}';
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        project_ids := project_ids || OLD.project_id;
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        project_ids := project_ids || NEW.project_id;
+    END IF;
+    PERFORM refresh_client_rollups(ARRAY(
+        SELECT DISTINCT client_id FROM projects WHERE id = ANY(project_ids) AND client_id IS NOT NULL));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER quotes_rollup AFTER INSERT OR DELETE OR UPDATE OF project_id, total_cost, is_accepted ON quotes
+    FOR EACH ROW EXECUTE FUNCTION quotes_rollup_trigger();
+
 -- Create indexes
 CREATE INDEX idx_clients_email ON clients(email);
 CREATE INDEX idx_clients_phone_number ON clients(phone_number);
+CREATE INDEX idx_clients_phone_normalized ON clients USING hash (phone_normalized);
+CREATE INDEX idx_clients_email_normalized ON clients USING hash (email_normalized);
+CREATE INDEX idx_clients_name_trgm ON clients USING gin (lower(name) gin_trgm_ops);
 CREATE INDEX idx_projects_client_id ON projects(client_id);
+CREATE INDEX idx_projects_closed ON projects(status_changed_at) WHERE status IN ('TERMINE', 'ANNULE');
+CREATE INDEX idx_quotes_archive_project_id ON quotes_archive(project_id);
 CREATE INDEX idx_components_name ON components(name);
 CREATE INDEX idx_materials_unit_cost ON materials(unit_cost);
 CREATE INDEX idx_labor_hourly_rate ON labor(hourly_rate);
 CREATE INDEX idx_project_components_project_id ON project_components(project_id);
 CREATE INDEX idx_project_components_component_id ON project_components(component_id);
 CREATE INDEX idx_quotes_project_id ON quotes(project_id);
+CREATE INDEX idx_quotes_open_validity_date ON quotes(validity_date) WHERE NOT is_accepted;
+CREATE INDEX idx_quote_lines_description_trgm ON quote_lines USING gin (lower(description) gin_trgm_ops);
+CREATE INDEX idx_quote_lines_component_id ON quote_lines(component_id);
+CREATE INDEX idx_client_rollups_pipeline_value ON client_rollups(pipeline_value DESC);
 
 -- Insert sample data
 INSERT INTO clients (name, email, phone_number, address, is_professional, discount_rate) VALUES
@@ -100,17 +454,17 @@ INSERT INTO projects (name, surface, start_date, status, profit_margin, total_co
     ('Living Room Extension', 50.0, '2023-09-01', 'EN_ATTENTE', 25.0, 0.0, 4),
     ('Garage Conversion', 30.0, '2023-10-01', 'EN_COURS', 18.0, 0.0, 5);
 
-INSERT INTO components (name, type, tva_cost) VALUES
-    ('Wooden Cabinet', 'MATERIAL', 20.0),
-    ('Granite Countertop', 'MATERIAL', 20.0),
-    ('Plumbing Installation', 'LABOR', 20.0),
-    ('Electrical Wiring', 'LABOR', 20.0),
-    ('Tile Flooring', 'MATERIAL', 20.0),
-    ('Paint', 'MATERIAL', 20.0),
-    ('Drywall Installation', 'LABOR', 20.0),
-    ('HVAC Installation', 'LABOR', 20.0),
-    ('Lighting Fixtures', 'MATERIAL', 20.0),
-    ('Roofing', 'LABOR', 20.0);
+INSERT INTO components (name, type, tva_cost, in_catalog) VALUES
+    ('Wooden Cabinet', 'MATERIAL', 20.0, true),
+    ('Granite Countertop', 'MATERIAL', 20.0, true),
+    ('Plumbing Installation', 'LABOR', 20.0, true),
+    ('Electrical Wiring', 'LABOR', 20.0, true),
+    ('Tile Flooring', 'MATERIAL', 20.0, true),
+    ('Paint', 'MATERIAL', 20.0, true),
+    ('Drywall Installation', 'LABOR', 20.0, true),
+    ('HVAC Installation', 'LABOR', 20.0, true),
+    ('Lighting Fixtures', 'MATERIAL', 20.0, true),
+    ('Roofing', 'LABOR', 20.0, true);
 
 INSERT INTO materials (id, unit_cost, quantite, transport_cost, coefficient_qualite) VALUES
     (1, 200.00, 5, 50.00, 1.2),